@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.awt;
+
+import us.aaronweiss.pkgnx.nodes.NXBitmapNode;
+import us.aaronweiss.pkgnx.nodes.NXPointNode;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Adapts the primitive values of {@code pkgnx-core} to AWT, for clients which draw what they read.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public final class NXAwt {
+	private NXAwt() {
+		return;
+	}
+
+	/**
+	 * Gets the value of a bitmap node as a {@code BufferedImage}.
+	 *
+	 * @param node the node to read
+	 * @return the image, or null if the file has no bitmaps
+	 */
+	public static BufferedImage getImage(NXBitmapNode node) {
+		byte[] pixels = node.getPixels();
+		return pixels == null ? null : toImage(pixels, node.getWidth(), node.getHeight());
+	}
+
+	/**
+	 * Builds a {@code BufferedImage} from pixels in blue, green, red, alpha order, as decompressed from an NX file.
+	 *
+	 * @param pixels the pixels of the image
+	 * @param width  the width of the image
+	 * @param height the height of the image
+	 * @return the image
+	 */
+	public static BufferedImage toImage(byte[] pixels, int width, int height) {
+		BufferedImage ret = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		int[] data = ((DataBufferInt) ret.getRaster().getDataBuffer()).getData();
+		// each little endian int of BGRA bytes is an ARGB pixel
+		ByteBuffer.wrap(pixels).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(data, 0, width * height);
+		return ret;
+	}
+
+	/**
+	 * Gets the value of a vector node as a {@code Point}.
+	 *
+	 * @param node the node to read
+	 * @return the point
+	 */
+	public static Point getPoint(NXPointNode node) {
+		return new Point(node.getX(), node.getY());
+	}
+}
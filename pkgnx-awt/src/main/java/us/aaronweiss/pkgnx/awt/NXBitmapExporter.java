@@ -0,0 +1,512 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.awt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.aaronweiss.pkgnx.LazyNXFile;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.nodes.NXBitmapNode;
+import us.aaronweiss.pkgnx.util.Decompressor;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bulk exporter of the bitmaps under a node to PNG files, laid out by node path under an output directory.
+ * <p>
+ * An export runs as a pipeline of stages. The calling thread scans the subtree and copies the compressed pixels of
+ * each bitmap out of the file, so the file itself is only ever read by one thread. The bitmaps are then decompressed
+ * on one pool, encoded to PNG on another and written out on a third. At most {@code capacity} bitmaps are in flight
+ * between the scan and the last write, which bounds the memory held by the queues between stages.
+ * <p>
+ * Nodes which share a bitmap are decompressed and encoded once, and the PNG is written to each of their paths. Outputs
+ * newer than the NX file are left alone, and a stale output whose bitmap already has an up-to-date output elsewhere is
+ * copied from it instead of being encoded again. Nodes whose path would lead outside of the output directory are
+ * skipped and counted as failures.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.1
+ * @since 10/19/26
+ */
+public class NXBitmapExporter {
+	private static final Logger logger = LoggerFactory.getLogger(NXBitmapExporter.class);
+	private static final AtomicInteger exportCount = new AtomicInteger();
+	private final Path output;
+	private final int decodeThreads, encodeThreads, writeThreads, capacity;
+
+	/**
+	 * Creates an exporter to {@code output} with a decode and an encode thread per processor and two writer threads.
+	 *
+	 * @param output the directory to export to
+	 */
+	public NXBitmapExporter(Path output) {
+		this(output, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(), 2,
+				Runtime.getRuntime().availableProcessors() * 4);
+	}
+
+	/**
+	 * Creates an exporter to {@code output}.
+	 *
+	 * @param output        the directory to export to
+	 * @param decodeThreads the number of threads to decompress bitmaps with
+	 * @param encodeThreads the number of threads to encode PNGs with
+	 * @param writeThreads  the number of threads to write files with
+	 * @param capacity      the maximum number of bitmaps in flight at once
+	 */
+	public NXBitmapExporter(Path output, int decodeThreads, int encodeThreads, int writeThreads, int capacity) {
+		if (decodeThreads < 1 || encodeThreads < 1 || writeThreads < 1)
+			throw new IllegalArgumentException("Every stage of an export needs at least one thread.");
+		if (capacity < 1)
+			throw new IllegalArgumentException("An export needs room for at least one bitmap in flight.");
+		this.output = output;
+		this.decodeThreads = decodeThreads;
+		this.encodeThreads = encodeThreads;
+		this.writeThreads = writeThreads;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Exports every bitmap below {@code root}, blocking until the last file has been written. Bitmaps which fail to
+	 * export are logged and counted, and do not stop the rest of the export.
+	 *
+	 * @param root the node to export the bitmaps below
+	 * @return the report of the export
+	 * @throws InterruptedException if interrupted while waiting on the pipeline, which is then shut down
+	 */
+	public Report export(NXNode root) throws InterruptedException {
+		Run run = new Run();
+		try {
+			run.scan(root);
+			run.dispatch();
+		} finally {
+			run.shutdown();
+		}
+		Report report = run.report();
+		logger.info("{}", report);
+		return report;
+	}
+
+	/**
+	 * Exports the bitmaps of an NX file from the command line:
+	 * {@code NXBitmapExporter <file> <output> [path] [decode threads] [encode threads] [write threads]}.
+	 *
+	 * @param args the command line arguments
+	 * @throws IOException          if the file could not be opened
+	 * @throws InterruptedException if interrupted while exporting
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 2) {
+			System.err.println("Usage: NXBitmapExporter <file> <output> [path] [decode threads] [encode threads] "
+					+ "[write threads]");
+			System.exit(1);
+		}
+		int processors = Runtime.getRuntime().availableProcessors();
+		int decode = args.length > 3 ? Integer.parseInt(args[3]) : processors;
+		int encode = args.length > 4 ? Integer.parseInt(args[4]) : processors;
+		int write = args.length > 5 ? Integer.parseInt(args[5]) : 2;
+		try (NXFile file = new LazyNXFile(args[0])) {
+			NXNode root = args.length > 2 ? file.resolve(args[2]) : file.getRoot();
+			if (root == null) {
+				System.err.println("No node at " + args[2]);
+				System.exit(1);
+			}
+			System.out.println(new NXBitmapExporter(Paths.get(args[1]), decode, encode, write,
+					(decode + encode + write) * 2).export(root));
+		}
+	}
+
+	/**
+	 * Gets the time {@code file} was last modified, which its outputs must be at least as new as to be skipped.
+	 *
+	 * @param file the file being exported
+	 * @return the modification time in milliseconds, or {@code Long.MAX_VALUE} if the file has no single path
+	 */
+	private static long lastModified(NXFile file) {
+		try {
+			return Files.getLastModifiedTime(Paths.get(file.getFilePath())).toMillis();
+		} catch (IOException | InvalidPathException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * A single bitmap of a file, and the paths it is exported to.
+	 */
+	private static class Job {
+		private final NXFile file;
+		private final long bitmap;
+		private final int width, height;
+		private final List<Path> targets = new ArrayList<>(1);
+		private Path current;
+
+		public Job(NXBitmapNode node) {
+			file = node.getFile();
+			bitmap = node.getBitmapIndex();
+			width = node.getWidth();
+			height = node.getHeight();
+		}
+	}
+
+	/**
+	 * The state of a single run of the exporter.
+	 */
+	private class Run {
+		private final Map<NXFile, Map<Long, Job>> jobs = new IdentityHashMap<>();
+		private final Map<NXFile, Long> modified = new IdentityHashMap<>();
+		private final List<Job> pending = new ArrayList<>();
+		private final Semaphore permits = new Semaphore(capacity);
+		private final ExecutorService decoders, encoders, writers;
+		private final AtomicLong encoded = new AtomicLong(), written = new AtomicLong(), copied = new AtomicLong();
+		private final AtomicLong failed = new AtomicLong(), pixels = new AtomicLong(), bytes = new AtomicLong();
+		private final long start = System.nanoTime();
+		private final Path root = output.toAbsolutePath().normalize();
+		private long nodes, bitmaps, upToDate, scanNanos;
+
+		public Run() {
+			String prefix = "pkgnx-export-" + exportCount.incrementAndGet() + "-";
+			decoders = pool(prefix + "decode-", decodeThreads);
+			encoders = pool(prefix + "encode-", encodeThreads);
+			writers = pool(prefix + "write-", writeThreads);
+		}
+
+		private ExecutorService pool(String prefix, int threads) {
+			AtomicInteger threadCount = new AtomicInteger();
+			return Executors.newFixedThreadPool(threads, r -> {
+				Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		/**
+		 * Lists the bitmap nodes below {@code root}, grouping them by bitmap and setting aside their fresh outputs.
+		 */
+		public void scan(NXNode root) {
+			for (Iterator<NXNode> it = root.descendants().iterator(); it.hasNext(); ) {
+				NXNode node = it.next();
+				if (!(node instanceof NXBitmapNode))
+					continue;
+				NXBitmapNode bitmap = (NXBitmapNode) node;
+				nodes++;
+				Path target = target(node);
+				if (target == null) {
+					failed.incrementAndGet();
+					continue;
+				}
+				Map<Long, Job> fileJobs = jobs.computeIfAbsent(node.getFile(), f -> new LinkedHashMap<>());
+				Job job = fileJobs.get(bitmap.getBitmapIndex());
+				if (job == null) {
+					fileJobs.put(bitmap.getBitmapIndex(), job = new Job(bitmap));
+					bitmaps++;
+				}
+				if (isFresh(target, node.getFile())) {
+					job.current = target;
+					upToDate++;
+				} else {
+					job.targets.add(target);
+				}
+			}
+			for (Map<Long, Job> fileJobs : jobs.values())
+				for (Job job : fileJobs.values())
+					if (!job.targets.isEmpty())
+						pending.add(job);
+			scanNanos = System.nanoTime() - start;
+		}
+
+		/**
+		 * Gets the output path of a bitmap node, or null if its path would leave the output directory, as a name
+		 * containing {@code ..} or starting with {@code /} would.
+		 */
+		private Path target(NXNode node) {
+			String path = node.getPath();
+			try {
+				Path target = root.resolve(path + ".png").normalize();
+				if (target.startsWith(root))
+					return target;
+			} catch (InvalidPathException e) {
+				// reported below like any other path outside the output directory
+			}
+			logger.warn("Refusing to export bitmap node {} outside of {}.", path, output);
+			return null;
+		}
+
+		private boolean isFresh(Path target, NXFile file) {
+			try {
+				return Files.getLastModifiedTime(target).toMillis() >= modified.computeIfAbsent(file,
+						NXBitmapExporter::lastModified);
+			} catch (IOException e) {
+				return false;
+			}
+		}
+
+		/**
+		 * Feeds the pending bitmaps through the pipeline, reading each one out of its file as a permit frees up, and
+		 * waits for the last of them to be written.
+		 */
+		public void dispatch() throws InterruptedException {
+			for (Job job : pending) {
+				permits.acquire();
+				if (job.current != null) {
+					writers.execute(() -> copy(job));
+					continue;
+				}
+				byte[] compressed;
+				try {
+					compressed = job.file.getTables().getCompressedBitmap(job.bitmap);
+				} catch (RuntimeException e) {
+					fail(job, e);
+					continue;
+				}
+				decoders.execute(() -> decode(job, compressed));
+			}
+			permits.acquire(capacity);
+		}
+
+		private void decode(Job job, byte[] compressed) {
+			try {
+				BufferedImage image = NXAwt.toImage(Decompressor.decompress(compressed, job.width * job.height * 4),
+						job.width, job.height);
+				pixels.addAndGet((long) job.width * job.height);
+				encoders.execute(() -> encode(job, image));
+			} catch (RuntimeException e) {
+				fail(job, e);
+			}
+		}
+
+		private void encode(Job job, BufferedImage image) {
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+					if (!ImageIO.write(image, "png", stream))
+						throw new IOException("No PNG encoder is available.");
+				}
+				encoded.incrementAndGet();
+				byte[] png = out.toByteArray();
+				writers.execute(() -> write(job, png));
+			} catch (IOException | RuntimeException e) {
+				fail(job, e);
+			}
+		}
+
+		private void write(Job job, byte[] png) {
+			try {
+				for (Path target : job.targets) {
+					Files.createDirectories(target.getParent());
+					Files.write(target, png);
+					written.incrementAndGet();
+					bytes.addAndGet(png.length);
+				}
+				permits.release();
+			} catch (IOException | RuntimeException e) {
+				fail(job, e);
+			}
+		}
+
+		private void copy(Job job) {
+			try {
+				for (Path target : job.targets) {
+					Files.createDirectories(target.getParent());
+					Files.copy(job.current, target, StandardCopyOption.REPLACE_EXISTING);
+					copied.incrementAndGet();
+				}
+				permits.release();
+			} catch (IOException | RuntimeException e) {
+				fail(job, e);
+			}
+		}
+
+		private void fail(Job job, Exception e) {
+			failed.incrementAndGet();
+			logger.warn("Failed to export bitmap {} to {}.", job.bitmap, job.targets.get(0), e);
+			permits.release();
+		}
+
+		public void shutdown() {
+			decoders.shutdownNow();
+			encoders.shutdownNow();
+			writers.shutdownNow();
+		}
+
+		public Report report() {
+			return new Report(nodes, bitmaps, encoded.get(), written.get(), copied.get(), upToDate, failed.get(),
+					pixels.get(), bytes.get(), scanNanos, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * The counts and throughput of a finished export.
+	 *
+	 * @author Aaron Weiss
+	 * @version 1.0.0
+	 * @since 10/19/26
+	 */
+	public static class Report {
+		private final long nodes, bitmaps, encoded, written, copied, upToDate, failed, pixels, bytes;
+		private final long scanNanos, totalNanos;
+
+		private Report(long nodes, long bitmaps, long encoded, long written, long copied, long upToDate, long failed,
+				long pixels, long bytes, long scanNanos, long totalNanos) {
+			this.nodes = nodes;
+			this.bitmaps = bitmaps;
+			this.encoded = encoded;
+			this.written = written;
+			this.copied = copied;
+			this.upToDate = upToDate;
+			this.failed = failed;
+			this.pixels = pixels;
+			this.bytes = bytes;
+			this.scanNanos = scanNanos;
+			this.totalNanos = totalNanos;
+		}
+
+		/**
+		 * Gets the number of bitmap nodes found by the scan.
+		 *
+		 * @return the number of bitmap nodes
+		 */
+		public long getNodeCount() {
+			return nodes;
+		}
+
+		/**
+		 * Gets the number of distinct bitmaps referenced by those nodes.
+		 *
+		 * @return the number of distinct bitmaps
+		 */
+		public long getBitmapCount() {
+			return bitmaps;
+		}
+
+		/**
+		 * Gets the number of bitmaps decompressed and encoded to PNG.
+		 *
+		 * @return the number of encoded bitmaps
+		 */
+		public long getEncodedCount() {
+			return encoded;
+		}
+
+		/**
+		 * Gets the number of files written from freshly encoded PNGs.
+		 *
+		 * @return the number of written files
+		 */
+		public long getWrittenCount() {
+			return written;
+		}
+
+		/**
+		 * Gets the number of files copied from an up-to-date output of the same bitmap.
+		 *
+		 * @return the number of copied files
+		 */
+		public long getCopiedCount() {
+			return copied;
+		}
+
+		/**
+		 * Gets the number of outputs which were already up to date and skipped.
+		 *
+		 * @return the number of skipped files
+		 */
+		public long getUpToDateCount() {
+			return upToDate;
+		}
+
+		/**
+		 * Gets the number of bitmaps which failed to export.
+		 *
+		 * @return the number of failures
+		 */
+		public long getFailedCount() {
+			return failed;
+		}
+
+		/**
+		 * Gets the number of bytes of PNG written.
+		 *
+		 * @return the bytes written
+		 */
+		public long getBytesWritten() {
+			return bytes;
+		}
+
+		/**
+		 * Gets the time taken by the whole export, scan included.
+		 *
+		 * @return the elapsed time in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return totalNanos;
+		}
+
+		/**
+		 * Gets the rate at which bitmaps were encoded over the whole export.
+		 *
+		 * @return the number of bitmaps encoded per second
+		 */
+		public double getBitmapsPerSecond() {
+			return totalNanos == 0 ? 0 : encoded * 1e9 / totalNanos;
+		}
+
+		/**
+		 * Gets the rate at which pixels were decompressed and encoded over the whole export.
+		 *
+		 * @return the number of megapixels exported per second
+		 */
+		public double getMegapixelsPerSecond() {
+			return totalNanos == 0 ? 0 : pixels * 1e3 / totalNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Exported %d bitmaps of %d nodes in %d ms (scan %d ms): %d written, %d copied, %d up "
+							+ "to date, %d failed; %.1f bitmaps/s, %.2f Mpx/s, %.2f MB/s written.", encoded, nodes,
+					totalNanos / 1000000, scanNanos / 1000000, written, copied, upToDate, failed,
+					getBitmapsPerSecond(), getMegapixelsPerSecond(), totalNanos == 0 ? 0 : bytes * 1e3 / totalNanos);
+		}
+	}
+}
@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import us.aaronweiss.pkgnx.EagerNXFile;
 import us.aaronweiss.pkgnx.NXFile;
 import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.awt.NXAwt;
 import us.aaronweiss.pkgnx.nodes.NXBitmapNode;
 import us.aaronweiss.pkgnx.nodes.NXNullNode;
 
@@ -44,7 +45,7 @@ import java.util.List;
  * An animation test for testing image loading. Based on Cedric's NXAnimation.
  *
  * @author Aaron Weiss
- * @version 1.2.0
+ * @version 1.3.0
  * @since 5/27/13
  */
 public class AnimationTest extends JPanel implements ActionListener {
@@ -88,7 +89,7 @@ public class AnimationTest extends JPanel implements ActionListener {
 			for (NXNode child : node) {
 				if (child instanceof NXBitmapNode) {
 					NXBitmapNode bmp = (NXBitmapNode) child;
-					images.add(bmp.get());
+					images.add(NXAwt.getImage(bmp));
 				}
 			}
 			sprites = new BufferedImage[images.size()];
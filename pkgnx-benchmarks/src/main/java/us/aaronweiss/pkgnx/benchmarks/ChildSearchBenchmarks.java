@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import us.aaronweiss.pkgnx.NXNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SS benchmark, bucketed by how many children the searched nodes have. This shows how child lookup scales with
+ * the number of children and where hash lookups take over from binary searching.
+ * <p/>
+ * SS: String search; time taken to iterate through the children of a node, access each child by name, and compare
+ * the indexed child to the iterated child. Each invocation looks up a fixed number of children spread evenly over
+ * every node in the bucket, so scores are per child looked up and comparable between buckets. The buckets all have
+ * nodes in the default small profile, whose largest nodes have 400 children.
+ *
+ * @author Aaron Weiss
+ * @version 1.1.0
+ * @since 10/19/26
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChildSearchBenchmarks {
+	private static final int LOOKUPS = 4096;
+
+	@Param({"1-10", "11-40", "41-100", "101-65535"})
+	public String children;
+
+	private NXNode[] parents;
+	private String[] names;
+
+	/**
+	 * Gathers every node whose child count lies in the benchmarked bucket, and spreads the lookups evenly over all of
+	 * their children.
+	 *
+	 * @param state the file under benchmark
+	 */
+	@Setup
+	public void setup(NXFileState state) {
+		String[] bounds = children.split("-");
+		int min = Integer.parseInt(bounds[0]), max = Integer.parseInt(bounds[1]);
+		List<NXNode> found = new ArrayList<>();
+		collect(state.file.getRoot(), min, max, found);
+		if (found.isEmpty())
+			throw new IllegalStateException("No nodes have between " + min + " and " + max + " children in profile "
+					+ System.getProperty("pkgnx.profile", "small") + ".");
+		List<NXNode> owners = new ArrayList<>();
+		List<String> all = new ArrayList<>();
+		for (NXNode parent : found) {
+			for (NXNode child : parent) {
+				owners.add(parent);
+				all.add(child.getName());
+			}
+		}
+		parents = new NXNode[LOOKUPS];
+		names = new String[LOOKUPS];
+		for (int k = 0; k < LOOKUPS; k++) {
+			int pick = (int) ((long) k * all.size() / LOOKUPS);
+			parents[k] = owners.get(pick);
+			names[k] = all.get(pick);
+		}
+	}
+
+	private static void collect(NXNode node, int min, int max, List<NXNode> found) {
+		if (node.getChildCount() >= min && node.getChildCount() <= max)
+			found.add(node);
+		for (NXNode child : node)
+			collect(child, min, max, found);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void SS(Blackhole hole) {
+		for (int k = 0; k < LOOKUPS; k++)
+			hole.consume(parents[k].getChild(names[k]));
+	}
+}
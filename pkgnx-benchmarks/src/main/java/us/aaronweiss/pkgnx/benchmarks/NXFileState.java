@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import us.aaronweiss.pkgnx.EagerNXFile;
+import us.aaronweiss.pkgnx.LazyNXFile;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.tools.NXGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The file under benchmark, opened in either eager or lazy mode. The path defaults to the {@code pkgnx.file} system
+ * property and can be overridden with {@code -p path=...}. If no such file exists, a synthetic file is generated
+ * from the {@code pkgnx.profile} and {@code pkgnx.seed} system properties (small and 0 by default) and reused by
+ * later runs.
+ *
+ * @author Aaron Weiss
+ * @version 1.2.1
+ * @since 10/19/26
+ */
+@State(Scope.Benchmark)
+public class NXFileState {
+	public static final String DEFAULT_PATH = "pkgnx-core/src/test/resources/Data-do.nx";
+
+	@Param({"eager", "lazy"})
+	public String mode;
+
+	@Param({""})
+	public String path;
+
+	public NXFile file;
+
+	/**
+	 * Opens the file under benchmark.
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		if (path.isEmpty())
+			path = System.getProperty("pkgnx.file", DEFAULT_PATH);
+		if (!Files.exists(Paths.get(path)))
+			path = synthetic().toString();
+		file = open();
+	}
+
+	/**
+	 * Closes the file under benchmark.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Gets the synthetic file for the configured profile and seed, generating it if it does not exist yet.
+	 *
+	 * @return the path of the synthetic file
+	 * @throws IOException if the file cannot be generated
+	 */
+	private static Path synthetic() throws IOException {
+		String profile = System.getProperty("pkgnx.profile", "small");
+		long seed = Long.getLong("pkgnx.seed", 0);
+		Path synthetic = Paths.get("target", "synthetic-" + profile + "-" + seed + ".nx");
+		if (!Files.exists(synthetic)) {
+			Files.createDirectories(synthetic.getParent());
+			Path partial = Paths.get(synthetic + ".partial");
+			new NXGenerator(seed, NXGenerator.Profile.forName(profile)).generate(partial);
+			Files.move(partial, synthetic);
+		}
+		return synthetic;
+	}
+
+	/**
+	 * Opens a fresh copy of the file under benchmark in the configured mode, which the caller has to close.
+	 *
+	 * @return the opened file
+	 * @throws IOException if the file cannot be read
+	 */
+	public NXFile open() throws IOException {
+		return mode.equals("eager") ? new EagerNXFile(path) : new LazyNXFile(path);
+	}
+}
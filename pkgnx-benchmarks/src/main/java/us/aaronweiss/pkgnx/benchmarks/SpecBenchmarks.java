@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.nodes.NXBitmapNode;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmarks of the official benchmark specification designed by Peter Atashian, Aaron Weiss, and angelsl.
+ * <ul>
+ * <li>Ld: opening (and closing) the file.</li>
+ * <li>Re: recursing through every node of an open file.</li>
+ * <li>LR: opening the file and recursing through every node.</li>
+ * <li>SA: recursing through every node, looking up each child by name and checking it is the iterated child.</li>
+ * <li>De: decompressing every bitmap.</li>
+ * </ul>
+ *
+ * @author Aaron Weiss
+ * @version 1.1.1
+ * @since 10/19/26
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SpecBenchmarks {
+	@Benchmark
+	public void Ld(NXFileState state, Blackhole hole) throws IOException {
+		try (NXFile file = state.open()) {
+			hole.consume(file);
+		}
+	}
+
+	@Benchmark
+	public void Re(NXFileState state, Blackhole hole) {
+		recurse(state.file.getRoot(), hole);
+	}
+
+	@Benchmark
+	public void LR(NXFileState state, Blackhole hole) throws IOException {
+		try (NXFile file = state.open()) {
+			recurse(file.getRoot(), hole);
+		}
+	}
+
+	@Benchmark
+	public void SA(NXFileState state) {
+		stringRecurse(state.file.getRoot());
+	}
+
+	@Benchmark
+	@Measurement(iterations = 3, time = 5)
+	public void De(NXFileState state, Blackhole hole) {
+		decompress(state.file.getRoot(), hole);
+	}
+
+	private static void recurse(NXNode n, Blackhole hole) {
+		for (NXNode c : n) {
+			hole.consume(c);
+			recurse(c, hole);
+		}
+	}
+
+	private static void stringRecurse(NXNode n) {
+		for (NXNode c : n) {
+			if (n.getChild(c.getName()) == c)
+				stringRecurse(c);
+			else
+				throw new NXException("Equality test failed in SA benchmark.");
+		}
+	}
+
+	private static void decompress(NXNode n, Blackhole hole) {
+		if (n instanceof NXBitmapNode)
+			hole.consume(((NXBitmapNode) n).getPixels());
+		for (NXNode c : n)
+			decompress(c, hole);
+	}
+}
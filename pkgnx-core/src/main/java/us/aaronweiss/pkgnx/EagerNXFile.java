@@ -25,6 +25,8 @@ package us.aaronweiss.pkgnx;
 
 import us.aaronweiss.pkgnx.internal.EagerNXTables;
 import us.aaronweiss.pkgnx.internal.NXHeader;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+import us.aaronweiss.pkgnx.metrics.NXMetrics;
 import us.aaronweiss.pkgnx.util.NodeParser;
 import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
 
@@ -37,11 +39,10 @@ import java.nio.file.Paths;
  * An eager-loaded memory-mapped file for reading specification-compliant NX files.
  *
  * @author Aaron Weiss
- * @version 3.0.0
+ * @version 3.4.0
  * @since 5/26/13
  */
 public class EagerNXFile extends NXFile {
-	private final SeekableLittleEndianAccessor slea;
 	private boolean parsed;
 	private NXNode[] nodes;
 
@@ -85,10 +86,13 @@ public class EagerNXFile extends NXFile {
 	 */
 	public EagerNXFile(Path path, boolean parsedImmediately) throws IOException {
 		super(path.toString());
-		FileChannel channel = FileChannel.open(path);
-		slea = new SeekableLittleEndianAccessor(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		long start = NXMetrics.start();
+		channel = FileChannel.open(path);
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		slea = new SeekableLittleEndianAccessor(buffer);
 		if (parsedImmediately)
 			parse();
+		NXMetrics.stop(NXMetrics.FILE_OPEN, start);
 	}
 
 	/**
@@ -100,9 +104,9 @@ public class EagerNXFile extends NXFile {
 		header = new NXHeader(this, slea);
 		nodes = new NXNode[(int) header.getNodeCount()];
 		tables = new EagerNXTables(header, slea);
+		nodeTable = new NXNodeTable(header, slea);
 		populateNodesTable();
 		parsed = true;
-		populateNodeChildren();
 	}
 
 	/**
@@ -111,21 +115,29 @@ public class EagerNXFile extends NXFile {
 	private void populateNodesTable() {
 		slea.seek(header.getNodeOffset());
 		for (int i = 0; i < nodes.length; i++) {
-			nodes[i] = NodeParser.parseNode(this, slea);
+			nodes[i] = NodeParser.parseNode(this, i, slea);
 		}
 	}
 
-	/**
-	 * Populates the children of all nodes.
-	 */
-	private void populateNodeChildren() {
-		for (NXNode node : nodes) {
-			node.populateChildren();
-		}
+	@Override
+	public int getLoadedNodeCount() {
+		return parsed ? nodes.length : 0;
+	}
+
+	@Override
+	public NXNodeTable getNodeTable() {
+		parse();
+		return nodeTable;
+	}
+
+	@Override
+	public String getName(int index) {
+		return getNode(index).getName();
 	}
 
 	@Override
 	public NXNode getNode(int index) {
+		checkOpen();
 		parse();
 		return nodes[index];
 	}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package us.aaronweiss.pkgnx;
+
+import us.aaronweiss.pkgnx.internal.LazyNXTables;
+import us.aaronweiss.pkgnx.internal.NXHeader;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+import us.aaronweiss.pkgnx.internal.NodeCache;
+import us.aaronweiss.pkgnx.metrics.CacheStats;
+import us.aaronweiss.pkgnx.metrics.NXMetrics;
+import us.aaronweiss.pkgnx.util.NodeParser;
+import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * A lazy-loaded memory-mapped file for reading specification-compliant NX files. By default every node stays loaded
+ * once it has been read. With a node budget, loaded nodes live in a bounded cache instead and are parsed again from
+ * the mapping after they are evicted.
+ *
+ * @author Aaron Weiss
+ * @version 1.4.0
+ * @since 1/21/14
+ */
+public class LazyNXFile extends NXFile {
+	private final CacheStats nodeStats = new CacheStats();
+	private final NodeCache cache;
+	private NXNode[] nodes;
+
+	/**
+	 * Creates a new {@code EagerNXFile} from the specified {@code path}.
+	 *
+	 * @param path the absolute or relative path to the file
+	 * @throws java.io.IOException if something goes wrong in reading the file
+	 */
+	public LazyNXFile(String path) throws IOException {
+		this(Paths.get(path));
+	}
+
+	/**
+	 * Creates a new {@code EagerNXFile} from the specified {@code path}.
+	 *
+	 * @param path the absolute or relative path to the file
+	 * @throws IOException if something goes wrong in reading the file
+	 */
+	public LazyNXFile(Path path) throws IOException {
+		this(path, 0);
+	}
+
+	/**
+	 * Creates a new {@code LazyNXFile} from the specified {@code path} which holds at most {@code maxCachedNodes}
+	 * nodes, or every node it has loaded if {@code maxCachedNodes} is 0.
+	 *
+	 * @param path           the absolute or relative path to the file
+	 * @param maxCachedNodes the node budget, or 0 for no limit
+	 * @throws IOException if something goes wrong in reading the file
+	 */
+	public LazyNXFile(String path, int maxCachedNodes) throws IOException {
+		this(Paths.get(path), maxCachedNodes);
+	}
+
+	/**
+	 * Creates a new {@code LazyNXFile} from the specified {@code path} which holds at most {@code maxCachedNodes}
+	 * nodes, or every node it has loaded if {@code maxCachedNodes} is 0. Nodes evicted from a bounded cache are
+	 * still returned as the same object for as long as a caller holds on to them.
+	 *
+	 * @param path           the absolute or relative path to the file
+	 * @param maxCachedNodes the node budget, or 0 for no limit
+	 * @throws IOException if something goes wrong in reading the file
+	 */
+	public LazyNXFile(Path path, int maxCachedNodes) throws IOException {
+		super(path.toString());
+		long start = NXMetrics.start();
+		channel = FileChannel.open(path);
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		slea = new SeekableLittleEndianAccessor(buffer);
+		header = new NXHeader(this, slea);
+		if (maxCachedNodes > 0) {
+			cache = new NodeCache((int) header.getNodeCount(), maxCachedNodes);
+		} else {
+			cache = null;
+			nodes = new NXNode[(int) header.getNodeCount()];
+		}
+		tables = new LazyNXTables(header, slea);
+		nodeTable = new NXNodeTable(header, slea);
+		NXMetrics.stop(NXMetrics.FILE_OPEN, start);
+	}
+
+	@Override
+	public NXNode getNode(int index) {
+		checkOpen();
+		NXNode ret = cache == null ? nodes[index] : cache.get(index);
+		if (ret != null) {
+			nodeStats.hit();
+			return ret;
+		}
+		nodeStats.miss();
+		if (NXMetrics.ENABLED)
+			NXMetrics.NODE_MATERIALIZATIONS.increment();
+		slea.seek(header.getNodeOffset() + index * NXNode.NODE_SIZE);
+		ret = NodeParser.parseNode(this, index, slea);
+		return cache == null ? (nodes[index] = ret) : cache.put(index, ret);
+	}
+
+	@Override
+	public int getLoadedNodeCount() {
+		if (cache != null)
+			return cache.size();
+		int count = 0;
+		for (NXNode node : nodes)
+			if (node != null)
+				count++;
+		return count;
+	}
+
+	@Override
+	public CacheStats getNodeCacheStats() {
+		return nodeStats;
+	}
+
+	@Override
+	public void clearCaches() {
+		super.clearCaches();
+		if (cache != null)
+			cache.clear();
+		else
+			Arrays.fill(nodes, null);
+	}
+}
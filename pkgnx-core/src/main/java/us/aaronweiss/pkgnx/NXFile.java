@@ -0,0 +1,425 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx;
+
+import us.aaronweiss.pkgnx.internal.NXHeader;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+import us.aaronweiss.pkgnx.internal.NXTables;
+import us.aaronweiss.pkgnx.management.NXFileMonitor;
+import us.aaronweiss.pkgnx.metrics.CacheStats;
+import us.aaronweiss.pkgnx.metrics.NXMetrics;
+import us.aaronweiss.pkgnx.util.NumberParser;
+import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
+import us.aaronweiss.pkgnx.util.Unmapper;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * The basic specification for an NX file implementation. Closing a file releases its mapping right away rather than
+ * when it is garbage collected, after which any read through the file or its nodes fails with an {@code NXException}.
+ *
+ * @author Aaron Weiss
+ * @version 1.5.2
+ * @since 12/12/13
+ */
+public abstract class NXFile implements AutoCloseable {
+	protected final String filePath;
+	protected NXHeader header;
+	protected NXTables tables;
+	protected NXNodeTable nodeTable;
+	protected MappedByteBuffer buffer;
+	protected FileChannel channel;
+	protected SeekableLittleEndianAccessor slea;
+	protected volatile boolean closed;
+	volatile NXWarmup warmup;
+	private volatile int[] parents;
+
+	/**
+	 * Constructs an NXFile from its file path.
+	 *
+	 * @param filePath
+	 */
+	protected NXFile(String filePath) {
+		this.filePath = filePath;
+	}
+
+	/**
+	 * Gets the path to this {@code NXFile}.
+	 *
+	 * @return the path to this file
+	 */
+	public String getFilePath() {
+		return filePath;
+	}
+
+	/**
+	 * Gets the {@code NXHeader} of this file.
+	 *
+	 * @return this file's header
+	 */
+	public NXHeader getHeader() {
+		return header;
+	}
+
+	/**
+	 * Gets the {@code NXTables} from this file.
+	 *
+	 * @return this file's offset tables
+	 */
+	public NXTables getTables() {
+		return tables;
+	}
+
+	/**
+	 * Gets the raw {@code NXNodeTable} of this file.
+	 *
+	 * @return this file's node table
+	 */
+	public NXNodeTable getNodeTable() {
+		return nodeTable;
+	}
+
+	/**
+	 * Gets the size of the memory mapping of this file.
+	 *
+	 * @return the mapped size in bytes
+	 */
+	public long getMappedSize() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * Gets the number of nodes which have been constructed and are held by this file.
+	 *
+	 * @return number of loaded nodes
+	 */
+	public abstract int getLoadedNodeCount();
+
+	/**
+	 * Gets the hit and miss counts of the node cache of this file.
+	 *
+	 * @return the node cache statistics, or null if this file does not cache nodes lazily
+	 */
+	public CacheStats getNodeCacheStats() {
+		return null;
+	}
+
+	/**
+	 * Drops everything this file has cached that can be loaded again from the mapping.
+	 */
+	public void clearCaches() {
+		if (tables != null)
+			tables.clearCaches();
+		parents = null;
+	}
+
+	/**
+	 * Loads the entire mapping of this file into physical memory, so that later reads do not page fault.
+	 */
+	public void preTouch() {
+		checkOpen();
+		buffer.load();
+	}
+
+	/**
+	 * Starts warming up the node block and string table and data of this file in the background, with a thread per
+	 * processor.
+	 *
+	 * @return the running warm-up
+	 * @see #warmUp(int, Set)
+	 */
+	public NXWarmup warmUp() {
+		return warmUp(Runtime.getRuntime().availableProcessors(), NXWarmup.HOT_SECTIONS);
+	}
+
+	/**
+	 * Starts warming up {@code sections} of this file in the background, page faulting them in so that the first reads
+	 * through them do not stall on the disk. Unlike {@code preTouch}, this does not block and leaves the cold sections
+	 * of the file alone.
+	 *
+	 * @param threads  the number of threads to touch pages with
+	 * @param sections the sections to warm up
+	 * @return the running warm-up
+	 * @throws NXException if this file has been closed
+	 */
+	public NXWarmup warmUp(int threads, Set<NXWarmup.Section> sections) {
+		checkOpen();
+		return new NXWarmup(new NXFile[]{this}, threads, sections);
+	}
+
+	/**
+	 * Gets the most recently started warm-up of this file.
+	 *
+	 * @return the last warm-up, or null if none has been started
+	 */
+	public NXWarmup getWarmUp() {
+		return warmup;
+	}
+
+	/**
+	 * Closes this file: unregisters its monitor, drops its caches, closes its channel and unmaps it. Nodes of this file
+	 * must not be in use on other threads while it is being closed, because a read already past the closed check would
+	 * touch unmapped memory.
+	 *
+	 * @throws IOException if the channel could not be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		if (warmup != null)
+			warmup.cancel();
+		unregisterMonitor();
+		clearCaches();
+		if (slea != null)
+			slea.close();
+		try {
+			if (channel != null)
+				channel.close();
+		} finally {
+			Unmapper.unmap(buffer);
+		}
+	}
+
+	/**
+	 * Unregisters the monitor of this file, if one was registered, so that a closed file is no longer reachable from
+	 * the platform {@code MBeanServer}.
+	 */
+	protected final void unregisterMonitor() {
+		try {
+			NXFileMonitor.unregister(this);
+		} catch (NXException e) {
+			// the monitor is already gone, and there is nothing left to release
+		}
+	}
+
+	/**
+	 * Determines whether or not this file has been closed.
+	 *
+	 * @return whether or not this file is closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Ensures that this file has not been closed.
+	 *
+	 * @throws NXException if this file has been closed
+	 */
+	protected void checkOpen() {
+		if (closed)
+			throw new NXException("Cannot read from a closed file: " + filePath);
+	}
+
+	/**
+	 * Gets the root {@code NXNode} of the file.
+	 *
+	 * @return the file's root node
+	 */
+	public NXNode getRoot() {
+		return getNode(0);
+	}
+
+	/**
+	 * Gets an {@code NXNode} by {@code index} from the internal node table of this file.
+	 * n.b. the node at index 0 must always be the root node.
+	 *
+	 * @param index the index of the node
+	 * @return the desired node
+	 */
+	public abstract NXNode getNode(int index);
+
+	/**
+	 * Gets the name of the node at {@code index} straight from the node table, without materializing the node.
+	 *
+	 * @param index the index of the node
+	 * @return the name of the node
+	 */
+	public String getName(int index) {
+		checkOpen();
+		return getTables().getString(getNodeTable().getNameIndex(index));
+	}
+
+	/**
+	 * Gets the value of the node at {@code index} as a {@code long}, read straight from its record. Doubles are
+	 * truncated and strings are parsed, while any other node, or a string that is not a number, yields {@code def}.
+	 *
+	 * @param index the index of the node
+	 * @param def   the value to fall back to
+	 * @return the value of the node as a {@code long}
+	 */
+	public long getLong(int index, long def) {
+		checkOpen();
+		NXNodeTable nodes = getNodeTable();
+		switch (nodes.getType(index)) {
+			case NXNodeTable.TYPE_LONG:
+				return nodes.getLong(index);
+			case NXNodeTable.TYPE_DOUBLE:
+				return (long) nodes.getDouble(index);
+			case NXNodeTable.TYPE_STRING:
+				return NumberParser.parseLong(getTables().getString(nodes.getStringIndex(index)), def);
+			default:
+				return def;
+		}
+	}
+
+	/**
+	 * Gets the value of the node at {@code index} as a {@code double}, read straight from its record. Longs are
+	 * widened and strings are parsed, while any other node, or a string that is not a number, yields {@code def}.
+	 *
+	 * @param index the index of the node
+	 * @param def   the value to fall back to
+	 * @return the value of the node as a {@code double}
+	 */
+	public double getDouble(int index, double def) {
+		checkOpen();
+		NXNodeTable nodes = getNodeTable();
+		switch (nodes.getType(index)) {
+			case NXNodeTable.TYPE_LONG:
+				return nodes.getLong(index);
+			case NXNodeTable.TYPE_DOUBLE:
+				return nodes.getDouble(index);
+			case NXNodeTable.TYPE_STRING:
+				return NumberParser.parseDouble(getTables().getString(nodes.getStringIndex(index)), def);
+			default:
+				return def;
+		}
+	}
+
+	/**
+	 * Gets the value of the node at {@code index} as a {@code String}, read straight from its record. Longs and
+	 * doubles are formatted, while any other node yields {@code def}.
+	 *
+	 * @param index the index of the node
+	 * @param def   the value to fall back to
+	 * @return the value of the node as a {@code String}
+	 */
+	public String getString(int index, String def) {
+		checkOpen();
+		NXNodeTable nodes = getNodeTable();
+		switch (nodes.getType(index)) {
+			case NXNodeTable.TYPE_LONG:
+				return Long.toString(nodes.getLong(index));
+			case NXNodeTable.TYPE_DOUBLE:
+				return Double.toString(nodes.getDouble(index));
+			case NXNodeTable.TYPE_STRING:
+				return getTables().getString(nodes.getStringIndex(index));
+			default:
+				return def;
+		}
+	}
+
+	/**
+	 * Gets the x-coordinate of the node at {@code index}, read straight from its record.
+	 *
+	 * @param index the index of the node
+	 * @param def   the value to fall back to if the node is not a point
+	 * @return the x-coordinate of the node
+	 */
+	public int getX(int index, int def) {
+		checkOpen();
+		NXNodeTable nodes = getNodeTable();
+		return nodes.getType(index) == NXNodeTable.TYPE_POINT ? nodes.getX(index) : def;
+	}
+
+	/**
+	 * Gets the y-coordinate of the node at {@code index}, read straight from its record.
+	 *
+	 * @param index the index of the node
+	 * @param def   the value to fall back to if the node is not a point
+	 * @return the y-coordinate of the node
+	 */
+	public int getY(int index, int def) {
+		checkOpen();
+		NXNodeTable nodes = getNodeTable();
+		return nodes.getType(index) == NXNodeTable.TYPE_POINT ? nodes.getY(index) : def;
+	}
+
+	/**
+	 * Gets the index of the parent of the node at {@code index}. The parents of every node are found in one pass over
+	 * the child ranges of the node table the first time this is called, and kept as a single {@code int} per node.
+	 *
+	 * @param index the index of the node
+	 * @return the index of its parent, or -1 for the root
+	 */
+	public int getParentIndex(int index) {
+		checkOpen();
+		int[] table = parents;
+		if (table == null)
+			parents = table = buildParents();
+		return table[index];
+	}
+
+	/**
+	 * Builds the parent table of this file from the child ranges in its node table.
+	 *
+	 * @return the index of the parent of each node, with -1 for the root
+	 */
+	private int[] buildParents() {
+		NXNodeTable nodes = getNodeTable();
+		int[] table = new int[nodes.size()];
+		for (int i = 0; i < table.length; i++) {
+			int count = nodes.getChildCount(i);
+			if (count == 0)
+				continue;
+			int first = (int) nodes.getFirstChildIndex(i);
+			Arrays.fill(table, first, first + count, i);
+		}
+		table[0] = -1;
+		return table;
+	}
+
+	/**
+	 * Resolves the desired {@code path} to an {@code NXNode}.
+	 *
+	 * @param path the path to the node
+	 * @return the desired node
+	 */
+	public NXNode resolve(String path) {
+		if (path.equals("/"))
+			return getRoot();
+		return resolve(path.split("/"));
+	}
+
+	/**
+	 * Resolves the desired {@code path} to an {@code NXNode}.
+	 *
+	 * @param path the path to the node
+	 * @return the desired node
+	 */
+	public NXNode resolve(String[] path) {
+		long start = NXMetrics.start();
+		NXNode cursor = getRoot();
+		for (int i = 0; i < path.length && cursor != null; i++)
+			cursor = cursor.getChild(path[i]);
+		NXMetrics.stop(NXMetrics.RESOLVE, start);
+		return cursor;
+	}
+}
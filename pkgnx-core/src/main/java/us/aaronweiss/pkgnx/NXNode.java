@@ -0,0 +1,438 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx;
+
+import us.aaronweiss.pkgnx.metrics.NXMetrics;
+import us.aaronweiss.pkgnx.util.NodeRangeSpliterator;
+import us.aaronweiss.pkgnx.util.SubtreeSpliterator;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The basic information container for the NX file format.
+ *
+ * @author Aaron Weiss
+ * @version 4.1.2
+ * @since 5/26/13
+ */
+public abstract class NXNode implements Iterable<NXNode> {
+	private static final EmptyNodeIterator EMPTY_NODE_ITERATOR = new EmptyNodeIterator();
+	public static final int MIN_COUNT_FOR_HASH = 41;
+	public static final int NODE_SIZE = 20;
+
+	protected final String name;
+	protected final NXFile file;
+	protected final int index;
+	protected final long childIndex;
+	protected final int childCount;
+	private volatile int[] childHash;
+
+	/**
+	 * Sets up the basic information for the {@code NXNode}.
+	 *
+	 * @param name       the name of the node
+	 * @param file       the file the node is from
+	 * @param index      the index of the node in its file
+	 * @param childIndex the index of the first child of the node
+	 * @param childCount the number of children
+	 */
+	public NXNode(String name, NXFile file, int index, long childIndex, int childCount) {
+		this.name = name;
+		this.file = file;
+		this.index = index;
+		this.childIndex = childIndex;
+		this.childCount = childCount;
+	}
+
+	/**
+	 * Gets the value of this node universally.
+	 *
+	 * @return the value as an {@code Object}
+	 */
+	public abstract Object get();
+
+	/**
+	 * Gets a child node by {@code name}. Returns null if child is not present.
+	 *
+	 * @param name the name of the child
+	 * @return the child {@code NXNode}
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends NXNode> T getChild(String name) {
+		if (childCount == 0)
+			return null;
+		long start = NXMetrics.start();
+		NXNode child = searchChild(name);
+		NXMetrics.stop(NXMetrics.GET_CHILD, start);
+		return (T) child;
+	}
+
+	/**
+	 * Determines whether or not this node has a child by the specified {@code name}.
+	 *
+	 * @param name the name of the child
+	 * @return whether or not this node has a child by the specified {@code name}
+	 */
+	public boolean hasChild(String name) {
+		return searchChildIndex(name) >= 0;
+	}
+
+	/**
+	 * Gets the value of the child named {@code name} as a {@code long}, without materializing the child.
+	 *
+	 * @param name the name of the child
+	 * @param def  the value to fall back to if the child is missing or not a number
+	 * @return the value of the child as a {@code long}
+	 * @see NXFile#getLong(int, long)
+	 */
+	public long getLong(String name, long def) {
+		int child = searchChildIndex(name);
+		return child < 0 ? def : file.getLong(child, def);
+	}
+
+	/**
+	 * Gets the value of the child named {@code name} as a {@code double}, without materializing the child.
+	 *
+	 * @param name the name of the child
+	 * @param def  the value to fall back to if the child is missing or not a number
+	 * @return the value of the child as a {@code double}
+	 * @see NXFile#getDouble(int, double)
+	 */
+	public double getDouble(String name, double def) {
+		int child = searchChildIndex(name);
+		return child < 0 ? def : file.getDouble(child, def);
+	}
+
+	/**
+	 * Gets the value of the child named {@code name} as a {@code String}, without materializing the child.
+	 *
+	 * @param name the name of the child
+	 * @param def  the value to fall back to if the child is missing or has no string form
+	 * @return the value of the child as a {@code String}
+	 * @see NXFile#getString(int, String)
+	 */
+	public String getString(String name, String def) {
+		int child = searchChildIndex(name);
+		return child < 0 ? def : file.getString(child, def);
+	}
+
+	/**
+	 * Gets the x-coordinate of the child point named {@code name}, without materializing the child.
+	 *
+	 * @param name the name of the child
+	 * @param def  the value to fall back to if the child is missing or not a point
+	 * @return the x-coordinate of the child
+	 */
+	public int getX(String name, int def) {
+		int child = searchChildIndex(name);
+		return child < 0 ? def : file.getX(child, def);
+	}
+
+	/**
+	 * Gets the y-coordinate of the child point named {@code name}, without materializing the child.
+	 *
+	 * @param name the name of the child
+	 * @param def  the value to fall back to if the child is missing or not a point
+	 * @return the y-coordinate of the child
+	 */
+	public int getY(String name, int def) {
+		int child = searchChildIndex(name);
+		return child < 0 ? def : file.getY(child, def);
+	}
+
+	/**
+	 * Searches for a specific child node by {@code name}.
+	 *
+	 * @param name the name of the child to find
+	 * @return the found child or null, if it doesn't exist
+	 */
+	protected NXNode searchChild(String name) {
+		int child = searchChildIndex(name);
+		return child < 0 ? null : file.getNode(child);
+	}
+
+	/**
+	 * Searches for the index of a specific child node by {@code name}. Children are contiguous and sorted by name in
+	 * the node table, so they are binary searched in place by their names alone, except that nodes with many children
+	 * hash them on first use.
+	 *
+	 * @param name the name of the child to find
+	 * @return the index of the found child or -1, if it doesn't exist
+	 */
+	protected int searchChildIndex(String name) {
+		if (childCount == 0)
+			return -1;
+		if (childCount >= MIN_COUNT_FOR_HASH)
+			return searchHash(name);
+		int min = (int) childIndex, max = min + childCount - 1;
+		while (min <= max) {
+			int pivot = (min + max) >>> 1;
+			int cmp = file.getName(pivot).compareTo(name);
+			if (cmp < 0)
+				min = pivot + 1;
+			else if (cmp > 0)
+				max = pivot - 1;
+			else
+				return pivot;
+		}
+		return -1;
+	}
+
+	/**
+	 * Searches for a child by {@code name} in the hash table of this node, building it on first use. The table is
+	 * open-addressed and holds the hash and offset of each child, so only a matching hash touches the child itself.
+	 *
+	 * @param name the name of the child to find
+	 * @return the index of the found child or -1, if it doesn't exist
+	 */
+	private int searchHash(String name) {
+		int[] table = childHash;
+		if (table == null)
+			childHash = table = hashChildren();
+		int hash = mix(name.hashCode()), mask = (table.length >> 1) - 1;
+		for (int slot = hash & mask; table[(slot << 1) + 1] != 0; slot = (slot + 1) & mask) {
+			if (table[slot << 1] == hash) {
+				int child = (int) childIndex + table[(slot << 1) + 1] - 1;
+				if (file.getName(child).equals(name))
+					return child;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Builds the hash table of the children of this node, sized to at most half full.
+	 *
+	 * @return the table, as pairs of name hash and child offset plus one
+	 */
+	private int[] hashChildren() {
+		int slots = Integer.highestOneBit(childCount) << 2, mask = slots - 1;
+		int[] table = new int[slots << 1];
+		for (int i = 0; i < childCount; i++) {
+			int hash = mix(file.getName((int) childIndex + i).hashCode()), slot = hash & mask;
+			while (table[(slot << 1) + 1] != 0)
+				slot = (slot + 1) & mask;
+			table[slot << 1] = hash;
+			table[(slot << 1) + 1] = i + 1;
+		}
+		return table;
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Gets the name of the node.
+	 *
+	 * @return the name of this node
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the file that the node belonged to.
+	 *
+	 * @return the file owning this node
+	 */
+	public NXFile getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the index of this node in the node table of its file.
+	 *
+	 * @return the node index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Gets the number of children had by this node.
+	 *
+	 * @return number of child nodes
+	 */
+	public int getChildCount() {
+		return childCount;
+	}
+
+	/**
+	 * Gets the index of the first child of this node.
+	 *
+	 * @return first child node index
+	 */
+	public long getFirstChildIndex() {
+		return childIndex;
+	}
+
+	/**
+	 * Gets the parent of this node from the parent table of its file.
+	 *
+	 * @return the parent node, or null if this is the root
+	 * @see NXFile#getParentIndex(int)
+	 */
+	public NXNode getParent() {
+		int parent = file.getParentIndex(index);
+		return parent < 0 ? null : file.getNode(parent);
+	}
+
+	/**
+	 * Gets the full path of this node, as the names of its ancestors below the root and its own name joined by
+	 * {@code /}. The path is rebuilt by following the parent table up to the root, and resolves back to this node
+	 * through {@code NXFile#resolve(String)}.
+	 *
+	 * @return the path of this node, or {@code /} for the root
+	 */
+	public String getPath() {
+		int depth = 0;
+		for (int i = index; (i = file.getParentIndex(i)) >= 0; )
+			depth++;
+		if (depth == 0)
+			return "/";
+		String[] names = new String[depth];
+		names[depth - 1] = name;
+		for (int i = depth - 2, cursor = file.getParentIndex(index); i >= 0; i--, cursor = file.getParentIndex(cursor))
+			names[i] = file.getName(cursor);
+		return String.join("/", names);
+	}
+
+	/**
+	 * Gets a {@code Stream} of the children of this node in node table order.
+	 *
+	 * @return the children of this node
+	 */
+	public Stream<NXNode> children() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Gets a {@code Stream} of every descendant of this node, walked depth-first.
+	 *
+	 * @return the descendants of this node
+	 */
+	public Stream<NXNode> descendants() {
+		return descendants(Integer.MAX_VALUE, null);
+	}
+
+	/**
+	 * Gets a {@code Stream} of the descendants of this node down to {@code maxDepth}, walked depth-first.
+	 *
+	 * @param maxDepth the maximum depth to descend to, where the children of this node are at depth 1
+	 * @return the descendants of this node
+	 */
+	public Stream<NXNode> descendants(int maxDepth) {
+		return descendants(maxDepth, null);
+	}
+
+	/**
+	 * Gets a {@code Stream} of the descendants of this node down to {@code maxDepth}, walked depth-first. Nodes which
+	 * do not match the {@code filter} are pruned along with their entire subtree. The stream splits by ranges of the
+	 * node table and so is well suited to parallel traversal, but does not guarantee an encounter order.
+	 *
+	 * @param maxDepth the maximum depth to descend to, where the children of this node are at depth 1
+	 * @param filter   the filter deciding which nodes to visit, or null to visit all of them
+	 * @return the descendants of this node
+	 */
+	public Stream<NXNode> descendants(int maxDepth, Predicate<? super NXNode> filter) {
+		return StreamSupport.stream(new SubtreeSpliterator(this, maxDepth, filter), false);
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+
+	/**
+	 * Determines whether or not {@code obj} is the same node as this one. Two nodes are equal when they come from the
+	 * same file and sit at the same index in its node table, so nodes parsed twice compare equal without their values
+	 * being read.
+	 *
+	 * @param obj the object to compare with
+	 * @return whether or not {@code obj} is the same node
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
+		else if (!(obj instanceof NXNode))
+			return false;
+		NXNode n = (NXNode) obj;
+		return n.file == file && n.index == index;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(file) + index;
+	}
+
+	@Override
+	public Iterator<NXNode> iterator() {
+		if (childCount == 0)
+			return EMPTY_NODE_ITERATOR;
+		return Spliterators.iterator(spliterator());
+	}
+
+	@Override
+	public Spliterator<NXNode> spliterator() {
+		return new NodeRangeSpliterator(file, (int) childIndex, (int) childIndex + childCount);
+	}
+
+	/**
+	 * A silent, empty iterator for childless {@code NXNode}s.
+	 *
+	 * @author Aaron Weiss
+	 * @version 1.0
+	 * @since 5/26/13
+	 */
+	private static class EmptyNodeIterator implements Iterator<NXNode> {
+		/**
+		 * Creates an {@code EmptyNodeIterator}.
+		 */
+		private EmptyNodeIterator() {
+			return;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return false;
+		}
+
+		@Override
+		public NXNode next() {
+			return null;
+		}
+
+		@Override
+		public void remove() {
+			return;
+		}
+	}
+}
@@ -0,0 +1,619 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx;
+
+import us.aaronweiss.pkgnx.nodes.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compiled path query over the nodes of an {@code NXFile}. Queries are written as {@code /}-separated segments,
+ * where each segment is one of:
+ * <ul>
+ * <li>a literal name, e.g. {@code info}, which is looked up with the usual child search,</li>
+ * <li>a glob, e.g. {@code *.img} or {@code Map?}, which matches each child by name, or</li>
+ * <li>{@code **}, which matches zero or more levels of nodes.</li>
+ * </ul>
+ * Any segment may be followed by one or more bracketed predicates, which all have to hold for a node to match. A
+ * predicate is either a type test such as {@code [bitmap]} or a comparison such as {@code [long > 100]} or
+ * {@code [string = "Snail"]}. The recognized types are {@code null}, {@code long}, {@code double}, {@code number},
+ * {@code string}, {@code point}, {@code bitmap} and {@code audio}, and the recognized operators are {@code =},
+ * {@code !=}, {@code <}, {@code <=}, {@code >} and {@code >=}. A backslash escapes any special character in a name.
+ * <p/>
+ * For example, {@code Mob/*.img/info/level[long >= 120]} finds the level of every mob at or above level 120, and
+ * {@code Map/Map*}{@code /**}{@code /portal/*}{@code /tm} finds every portal target map. Queries are immutable and
+ * may be evaluated any number of times from any number of threads. Results are produced lazily, and parallel
+ * evaluation fans out across the children enumerated at wildcard segments. Queries using more than one {@code **} may
+ * yield a node more than once.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.3
+ * @since 10/19/26
+ */
+public final class NXQuery {
+	private final String query;
+	private final Step[] steps;
+
+	/**
+	 * Creates a new {@code NXQuery}.
+	 *
+	 * @param query the source text of the query
+	 * @param steps the compiled steps
+	 */
+	private NXQuery(String query, Step[] steps) {
+		this.query = query;
+		this.steps = steps;
+	}
+
+	/**
+	 * Compiles the specified {@code query}.
+	 *
+	 * @param query the query to compile
+	 * @return the compiled query
+	 * @throws NXException if the query is malformed
+	 */
+	public static NXQuery compile(String query) {
+		List<Step> steps = new ArrayList<>();
+		for (String segment : split(query))
+			steps.add(parseStep(query, segment));
+		return new NXQuery(query, steps.toArray(new Step[steps.size()]));
+	}
+
+	/**
+	 * Evaluates this query from the root of the specified {@code file}.
+	 *
+	 * @param file the file to query
+	 * @return a lazy {@code Stream} of matching nodes
+	 */
+	public Stream<NXNode> stream(NXFile file) {
+		return stream(file.getRoot());
+	}
+
+	/**
+	 * Evaluates this query relative to the specified {@code node}.
+	 *
+	 * @param node the node to start from
+	 * @return a lazy {@code Stream} of matching nodes
+	 */
+	public Stream<NXNode> stream(NXNode node) {
+		return StreamSupport.stream(new QuerySpliterator(node), false);
+	}
+
+	/**
+	 * Evaluates this query in parallel from the root of the specified {@code file}.
+	 *
+	 * @param file the file to query
+	 * @return a lazy, parallel {@code Stream} of matching nodes
+	 */
+	public Stream<NXNode> parallelStream(NXFile file) {
+		return parallelStream(file.getRoot());
+	}
+
+	/**
+	 * Evaluates this query in parallel relative to the specified {@code node}.
+	 *
+	 * @param node the node to start from
+	 * @return a lazy, parallel {@code Stream} of matching nodes
+	 */
+	public Stream<NXNode> parallelStream(NXNode node) {
+		return StreamSupport.stream(new QuerySpliterator(node), true);
+	}
+
+	/**
+	 * Finds the first node matching this query from the root of the specified {@code file}.
+	 *
+	 * @param file the file to query
+	 * @return the first matching node, or null if there is none
+	 */
+	public NXNode first(NXFile file) {
+		return stream(file).findFirst().orElse(null);
+	}
+
+	@Override
+	public String toString() {
+		return query;
+	}
+
+	/**
+	 * Splits the {@code query} into its segments, ignoring separators that are escaped, bracketed or quoted.
+	 *
+	 * @param query the query to split
+	 * @return the raw segments
+	 */
+	private static List<String> split(String query) {
+		List<String> segments = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		int depth = 0;
+		for (int i = 0; i < query.length(); i++) {
+			char c = query.charAt(i);
+			if (c == '\\' && i + 1 < query.length()) {
+				current.append(c).append(query.charAt(++i));
+				continue;
+			}
+			if (c == '"')
+				quoted = !quoted;
+			else if (!quoted && c == '[')
+				depth++;
+			else if (!quoted && c == ']')
+				depth--;
+			if (c == '/' && !quoted && depth == 0) {
+				if (current.length() > 0)
+					segments.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+		if (quoted || depth != 0)
+			throw new NXException("Malformed query (" + query + "): unbalanced quotes or brackets.");
+		if (current.length() > 0)
+			segments.add(current.toString());
+		return segments;
+	}
+
+	/**
+	 * Parses a single segment of a query.
+	 *
+	 * @param query   the query being parsed, for error messages
+	 * @param segment the segment to parse
+	 * @return the parsed step
+	 */
+	private static Step parseStep(String query, String segment) {
+		StringBuilder name = new StringBuilder(), glob = new StringBuilder();
+		boolean literal = true;
+		int i = 0;
+		for (; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c == '\\' && i + 1 < segment.length()) {
+				c = segment.charAt(++i);
+				name.append(c);
+				glob.append('\\').append(c);
+			} else if (c == '[') {
+				break;
+			} else {
+				if (c == '*' || c == '?')
+					literal = false;
+				name.append(c);
+				glob.append(c);
+			}
+		}
+		List<Condition> conditions = new ArrayList<>();
+		while (i < segment.length()) {
+			int end = closingBracket(segment, i);
+			if (end < 0)
+				throw new NXException("Malformed query (" + query + "): unterminated predicate in " + segment);
+			conditions.add(Condition.parse(query, segment.substring(i + 1, end).trim()));
+			i = end + 1;
+		}
+		String pattern = literal ? name.toString() : glob.toString();
+		if (pattern.isEmpty() && conditions.isEmpty())
+			throw new NXException("Malformed query (" + query + "): empty segment.");
+		boolean descent = !literal && pattern.equals("**");
+		if (descent && !conditions.isEmpty())
+			throw new NXException("Malformed query (" + query + "): ** cannot have predicates.");
+		if (pattern.isEmpty()) {
+			pattern = "*";
+			literal = false;
+		}
+		return new Step(pattern, literal, descent, conditions.toArray(new Condition[conditions.size()]));
+	}
+
+	/**
+	 * Finds the bracket closing the predicate opened at {@code open}.
+	 *
+	 * @param segment the segment to search
+	 * @param open    the index of the opening bracket
+	 * @return the index of the closing bracket, or -1 if there is none
+	 */
+	private static int closingBracket(String segment, int open) {
+		if (segment.charAt(open) != '[')
+			return -1;
+		boolean quoted = false;
+		for (int i = open + 1; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c == '\\')
+				i++;
+			else if (c == '"')
+				quoted = !quoted;
+			else if (c == ']' && !quoted)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Matches {@code name} against a glob {@code pattern} supporting {@code *} and {@code ?}, where a backslash makes
+	 * the character after it match only itself. Segments of a query which are not literal names are matched by this.
+	 *
+	 * @param pattern the glob pattern
+	 * @param name    the name to match
+	 * @return whether or not the name matches
+	 */
+	public static boolean glob(String pattern, String name) {
+		int p = 0, n = 0, star = -1, mark = 0;
+		while (n < name.length()) {
+			char c = p < pattern.length() ? pattern.charAt(p) : 0;
+			boolean escaped = c == '\\' && p + 1 < pattern.length();
+			if (p < pattern.length() && c == '*') {
+				star = p++;
+				mark = n;
+			} else if (p < pattern.length()
+					&& (escaped ? pattern.charAt(p + 1) == name.charAt(n) : c == '?' || c == name.charAt(n))) {
+				p += escaped ? 2 : 1;
+				n++;
+			} else if (star >= 0) {
+				p = star + 1;
+				n = ++mark;
+			} else {
+				return false;
+			}
+		}
+		while (p < pattern.length() && pattern.charAt(p) == '*')
+			p++;
+		return p == pattern.length();
+	}
+
+	/**
+	 * A single compiled segment of a query.
+	 */
+	private static final class Step {
+		private final String pattern;
+		private final boolean literal, descent, any;
+		private final Condition[] conditions;
+
+		private Step(String pattern, boolean literal, boolean descent, Condition[] conditions) {
+			this.pattern = pattern;
+			this.literal = literal;
+			this.descent = descent;
+			this.any = !literal && pattern.equals("*");
+			this.conditions = conditions;
+		}
+
+		/**
+		 * Tests whether or not the predicates of this step hold for the {@code node}.
+		 *
+		 * @param node the node to test
+		 * @return whether or not the node satisfies every predicate
+		 */
+		private boolean test(NXNode node) {
+			for (Condition condition : conditions)
+				if (!condition.test(node))
+					return false;
+			return true;
+		}
+
+		/**
+		 * Tests whether or not the {@code node} matches both the name pattern and predicates of this step.
+		 *
+		 * @param node the node to test
+		 * @return whether or not the node matches
+		 */
+		private boolean matches(NXNode node) {
+			if (!any && !(literal ? pattern.equals(node.getName()) : glob(pattern, node.getName())))
+				return false;
+			return test(node);
+		}
+	}
+
+	/**
+	 * A type or value predicate on a node.
+	 */
+	private static final class Condition {
+		private static final List<String> TYPES = Arrays.asList("null", "long", "double", "string", "point", "bitmap",
+				"audio", "number");
+		private static final String[] OPERATORS = {"!=", "<=", ">=", "=", "<", ">"};
+		private final int type;
+		private final String operator;
+		private final String text;
+		private final double number;
+		private final long integer;
+		private final boolean integral;
+
+		private Condition(int type, String operator, String text) {
+			this.type = type;
+			this.operator = operator;
+			this.text = text;
+			double number = Double.NaN;
+			long integer = 0;
+			boolean integral = false;
+			if (text != null) {
+				try {
+					integer = Long.parseLong(text);
+					number = integer;
+					integral = true;
+				} catch (NumberFormatException e) {
+					try {
+						number = Double.parseDouble(text);
+					} catch (NumberFormatException ignored) {
+						number = Double.NaN;
+					}
+				}
+			}
+			this.number = number;
+			this.integer = integer;
+			this.integral = integral;
+		}
+
+		/**
+		 * Parses the body of a bracketed predicate.
+		 *
+		 * @param query the query being parsed, for error messages
+		 * @param body  the text between the brackets
+		 * @return the parsed condition
+		 */
+		private static Condition parse(String query, String body) {
+			String operator = null;
+			int at = -1;
+			for (String op : OPERATORS) {
+				int i = body.indexOf(op);
+				if (i >= 0 && (at < 0 || i < at || (i == at && op.length() > operator.length()))) {
+					at = i;
+					operator = op;
+				}
+			}
+			String typeName = (at < 0 ? body : body.substring(0, at)).trim();
+			int type = TYPES.indexOf(typeName);
+			if (type < 0)
+				throw new NXException("Malformed query (" + query + "): unknown type " + typeName);
+			if (at < 0)
+				return new Condition(type, null, null);
+			String value = body.substring(at + operator.length()).trim();
+			if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"')
+				value = value.substring(1, value.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+			else if (type != 3 && !isNumber(value))
+				throw new NXException("Malformed query (" + query + "): " + value + " is not a number.");
+			if (type != 1 && type != 2 && type != 3 && type != 7)
+				throw new NXException("Malformed query (" + query + "): " + typeName + " values cannot be compared.");
+			return new Condition(type, operator, value);
+		}
+
+		/**
+		 * Determines whether or not {@code text} is a valid number.
+		 *
+		 * @param text the text to check
+		 * @return whether or not the text can be parsed as a number
+		 */
+		private static boolean isNumber(String text) {
+			try {
+				Double.parseDouble(text);
+				return true;
+			} catch (NumberFormatException e) {
+				return false;
+			}
+		}
+
+		/**
+		 * Tests whether or not this condition holds for the {@code node}.
+		 *
+		 * @param node the node to test
+		 * @return whether or not the condition holds
+		 */
+		private boolean test(NXNode node) {
+			switch (type) {
+				case 0:
+					return node instanceof NXNullNode;
+				case 1:
+					if (!(node instanceof NXLongNode))
+						return false;
+					return operator == null || compare(((NXLongNode) node).getLong());
+				case 2:
+					if (!(node instanceof NXDoubleNode))
+						return false;
+					return operator == null || compare(((NXDoubleNode) node).getDouble());
+				case 3:
+					if (!(node instanceof NXStringNode))
+						return false;
+					return operator == null || holds(((NXStringNode) node).getString().compareTo(text));
+				case 4:
+					return node instanceof NXPointNode;
+				case 5:
+					return node instanceof NXBitmapNode;
+				case 6:
+					return node instanceof NXAudioNode;
+				default:
+					if (node instanceof NXLongNode)
+						return operator == null || compare(((NXLongNode) node).getLong());
+					if (node instanceof NXDoubleNode)
+						return operator == null || compare(((NXDoubleNode) node).getDouble());
+					return false;
+			}
+		}
+
+		private boolean compare(long value) {
+			return integral ? holds(Long.compare(value, integer)) : compare((double) value);
+		}
+
+		private boolean compare(double value) {
+			return holds(Double.compare(value, number));
+		}
+
+		/**
+		 * Applies the operator of this condition to the result of a comparison.
+		 *
+		 * @param cmp the result of comparing the node value to the predicate value
+		 * @return whether or not the operator holds
+		 */
+		private boolean holds(int cmp) {
+			switch (operator) {
+				case "=":
+					return cmp == 0;
+				case "!=":
+					return cmp != 0;
+				case "<":
+					return cmp < 0;
+				case "<=":
+					return cmp <= 0;
+				case ">":
+					return cmp > 0;
+				default:
+					return cmp >= 0;
+			}
+		}
+	}
+
+	/**
+	 * A {@code Spliterator} evaluating a query. Pending work is a stack of items, each of which is either a single node
+	 * found by a literal search or a range of sibling nodes in the node table of a file, paired with the step they are
+	 * to be matched against. Splitting hands off half of the shallowest pending range.
+	 */
+	private final class QuerySpliterator implements Spliterator<NXNode> {
+		private NXNode[] nodes = new NXNode[8];
+		private NXFile[] files = new NXFile[8];
+		private int[] lo = new int[8], hi = new int[8], step = new int[8];
+		private int top;
+		private long est;
+
+		/**
+		 * Creates a {@code QuerySpliterator} evaluating from the {@code start} node.
+		 *
+		 * @param start the node to evaluate from
+		 */
+		private QuerySpliterator(NXNode start) {
+			this(start.getFile().getHeader().getNodeCount());
+			candidates(start, 0);
+		}
+
+		private QuerySpliterator(long est) {
+			this.est = est;
+		}
+
+		/**
+		 * Pushes a work item onto the pending stack.
+		 */
+		private void push(NXNode node, NXFile file, int from, int to, int s) {
+			if (top == lo.length) {
+				nodes = Arrays.copyOf(nodes, top * 2);
+				files = Arrays.copyOf(files, top * 2);
+				lo = Arrays.copyOf(lo, top * 2);
+				hi = Arrays.copyOf(hi, top * 2);
+				step = Arrays.copyOf(step, top * 2);
+			}
+			nodes[top] = node;
+			files[top] = file;
+			lo[top] = from;
+			hi[top] = to;
+			step[top++] = s;
+		}
+
+		/**
+		 * Queues the children of {@code parent} as candidates for step {@code s}.
+		 *
+		 * @param parent the node whose children are candidates
+		 * @param s      the index of the step to match them against
+		 */
+		private void candidates(NXNode parent, int s) {
+			if (s == steps.length) {
+				push(parent, null, 0, 0, s);
+			} else if (steps[s].descent) {
+				if (parent.getChildCount() > 0)
+					pushChildren(parent, s);
+				candidates(parent, s + 1);
+			} else if (steps[s].literal) {
+				NXNode child = parent.getChild(steps[s].pattern);
+				if (child != null)
+					push(child, null, 0, 0, s);
+			} else if (parent.getChildCount() > 0) {
+				pushChildren(parent, s);
+			}
+		}
+
+		/**
+		 * Pushes the range of the children of {@code parent} as candidates for step {@code s}.
+		 */
+		private void pushChildren(NXNode parent, int s) {
+			int first = (int) parent.getFirstChildIndex();
+			push(null, parent.getFile(), first, first + parent.getChildCount(), s);
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super NXNode> action) {
+			while (top > 0) {
+				int t = top - 1, s = step[t];
+				NXNode node = nodes[t];
+				if (node != null) {
+					nodes[t] = null;
+					top--;
+					if (s == steps.length) {
+						action.accept(node);
+						return true;
+					}
+					if (steps[s].test(node))
+						candidates(node, s + 1);
+					continue;
+				}
+				node = files[t].getNode(lo[t]++);
+				if (lo[t] >= hi[t])
+					files[--top] = null;
+				if (steps[s].descent)
+					candidates(node, s);
+				else if (steps[s].matches(node))
+					candidates(node, s + 1);
+			}
+			return false;
+		}
+
+		@Override
+		public Spliterator<NXNode> trySplit() {
+			int b = 0;
+			while (b < top && nodes[b] != null)
+				b++;
+			if (b == top || (b == top - 1 && hi[b] - lo[b] < 2))
+				return null;
+			QuerySpliterator split = new QuerySpliterator(est >>>= 1);
+			if (hi[b] - lo[b] > 1) {
+				int mid = (lo[b] + hi[b]) >>> 1;
+				split.push(null, files[b], mid, hi[b], step[b]);
+				hi[b] = mid;
+			} else {
+				split.push(null, files[b], lo[b], hi[b], step[b]);
+				top--;
+				System.arraycopy(nodes, b + 1, nodes, b, top - b);
+				System.arraycopy(files, b + 1, files, b, top - b);
+				System.arraycopy(lo, b + 1, lo, b, top - b);
+				System.arraycopy(hi, b + 1, hi, b, top - b);
+				System.arraycopy(step, b + 1, step, b, top - b);
+				nodes[top] = null;
+				files[top] = null;
+			}
+			return split;
+		}
+
+		@Override
+		public long estimateSize() {
+			return est;
+		}
+
+		@Override
+		public int characteristics() {
+			return NONNULL | IMMUTABLE;
+		}
+	}
+}
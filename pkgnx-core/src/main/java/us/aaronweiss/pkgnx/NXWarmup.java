@@ -0,0 +1,371 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.aaronweiss.pkgnx.internal.NXHeader;
+import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A background warm-up of the mapping of one or more {@code NXFile}s. Selected sections are page faulted in ahead of
+ * time by touching one byte of every page on a pool of daemon threads, so that the first reads after a file is opened
+ * do not stall on the disk. Progress can be polled, for example by a readiness probe which holds back traffic until
+ * the hot sections are resident.
+ * <p>
+ * Closing a file that is being warmed up, or starting another warm-up of it, cancels the warm-up and waits for its
+ * threads to stop touching the mapping.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.1
+ * @since 10/19/26
+ */
+public class NXWarmup {
+	/**
+	 * The sections that are read by almost every lookup: the node block and the string table and data.
+	 */
+	public static final Set<Section> HOT_SECTIONS = Collections.unmodifiableSet(EnumSet.of(Section.NODES,
+			Section.STRING_TABLE, Section.STRINGS));
+	private static final Logger logger = LoggerFactory.getLogger(NXWarmup.class);
+	private static final int PAGE_SIZE = 4096;
+	private static final int CHUNK_SIZE = 1 << 20;
+	private static final AtomicInteger poolCount = new AtomicInteger();
+	private static volatile int sink;
+	private final NXFile[] files;
+	private final Set<Section> sections;
+	private final ExecutorService pool;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private final AtomicInteger pending = new AtomicInteger(1);
+	private final AtomicLong touched = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final long start = System.nanoTime();
+	private volatile boolean planned, cancelled, failed;
+
+	/**
+	 * Starts warming up {@code sections} of every one of {@code files}.
+	 *
+	 * @param files    the files to warm up
+	 * @param threads  the number of threads to touch pages with
+	 * @param sections the sections to warm up
+	 */
+	NXWarmup(NXFile[] files, int threads, Set<Section> sections) {
+		if (threads < 1)
+			throw new IllegalArgumentException("A warm-up needs at least one thread.");
+		this.files = files;
+		this.sections = sections.isEmpty() ? EnumSet.noneOf(Section.class) : EnumSet.copyOf(sections);
+		String prefix = "pkgnx-warmup-" + poolCount.incrementAndGet() + "-";
+		AtomicInteger threadCount = new AtomicInteger();
+		pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			for (NXFile file : files)
+				register(file);
+			pool.execute(this::plan);
+		} catch (NXException | RejectedExecutionException e) {
+			cancel();
+			throw new NXException("Cannot warm up a closed file.");
+		}
+	}
+
+	/**
+	 * Registers this warm-up with {@code file}, so that closing the file cancels it, and cancels the warm-up it
+	 * replaces.
+	 */
+	private void register(NXFile file) {
+		NXWarmup previous;
+		synchronized (file) {
+			file.checkOpen();
+			previous = file.warmup;
+			file.warmup = this;
+		}
+		if (previous != null)
+			previous.cancel();
+	}
+
+	/**
+	 * Gets the sections being warmed up.
+	 *
+	 * @return the sections
+	 */
+	public Set<Section> getSections() {
+		return Collections.unmodifiableSet(sections);
+	}
+
+	/**
+	 * Gets the number of bytes that have been touched so far.
+	 *
+	 * @return the touched bytes
+	 */
+	public long getTouchedBytes() {
+		return touched.get();
+	}
+
+	/**
+	 * Gets the number of bytes to be touched in total. This is only known once the sections have been located.
+	 *
+	 * @return the total bytes, or 0 if not yet known
+	 */
+	public long getTotalBytes() {
+		return planned ? total.get() : 0;
+	}
+
+	/**
+	 * Gets the fraction of the warm-up that has been completed.
+	 *
+	 * @return the progress, from 0 to 1
+	 */
+	public double getProgress() {
+		if (isDone())
+			return 1;
+		long bytes = getTotalBytes();
+		return bytes == 0 ? 0 : Math.min(1, (double) touched.get() / bytes);
+	}
+
+	/**
+	 * Determines whether or not the warm-up has stopped, whether it finished, failed or was cancelled.
+	 *
+	 * @return whether or not the warm-up has stopped
+	 */
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	/**
+	 * Determines whether or not every section has been warmed up.
+	 *
+	 * @return whether or not the warm-up finished successfully
+	 */
+	public boolean isReady() {
+		return isDone() && !cancelled && !failed;
+	}
+
+	/**
+	 * Waits for the warm-up to stop.
+	 *
+	 * @return whether or not the warm-up finished successfully
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean await() throws InterruptedException {
+		done.await();
+		return isReady();
+	}
+
+	/**
+	 * Waits up to {@code timeout} for the warm-up to stop.
+	 *
+	 * @param timeout the longest time to wait
+	 * @param unit    the unit of {@code timeout}
+	 * @return whether or not the warm-up finished successfully in time
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		return done.await(timeout, unit) && isReady();
+	}
+
+	/**
+	 * Stops the warm-up and waits for its threads to stop touching the mapping.
+	 */
+	public void cancel() {
+		cancelled = true;
+		pool.shutdownNow();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (pool.awaitTermination(1, TimeUnit.MINUTES))
+					break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		done.countDown();
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Locates the sections of every file and splits them into chunks to be touched.
+	 */
+	private void plan() {
+		try {
+			for (NXFile file : files) {
+				ByteBuffer buf = file.buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+				NXHeader header = file.header != null ? file.header
+						: new NXHeader(file, new SeekableLittleEndianAccessor(buf.duplicate()));
+				for (Section section : sections) {
+					if (cancelled)
+						return;
+					section.locate(this, buf, header);
+				}
+			}
+			planned = true;
+		} catch (RuntimeException e) {
+			failed = true;
+			logger.error("Failed to locate the sections to warm up.", e);
+		} finally {
+			finish();
+		}
+	}
+
+	/**
+	 * Queues the range from {@code start} to {@code end} of {@code buf} to be touched, clamped to the mapping.
+	 */
+	private void submit(ByteBuffer buf, long start, long end) {
+		end = Math.min(end, buf.capacity());
+		if (start < 0 || start >= end)
+			return;
+		total.addAndGet(end - start);
+		for (long chunk = start; chunk < end; chunk += CHUNK_SIZE) {
+			int from = (int) chunk, to = (int) Math.min(end, chunk + CHUNK_SIZE);
+			pending.incrementAndGet();
+			try {
+				pool.execute(() -> {
+					try {
+						touch(buf, from, to);
+					} finally {
+						finish();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				finish();
+			}
+		}
+	}
+
+	/**
+	 * Reads one byte of every page from {@code from} to {@code to}.
+	 */
+	private void touch(ByteBuffer buf, int from, int to) {
+		int sum = 0;
+		for (int index = from; index < to && !cancelled; index += PAGE_SIZE) {
+			sum += buf.get(index);
+			touched.addAndGet(Math.min(PAGE_SIZE, to - index));
+		}
+		sink += sum;
+	}
+
+	/**
+	 * Marks a task as finished, completing the warm-up after the last one.
+	 */
+	private void finish() {
+		if (pending.decrementAndGet() != 0)
+			return;
+		if (!cancelled && !failed)
+			logger.info("Warmed up {} of {} in {} ms.", sections, files.length == 1 ? files[0].getFilePath()
+					: files.length + " files", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		done.countDown();
+		pool.shutdown();
+	}
+
+	/**
+	 * A section of an NX file which can be warmed up.
+	 */
+	public enum Section {
+		/**
+		 * The node block.
+		 */
+		NODES {
+			@Override
+			void locate(NXWarmup warmup, ByteBuffer buf, NXHeader header) {
+				long start = header.getNodeOffset();
+				warmup.submit(buf, start, start + header.getNodeCount() * NXNode.NODE_SIZE);
+			}
+		},
+		/**
+		 * The table of string offsets.
+		 */
+		STRING_TABLE {
+			@Override
+			void locate(NXWarmup warmup, ByteBuffer buf, NXHeader header) {
+				long start = header.getStringOffset();
+				warmup.submit(buf, start, start + header.getStringCount() * 8);
+			}
+		},
+		/**
+		 * The string data, from the first string to the end of the last.
+		 */
+		STRINGS {
+			@Override
+			void locate(NXWarmup warmup, ByteBuffer buf, NXHeader header) {
+				long[] extent = extent(buf, header.getStringOffset(), header.getStringCount());
+				if (extent != null)
+					warmup.submit(buf, extent[0], extent[1] + 2 + (buf.getShort((int) extent[1]) & 0xFFFF));
+			}
+		},
+		/**
+		 * The table of bitmap offsets and the compressed bitmap data.
+		 */
+		BITMAPS {
+			@Override
+			void locate(NXWarmup warmup, ByteBuffer buf, NXHeader header) {
+				long start = header.getBitmapOffset();
+				warmup.submit(buf, start, start + header.getBitmapCount() * 8);
+				long[] extent = extent(buf, start, header.getBitmapCount());
+				if (extent != null)
+					warmup.submit(buf, extent[0], extent[1] + 4 + (buf.getInt((int) extent[1]) & 0xFFFFFFFFL));
+			}
+		};
+
+		/**
+		 * Finds the lowest and highest of the {@code count} offsets in the table at {@code table}.
+		 *
+		 * @return the lowest and highest offset, or null if the table is empty or out of bounds
+		 */
+		private static long[] extent(ByteBuffer buf, long table, long count) {
+			if (count == 0 || table < 0 || table + count * 8 > buf.capacity())
+				return null;
+			long min = Long.MAX_VALUE, max = -1;
+			for (int i = 0; i < count; i++) {
+				long offset = buf.getLong((int) table + i * 8);
+				min = Math.min(min, offset);
+				max = Math.max(max, offset);
+			}
+			return min < 0 || max + 8 > buf.capacity() ? null : new long[]{min, max};
+		}
+
+		/**
+		 * Queues the ranges of this section in {@code buf} to be touched.
+		 *
+		 * @param warmup the warm-up to queue them on
+		 * @param buf    the mapping of the file
+		 * @param header the header of the file
+		 */
+		abstract void locate(NXWarmup warmup, ByteBuffer buf, NXHeader header);
+	}
+}
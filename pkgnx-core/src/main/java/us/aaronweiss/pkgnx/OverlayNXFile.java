@@ -0,0 +1,564 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx;
+
+import us.aaronweiss.pkgnx.internal.NXHeader;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+import us.aaronweiss.pkgnx.internal.OverlayNXNodeTable;
+import us.aaronweiss.pkgnx.internal.OverlayNXTables;
+import us.aaronweiss.pkgnx.util.NodeParser;
+import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A small patch file stacked on top of a base file, so that a hotfix can ship as a few megabytes instead of a whole
+ * new data file. Lookups check the patch first and fall back to the base, and both files stay memory-mapped.
+ * <p>
+ * A node in the patch overrides the value of the node at the same path in the base, unless it is a null node, in
+ * which case it only contributes children. A patch node with a child named {@code TOMBSTONE} hides the base node at
+ * its path: on its own it deletes that node, and with other children it replaces the node's entire subtree.
+ * <p>
+ * Merged children are computed once, when the overlay is created, for every node that exists in the patch. Each
+ * merged node gets a contiguous range of slots in this file, while subtrees the patch does not touch are read straight
+ * from the records of the base or patch file. Every node still belongs to this overlay: nodes of the base file keep
+ * their index, nodes of the patch file are numbered after them, and slots after both, so that parents, paths and
+ * equality never leave the overlay. Nodes are cached once they have been read, and since the slots never change after
+ * the overlay is created, reads take no locks.
+ * <p>
+ * The node table of an overlay is a read-only view of the base file, the patch file and the slots, in which every node
+ * the overlay shows appears once. A node of the base or patch file that is held in a slot appears under the index of
+ * the slot, so indices found through the table may differ from {@code NXNode.getIndex}, though {@code getNode} of
+ * either gives the same node.
+ *
+ * @author Aaron Weiss
+ * @version 1.5.0
+ * @since 10/19/26
+ */
+public class OverlayNXFile extends NXFile {
+	/**
+	 * The name of the marker child which deletes or replaces a node of the base file.
+	 */
+	public static final String TOMBSTONE = "$tombstone";
+
+	private final NXFile base, patch;
+	private final NXNodeTable baseTable, patchTable;
+	private final long baseStrings, baseBitmaps, baseSounds;
+	private final int baseCount, slotStart, mergedCount;
+	private final int[] slotParent, slotServed;
+	private final NXNode[] merged, nodes;
+	private final Map<Integer, Integer> boundaryParents;
+
+	/**
+	 * Stacks {@code patch} on top of {@code base}.
+	 *
+	 * @param base  the file to fall back to
+	 * @param patch the file to check first
+	 */
+	public OverlayNXFile(NXFile base, NXFile patch) {
+		super(base.getFilePath() + "+" + patch.getFilePath());
+		this.base = base;
+		this.patch = patch;
+		baseTable = base.getNodeTable();
+		patchTable = patch.getNodeTable();
+		NXHeader b = base.getHeader(), p = patch.getHeader();
+		baseStrings = b.getStringCount();
+		baseBitmaps = b.getBitmapCount();
+		baseSounds = b.getSoundCount();
+		if (b.getNodeCount() + p.getNodeCount() >= Integer.MAX_VALUE)
+			throw new NXException("Cannot overlay files with more than " + Integer.MAX_VALUE + " nodes in total.");
+		baseCount = (int) b.getNodeCount();
+		slotStart = (int) (b.getNodeCount() + p.getNodeCount());
+		tables = new OverlayNXTables(b, base.getTables(), patch.getTables());
+		Slots slots = new Slots();
+		slots.resolve();
+		slotParent = Arrays.copyOf(slots.slotParent, slots.count);
+		slotServed = Arrays.copyOf(slots.slotServed, slots.count);
+		boundaryParents = slots.boundaryParents;
+		ByteBuffer stacked = NXHeader.encode(slotStart + slots.count - 1, 0, baseStrings + p.getStringCount(), 0,
+				baseBitmaps + p.getBitmapCount(), 0, baseSounds + p.getSoundCount(), 0);
+		header = new NXHeader(this, new SeekableLittleEndianAccessor(stacked.array()));
+		SeekableLittleEndianAccessor records = slots.records();
+		NXNodeTable slotTable = new NXNodeTable(new NXHeader(this, records), records);
+		nodeTable = new OverlayNXNodeTable(b, baseTable, patchTable, slotTable, slots.hidden);
+		nodes = new NXNode[slotStart];
+		merged = new NXNode[slots.count];
+		int count = 0;
+		for (int slot = 0; slot < slots.count; slot++) {
+			if (slotServed[slot] >= 0)
+				continue;
+			records.seek(NXHeader.SIZE + (long) slot * NXNode.NODE_SIZE);
+			merged[slot] = NodeParser.parseNode(this, index(slot), records);
+			count++;
+		}
+		mergedCount = count;
+	}
+
+	/**
+	 * Gets the file that this overlay falls back to.
+	 *
+	 * @return the base file
+	 */
+	public NXFile getBase() {
+		return base;
+	}
+
+	/**
+	 * Gets the file that this overlay checks first.
+	 *
+	 * @return the patch file
+	 */
+	public NXFile getPatch() {
+		return patch;
+	}
+
+	/**
+	 * Gets a node of this overlay. Indices below the node count of the base file are nodes of the base file, the next
+	 * ones are nodes of the patch file, and the rest are slots handed out to the children of merged nodes, where index
+	 * 0 is the merged root. A slot holding a node that is not merged gives the node under its own index instead.
+	 *
+	 * @param index the index of the node
+	 * @return the node
+	 */
+	@Override
+	public NXNode getNode(int index) {
+		checkOpen();
+		if (index == 0 || index >= slotStart) {
+			int slot = slot(index);
+			NXNode node = merged[slot];
+			return node != null ? node : getNode(slotServed[slot]);
+		}
+		NXNode node = nodes[index];
+		if (node != null)
+			return node;
+		SeekableLittleEndianAccessor slea;
+		if (index < baseCount) {
+			slea = base.slea;
+			slea.seek(base.getHeader().getNodeOffset() + (long) index * NXNode.NODE_SIZE);
+		} else {
+			int p = index - baseCount, count = patchTable.getChildCount(p), type = patchTable.getType(p);
+			ByteBuffer record = ByteBuffer.allocate(NXNode.NODE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			NXNodeTable.encode(record, patchTable.getNameIndex(p) + baseStrings,
+					count == 0 ? 0 : patchTable.getFirstChildIndex(p) + baseCount, count, type,
+					rebase(type, patchTable.getLong(p)));
+			slea = new SeekableLittleEndianAccessor(record.array());
+		}
+		return (nodes[index] = NodeParser.parseNode(this, index, slea));
+	}
+
+	/**
+	 * Gets the index that a node is served under, resolving slots which hold nodes of the base or patch file.
+	 */
+	private int servedIndex(int index) {
+		if (index > 0 && index < slotStart)
+			return index;
+		int served = slotServed[slot(index)];
+		return served >= 0 ? served : index;
+	}
+
+	/**
+	 * Gets the value of a node as a {@code long}. Nodes of the base or patch file are read from their records there,
+	 * and merged nodes from their records in the node table of this overlay.
+	 *
+	 * @param index the index of the node
+	 * @param def   the value to fall back to
+	 * @return the value of the node as a {@code long}
+	 */
+	@Override
+	public long getLong(int index, long def) {
+		checkOpen();
+		int served = servedIndex(index);
+		if (served < baseCount && served > 0)
+			return base.getLong(served, def);
+		else if (served < slotStart && served > 0)
+			return patch.getLong(served - baseCount, def);
+		return super.getLong(index, def);
+	}
+
+	@Override
+	public double getDouble(int index, double def) {
+		checkOpen();
+		int served = servedIndex(index);
+		if (served < baseCount && served > 0)
+			return base.getDouble(served, def);
+		else if (served < slotStart && served > 0)
+			return patch.getDouble(served - baseCount, def);
+		return super.getDouble(index, def);
+	}
+
+	@Override
+	public String getString(int index, String def) {
+		checkOpen();
+		int served = servedIndex(index);
+		if (served < baseCount && served > 0)
+			return base.getString(served, def);
+		else if (served < slotStart && served > 0)
+			return patch.getString(served - baseCount, def);
+		return super.getString(index, def);
+	}
+
+	@Override
+	public int getX(int index, int def) {
+		checkOpen();
+		int served = servedIndex(index);
+		if (served < baseCount && served > 0)
+			return base.getX(served, def);
+		else if (served < slotStart && served > 0)
+			return patch.getX(served - baseCount, def);
+		return super.getX(index, def);
+	}
+
+	@Override
+	public int getY(int index, int def) {
+		checkOpen();
+		int served = servedIndex(index);
+		if (served < baseCount && served > 0)
+			return base.getY(served, def);
+		else if (served < slotStart && served > 0)
+			return patch.getY(served - baseCount, def);
+		return super.getY(index, def);
+	}
+
+	/**
+	 * Gets the index of the parent of a node. Merged nodes answer with the merged node that handed out their slot, as
+	 * do the nodes of the base or patch file held in such a slot, while the nodes below them answer through the parent
+	 * table of their own file.
+	 *
+	 * @param index the index of the node
+	 * @return the index of its parent, or -1 for the merged root
+	 */
+	@Override
+	public int getParentIndex(int index) {
+		checkOpen();
+		if (index > 0 && index < slotStart) {
+			Integer parent = boundaryParents.get(index);
+			if (parent != null)
+				return parent;
+			if (index < baseCount)
+				return base.getParentIndex(index);
+			int patchParent = patch.getParentIndex(index - baseCount);
+			return patchParent == 0 ? 0 : baseCount + patchParent;
+		}
+		int parent = slotParent[slot(index)];
+		return parent < 0 ? -1 : index(parent);
+	}
+
+	/**
+	 * Gets the slot that an index of this overlay refers to.
+	 *
+	 * @throws NXException if the overlay has no such slot
+	 */
+	private int slot(int index) {
+		int slot = index == 0 ? 0 : index - slotStart + 1;
+		if (slot < 0 || (slot == 0 && index != 0) || slot >= slotServed.length)
+			throw new NXException("Overlay slot " + index + " does not exist.");
+		return slot;
+	}
+
+	/**
+	 * Gets the index of a slot in this overlay.
+	 */
+	private int index(int slot) {
+		return slot <= 0 ? slot : slotStart + slot - 1;
+	}
+
+	/**
+	 * Determines whether a patch node only deletes its base counterpart: a null node whose one child is a tombstone.
+	 */
+	private boolean isDeletion(int p) {
+		return patchTable.getType(p) == NXNodeTable.TYPE_NULL && patchTable.getChildCount(p) == 1
+				&& TOMBSTONE.equals(patchName((int) patchTable.getFirstChildIndex(p)));
+	}
+
+	private String patchName(int p) {
+		return patch.getTables().getString(patchTable.getNameIndex(p));
+	}
+
+	private String baseName(int b) {
+		return base.getTables().getString(baseTable.getNameIndex(b));
+	}
+
+	/**
+	 * Moves the string, bitmap or audio index in the payload of a patch node past the tables of the base file.
+	 */
+	private long rebase(int type, long payload) {
+		switch (type) {
+			case NXNodeTable.TYPE_STRING:
+				return rebase(payload, baseStrings);
+			case NXNodeTable.TYPE_BITMAP:
+				return rebase(payload, baseBitmaps);
+			case NXNodeTable.TYPE_AUDIO:
+				return rebase(payload, baseSounds);
+			default:
+				return payload;
+		}
+	}
+
+	/**
+	 * Moves the table index in the low half of a payload past the tables of the base file.
+	 */
+	private static long rebase(long payload, long offset) {
+		return (payload & 0xFFFFFFFF00000000L) | ((payload + offset) & 0xFFFFFFFFL);
+	}
+
+	@Override
+	public long getMappedSize() {
+		return base.getMappedSize() + patch.getMappedSize();
+	}
+
+	@Override
+	public int getLoadedNodeCount() {
+		int count = mergedCount;
+		for (NXNode node : nodes)
+			if (node != null)
+				count++;
+		return count;
+	}
+
+	@Override
+	public void clearCaches() {
+		base.clearCaches();
+		patch.clearCaches();
+		Arrays.fill(nodes, null);
+	}
+
+	/**
+	 * Closes this overlay along with its base and patch files, and unregisters its monitor.
+	 *
+	 * @throws IOException if either file could not be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		unregisterMonitor();
+		try {
+			base.close();
+		} finally {
+			patch.close();
+		}
+	}
+
+	@Override
+	public NXWarmup warmUp(int threads, Set<NXWarmup.Section> sections) {
+		checkOpen();
+		NXWarmup warmup = new NXWarmup(new NXFile[]{base, patch}, threads, sections);
+		this.warmup = warmup;
+		return warmup;
+	}
+
+	@Override
+	public void preTouch() {
+		base.preTouch();
+		patch.preTouch();
+	}
+
+	/**
+	 * The slots of an overlay while they are being resolved. Starting from the merged root, each slot holding a merged
+	 * node hands out the next range of slots to its children, so resolving the slots in order reaches all of them.
+	 * Every slot gets a record: a merged node gets its merged record, and any other node a copy of its own record.
+	 */
+	private class Slots {
+		private int[] slotBase = new int[64], slotPatch = new int[64], slotParent = new int[64];
+		private int[] slotServed = new int[64];
+		private ByteBuffer records = ByteBuffer.allocate(NXHeader.SIZE + 64 * NXNode.NODE_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		private final Map<Integer, Integer> boundaryParents = new HashMap<>();
+		private final BitSet hidden = new BitSet();
+		private int count;
+
+		/**
+		 * Resolves every slot, starting with the merged root.
+		 */
+		public void resolve() {
+			records.position(NXHeader.SIZE);
+			add(0, 0, -1);
+			for (int slot = 0; slot < count; slot++) {
+				int b = slotBase[slot], p = slotPatch[slot];
+				if (p < 0)
+					serve(slot, b);
+				else if (b < 0 && !patch.getNode(p).hasChild(TOMBSTONE))
+					serve(slot, baseCount + p);
+				else
+					merge(slot, b, p);
+			}
+		}
+
+		/**
+		 * Gets the records of every slot behind a header, ready to be read as a node table.
+		 */
+		public SeekableLittleEndianAccessor records() {
+			byte[] data = Arrays.copyOf(records.array(), NXHeader.SIZE + count * NXNode.NODE_SIZE);
+			ByteBuffer header = NXHeader.encode(count, NXHeader.SIZE, 0, 0, 0, 0, 0, 0);
+			System.arraycopy(header.array(), 0, data, 0, NXHeader.SIZE);
+			return new SeekableLittleEndianAccessor(data);
+		}
+
+		/**
+		 * Puts a node of the base or patch file in a slot. The node keeps its own index, and its record is hidden in
+		 * favour of the one in the slot.
+		 */
+		private void serve(int slot, int index) {
+			slotServed[slot] = index;
+			boundaryParents.put(index, index(slotParent[slot]));
+			hidden.set(index);
+			if (index < baseCount) {
+				NXNodeTable.encode(reserve(), baseTable.getNameIndex(index), baseTable.getFirstChildIndex(index),
+						baseTable.getChildCount(index), baseTable.getType(index), baseTable.getLong(index));
+			} else {
+				int p = index - baseCount, children = patchTable.getChildCount(p), type = patchTable.getType(p);
+				NXNodeTable.encode(reserve(), patchTable.getNameIndex(p) + baseStrings,
+						children == 0 ? 0 : patchTable.getFirstChildIndex(p) + baseCount, children, type,
+						rebase(type, patchTable.getLong(p)));
+			}
+		}
+
+		/**
+		 * Builds the merged node for a patch node and its base counterpart, if any. The children of both are merged
+		 * by name, so they stay sorted, and given the next range of slots. The record of the merged node points its
+		 * string, bitmap and audio indices into the stacked tables of this overlay. The records of both nodes are
+		 * hidden, along with any subtree of the base that the patch deletes or replaces.
+		 *
+		 * @param slot the slot of the merged node
+		 * @param b    the index of the base node, or -1 if only the patch has it
+		 * @param p    the index of the patch node
+		 */
+		private void merge(int slot, int b, int p) {
+			slotServed[slot] = -1;
+			if (b > 0)
+				hidden.set(b);
+			hidden.set(baseCount + p);
+			boolean tombstoned = patch.getNode(p).hasChild(TOMBSTONE);
+			if (tombstoned && b >= 0)
+				hideChildren(baseTable, 0, b);
+			int first = count;
+			int pi = (int) patchTable.getFirstChildIndex(p), pe = pi + patchTable.getChildCount(p);
+			int bi = 0, be = 0;
+			if (b >= 0 && !tombstoned) {
+				bi = (int) baseTable.getFirstChildIndex(b);
+				be = bi + baseTable.getChildCount(b);
+			}
+			while (pi < pe || bi < be) {
+				String name = pi < pe ? patchName(pi) : null;
+				if (TOMBSTONE.equals(name)) {
+					hideSubtree(patchTable, baseCount, pi++);
+					continue;
+				}
+				int cmp = name == null ? 1 : bi == be ? -1 : name.compareTo(baseName(bi));
+				if (cmp < 0) {
+					if (isDeletion(pi))
+						hideSubtree(patchTable, baseCount, pi);
+					else
+						add(-1, pi, slot);
+					pi++;
+				} else if (cmp > 0) {
+					add(bi++, -1, slot);
+				} else {
+					if (isDeletion(pi)) {
+						hideSubtree(patchTable, baseCount, pi);
+						hideSubtree(baseTable, 0, bi);
+					} else {
+						add(bi, pi, slot);
+					}
+					pi++;
+					bi++;
+				}
+			}
+			int children = count - first;
+			if (children > 0xFFFF)
+				throw new NXException("Merged node has more than 65535 children.");
+			int type = patchTable.getType(p);
+			long payload = rebase(type, patchTable.getLong(p));
+			if (type == NXNodeTable.TYPE_NULL && b >= 0 && !tombstoned) {
+				type = baseTable.getType(b);
+				payload = baseTable.getLong(b);
+			}
+			NXNodeTable.encode(reserve(), patchTable.getNameIndex(p) + baseStrings,
+					children == 0 ? 0 : index(first), children, type, payload);
+		}
+
+		/**
+		 * Hides the record of a node and of every node below it.
+		 */
+		private void hideSubtree(NXNodeTable table, int offset, int root) {
+			hidden.set(offset + root);
+			hideChildren(table, offset, root);
+		}
+
+		/**
+		 * Hides the records of every node below a node, one child range at a time.
+		 */
+		private void hideChildren(NXNodeTable table, int offset, int root) {
+			int[] stack = new int[16];
+			int top = 0;
+			stack[top++] = root;
+			while (top > 0) {
+				int node = stack[--top], first = (int) table.getFirstChildIndex(node);
+				int end = first + table.getChildCount(node);
+				hidden.set(offset + first, offset + end);
+				for (int child = first; child < end; child++) {
+					if (table.getChildCount(child) == 0)
+						continue;
+					if (top == stack.length)
+						stack = Arrays.copyOf(stack, top * 2);
+					stack[top++] = child;
+				}
+			}
+		}
+
+		/**
+		 * Makes room for the record of the next slot.
+		 */
+		private ByteBuffer reserve() {
+			if (records.remaining() < NXNode.NODE_SIZE) {
+				ByteBuffer grown = ByteBuffer.allocate(records.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+				records.flip();
+				records = grown.put(records);
+			}
+			return records;
+		}
+
+		private void add(int b, int p, int parent) {
+			if ((long) slotStart + count >= Integer.MAX_VALUE)
+				throw new NXException("An overlay cannot hand out more than " + Integer.MAX_VALUE + " node indices.");
+			if (count == slotBase.length) {
+				slotBase = Arrays.copyOf(slotBase, count * 2);
+				slotPatch = Arrays.copyOf(slotPatch, count * 2);
+				slotParent = Arrays.copyOf(slotParent, count * 2);
+				slotServed = Arrays.copyOf(slotServed, count * 2);
+			}
+			slotBase[count] = b;
+			slotParent[count] = parent;
+			slotPatch[count++] = p;
+		}
+	}
+}
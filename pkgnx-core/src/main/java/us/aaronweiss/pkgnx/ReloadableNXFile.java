@@ -0,0 +1,353 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A handle to an NX file that can be swapped for a new version while it is being read. Readers pin a consistent
+ * {@code Snapshot} for the length of a request, since nodes always point back to the file they came from, and acquiring
+ * one never blocks. New versions are opened, and optionally pre-warmed, on a background thread before being switched in
+ * atomically. An old version is closed, releasing its mapping, once the last reader releases it.
+ * <p>
+ * Reloads can be triggered explicitly or by watching the file for changes, with a quiet period so that a file which is
+ * still being copied is not opened half-written. New versions should be deployed by renaming them over the old file,
+ * because rewriting a mapped file in place changes it underneath the readers of the old version.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.1
+ * @since 10/19/26
+ */
+public class ReloadableNXFile implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(ReloadableNXFile.class);
+	private final Path path;
+	private final Opener opener;
+	private final boolean preWarm;
+	private final AtomicReference<Version> current = new AtomicReference<>();
+	private final ScheduledExecutorService loader;
+	private ScheduledFuture<Long> debounced;
+	private WatchService watcher;
+	private volatile boolean closed;
+
+	/**
+	 * Opens {@code path} as a {@code LazyNXFile} which can be reloaded.
+	 *
+	 * @param path the path to the file
+	 * @throws IOException if the file could not be opened
+	 */
+	public ReloadableNXFile(Path path) throws IOException {
+		this(path, LazyNXFile::new, false);
+	}
+
+	/**
+	 * Opens {@code path} with {@code opener}, which will also be used to open every later version.
+	 *
+	 * @param path    the path to the file
+	 * @param opener  the way to open each version of the file
+	 * @param preWarm whether to warm up the hot sections of each new version before switching to it
+	 * @throws IOException if the file could not be opened
+	 */
+	public ReloadableNXFile(Path path, Opener opener, boolean preWarm) throws IOException {
+		this.path = path;
+		this.opener = opener;
+		this.preWarm = preWarm;
+		current.set(new Version(opener.open(path), 1));
+		loader = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "pkgnx-reload");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Pins the current version of the file until the snapshot is closed. This never blocks, even while a reload is
+	 * switching versions.
+	 *
+	 * @return a snapshot of the current version
+	 * @throws NXException if this handle has been closed
+	 */
+	public Snapshot acquire() {
+		while (true) {
+			Version version = current.get();
+			if (version == null)
+				throw new NXException("This file has been closed.");
+			if (version.retain())
+				return new Snapshot(version);
+		}
+	}
+
+	/**
+	 * Gets the number of the current version, starting from 1 and counting up with every successful reload.
+	 *
+	 * @return the current version number
+	 */
+	public long getVersion() {
+		Version version = current.get();
+		return version == null ? 0 : version.number;
+	}
+
+	/**
+	 * Opens the file again in the background and switches to it once it is ready. If the new version cannot be opened,
+	 * the current version is kept.
+	 *
+	 * @return the number of the new version, once it has been switched in
+	 */
+	public synchronized Future<Long> reload() {
+		return schedule(0);
+	}
+
+	/**
+	 * Reloads the file whenever it changes on disk, once it has been left alone for {@code quietMillis}.
+	 *
+	 * @param quietMillis how long the file must go unchanged before it is reloaded
+	 * @throws IOException if the directory of the file cannot be watched
+	 */
+	public synchronized void watch(long quietMillis) throws IOException {
+		if (watcher != null)
+			return;
+		Path directory = path.toAbsolutePath().getParent();
+		Path name = path.getFileName();
+		watcher = FileSystems.getDefault().newWatchService();
+		directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		WatchService service = watcher;
+		Thread thread = new Thread(() -> {
+			try {
+				while (true) {
+					WatchKey key = service.take();
+					for (WatchEvent<?> event : key.pollEvents())
+						if (name.equals(event.context()))
+							reschedule(quietMillis);
+					key.reset();
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				// the handle was closed
+			}
+		}, "pkgnx-watch");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops watching and reloading, and retires the current version once its last reader is done with it.
+	 *
+	 * @throws IOException if the watcher could not be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		loader.shutdownNow();
+		if (watcher != null)
+			watcher.close();
+		Version version = current.getAndSet(null);
+		if (version != null)
+			version.release();
+	}
+
+	/**
+	 * Schedules a reload after {@code delay}, replacing any reload scheduled by an earlier change that has not started
+	 * yet so that a burst of changes only opens the file once. Reloads requested through {@code reload} are left alone.
+	 */
+	private synchronized void reschedule(long delay) {
+		if (debounced != null)
+			debounced.cancel(false);
+		debounced = schedule(delay);
+	}
+
+	private synchronized ScheduledFuture<Long> schedule(long delay) {
+		if (closed)
+			throw new NXException("This file has been closed.");
+		return loader.schedule(this::load, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Opens and pre-warms the next version, then switches it in and releases the handle's reference to the old one.
+	 */
+	private long load() throws IOException {
+		NXFile file = null;
+		try {
+			file = opener.open(path);
+			if (preWarm)
+				warm(file);
+		} catch (IOException | RuntimeException e) {
+			if (file != null)
+				new Version(file, 0).release();
+			logger.error("Failed to reload " + path + ", keeping version " + getVersion() + ".", e);
+			throw e;
+		}
+		synchronized (this) {
+			Version old = current.get();
+			if (closed || old == null) {
+				new Version(file, 0).release();
+				throw new NXException("This file has been closed.");
+			}
+			Version next = new Version(file, old.number + 1);
+			current.set(next);
+			old.release();
+			logger.info("Reloaded {} as version {}.", path, next.number);
+			return next.number;
+		}
+	}
+
+	/**
+	 * Warms up the node block and string table and data of a new version, leaving the rest of its mapping cold. A
+	 * warm-up that fails only costs the first readers some page faults, so the version is switched in regardless.
+	 */
+	private void warm(NXFile file) throws InterruptedIOException {
+		try {
+			if (!file.warmUp().await())
+				logger.warn("Failed to warm up {}, switching to it cold.", path);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while warming up " + path + ".");
+		}
+	}
+
+	/**
+	 * A way of opening a version of a file.
+	 */
+	public interface Opener {
+		/**
+		 * Opens the file at {@code path}.
+		 *
+		 * @param path the path to the file
+		 * @return the opened file
+		 * @throws IOException if the file could not be opened
+		 */
+		NXFile open(Path path) throws IOException;
+	}
+
+	/**
+	 * An opened version of the file, counting its readers. The handle holds one reference for as long as the version
+	 * is current, and the version is retired when the count drops to zero.
+	 */
+	private static final class Version {
+		private final NXFile file;
+		private final long number;
+		private final AtomicInteger refs = new AtomicInteger(1);
+
+		private Version(NXFile file, long number) {
+			this.file = file;
+			this.number = number;
+		}
+
+		/**
+		 * Adds a reader, unless the version has already been retired.
+		 */
+		private boolean retain() {
+			while (true) {
+				int count = refs.get();
+				if (count == 0)
+					return false;
+				if (refs.compareAndSet(count, count + 1))
+					return true;
+			}
+		}
+
+		private void release() {
+			if (refs.decrementAndGet() == 0)
+				retire();
+		}
+
+		/**
+		 * Closes the file, releasing its mapping.
+		 */
+		private void retire() {
+			try {
+				file.close();
+				logger.debug("Retired version {} of {}.", number, file.getFilePath());
+			} catch (IOException e) {
+				logger.warn("Failed to close version " + number + " of " + file.getFilePath() + ".", e);
+			}
+		}
+	}
+
+	/**
+	 * A reader's pin on one version of the file. Every node read through a snapshot comes from the same version, and
+	 * the snapshot must be closed when the reader is done so the version can be retired.
+	 *
+	 * @author Aaron Weiss
+	 * @version 1.0.0
+	 * @since 10/19/26
+	 */
+	public static final class Snapshot implements AutoCloseable {
+		private final Version version;
+		private boolean closed;
+
+		private Snapshot(Version version) {
+			this.version = version;
+		}
+
+		/**
+		 * Gets the pinned version of the file.
+		 *
+		 * @return the file
+		 */
+		public NXFile getFile() {
+			if (closed)
+				throw new NXException("This snapshot has been closed.");
+			return version.file;
+		}
+
+		/**
+		 * Gets the number of the pinned version.
+		 *
+		 * @return the version number
+		 */
+		public long getVersion() {
+			return version.number;
+		}
+
+		/**
+		 * Releases the pinned version. Closing a snapshot more than once has no further effect.
+		 */
+		@Override
+		public void close() {
+			if (closed)
+				return;
+			closed = true;
+			version.release();
+		}
+	}
+}
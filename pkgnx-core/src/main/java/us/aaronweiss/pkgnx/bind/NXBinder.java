@@ -0,0 +1,335 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.bind;
+
+import javassist.CannotCompileException;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXNode;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Generates and caches an {@code NXMapper} for every type with {@code NXProperty} members. The generated mapper lives
+ * in the package of its type, so that it can assign package-private members, and visits the properties in the same
+ * order as the sorted children of a node, so binding an object reads each child at most once.
+ * <p>
+ * Bound members may be {@code long}, {@code int}, {@code short}, {@code byte}, {@code boolean}, {@code double} or
+ * {@code float} or their boxed types, {@code String}, {@code int[]} or {@code java.awt.Point} for vectors, or
+ * {@code NXNode} for the child itself. {@code Point} is only referenced by the generated code of a type which uses it,
+ * so binding does not otherwise load AWT.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.1
+ * @since 10/19/26
+ */
+public final class NXBinder {
+	private static final Logger logger = LoggerFactory.getLogger(NXBinder.class);
+	private static final String NODE = NXNode.class.getName();
+	private static final ClassValue<NXMapper<?>> mappers = new ClassValue<NXMapper<?>>() {
+		@Override
+		protected NXMapper<?> computeValue(Class<?> type) {
+			return generate(type);
+		}
+	};
+
+	private NXBinder() {
+		return;
+	}
+
+	/**
+	 * Gets the mapper for {@code type}, generating it on first use.
+	 *
+	 * @param type the type to bind to
+	 * @return the mapper for {@code type}
+	 * @throws NXException if {@code type} cannot be bound
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> NXMapper<T> mapper(Class<T> type) {
+		return (NXMapper<T>) mappers.get(type);
+	}
+
+	/**
+	 * Binds the children of {@code node} into a new object of type {@code type}.
+	 *
+	 * @param node the node to bind from
+	 * @param type the type to bind to
+	 * @return the bound object, or null if {@code node} is null
+	 * @throws NXException if {@code type} cannot be bound
+	 */
+	public static <T> T bind(NXNode node, Class<T> type) {
+		return mapper(type).map(node);
+	}
+
+	/**
+	 * Generates the mapper for {@code type}. Generation is serialized so that a mapper class is only ever defined once,
+	 * even when two threads race to compute the same mapper.
+	 */
+	private static synchronized NXMapper<?> generate(Class<?> type) {
+		if (type.isPrimitive() || type.isArray() || type.isInterface() || Modifier.isPrivate(type.getModifiers())
+				|| type.getClassLoader() == null)
+			throw new NXException("Cannot bind to " + type.getName() + ".");
+		String name = type.getName() + "$$NXMapper";
+		try {
+			Class<?> mapper;
+			try {
+				mapper = Class.forName(name, true, type.getClassLoader());
+			} catch (ClassNotFoundException e) {
+				mapper = define(type, name, properties(type));
+			}
+			return (NXMapper<?>) mapper.getDeclaredConstructor().newInstance();
+		} catch (CannotCompileException | NotFoundException | ReflectiveOperationException e) {
+			throw new NXException("Failed to generate a mapper for " + type.getName() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Compiles and loads the mapper for {@code type} next to it.
+	 */
+	private static Class<?> define(Class<?> type, String name, List<Property> properties)
+			throws CannotCompileException, NotFoundException {
+		ClassPool pool = new ClassPool(true);
+		pool.appendClassPath(new LoaderClassPath(type.getClassLoader()));
+		pool.appendClassPath(new ClassClassPath(NXBinder.class));
+		CtClass mapper = pool.makeClass(name, pool.get(NXMapper.class.getName()));
+		mapper.addConstructor(CtNewConstructor.defaultConstructor(mapper));
+		mapper.addMethod(CtNewMethod.make(bindSource(type, properties), mapper));
+		mapper.addMethod(CtNewMethod.make(mapSource(type), mapper));
+		try {
+			Class<?> ret = mapper.toClass(type);
+			logger.debug("Generated {} with {} properties.", name, properties.size());
+			return ret;
+		} finally {
+			mapper.detach();
+		}
+	}
+
+	/**
+	 * Builds the source of {@code bind}, which walks the children of the node and the properties, both sorted by name,
+	 * side by side. Names and values are read by index straight from the node table, so a child is only materialized
+	 * when it is bound as a node itself.
+	 */
+	private static String bindSource(Class<?> type, List<Property> properties) {
+		StringBuilder src = new StringBuilder();
+		src.append("public void bind(").append(NODE).append(" node, Object target) {\n");
+		src.append(type.getName()).append(" t = (").append(type.getName()).append(") target;\n");
+		src.append("us.aaronweiss.pkgnx.NXFile file = node.getFile();\n");
+		src.append("int i = (int) node.getFirstChildIndex();\n");
+		src.append("int end = i + node.getChildCount();\n");
+		src.append("String n = i < end ? file.getName(i) : null;\n");
+		src.append("int cmp = 0;\n");
+		for (Property property : properties) {
+			String name = literal(property.name);
+			src.append("while (n != null && (cmp = n.compareTo(").append(name).append(")) < 0) {\n");
+			src.append("i++;\n");
+			src.append("n = i < end ? file.getName(i) : null;\n");
+			src.append("}\n");
+			src.append("if (n != null && cmp == 0) {\n");
+			src.append(property.assign("t", property.convert("file", "i"))).append('\n');
+			src.append("}\n");
+		}
+		return src.append("}").toString();
+	}
+
+	/**
+	 * Builds the source of {@code map}, which constructs an object and binds it.
+	 */
+	private static String mapSource(Class<?> type) {
+		StringBuilder src = new StringBuilder();
+		src.append("public Object map(").append(NODE).append(" node) {\n");
+		src.append("if (node == null) return null;\n");
+		if (hasConstructor(type)) {
+			src.append(type.getName()).append(" t = new ").append(type.getName()).append("();\n");
+			src.append("bind(node, t);\n");
+			src.append("return t;\n");
+		} else {
+			src.append("throw new us.aaronweiss.pkgnx.NXException(\"").append(type.getName())
+					.append(" has no accessible no-argument constructor.\");\n");
+		}
+		return src.append("}").toString();
+	}
+
+	private static boolean hasConstructor(Class<?> type) {
+		if (Modifier.isAbstract(type.getModifiers())
+				|| (type.isMemberClass() && !Modifier.isStatic(type.getModifiers())))
+			return false;
+		try {
+			return !Modifier.isPrivate(type.getDeclaredConstructor().getModifiers());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Collects the properties of {@code type} and its superclasses, sorted by name.
+	 */
+	private static List<Property> properties(Class<?> type) {
+		List<Property> properties = new ArrayList<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				NXProperty annotation = field.getAnnotation(NXProperty.class);
+				if (annotation == null)
+					continue;
+				checkAccess(type, field);
+				if (Modifier.isFinal(field.getModifiers()))
+					throw new NXException("Cannot bind final field " + field + ".");
+				String name = annotation.value().isEmpty() ? field.getName() : annotation.value();
+				properties.add(new Property(name, field.getType(), field.getName(), false));
+			}
+			for (Method method : c.getDeclaredMethods()) {
+				NXProperty annotation = method.getAnnotation(NXProperty.class);
+				if (annotation == null)
+					continue;
+				checkAccess(type, method);
+				if (method.getParameterCount() != 1)
+					throw new NXException("Cannot bind " + method + ", which does not take one argument.");
+				String name = annotation.value();
+				if (name.isEmpty()) {
+					name = method.getName();
+					if (name.length() > 3 && name.startsWith("set"))
+						name = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+				}
+				properties.add(new Property(name, method.getParameterTypes()[0], method.getName(), true));
+			}
+		}
+		Collections.sort(properties, (a, b) -> a.name.compareTo(b.name));
+		for (int i = 1; i < properties.size(); i++)
+			if (properties.get(i - 1).name.equals(properties.get(i).name))
+				throw new NXException("More than one member of " + type.getName() + " binds " + properties.get(i).name
+						+ ".");
+		return properties;
+	}
+
+	/**
+	 * Ensures that {@code member} can be assigned from a class in the package of {@code type}.
+	 */
+	private static void checkAccess(Class<?> type, Member member) {
+		int modifiers = member.getModifiers();
+		if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers))
+			throw new NXException("Cannot bind static or private member " + member + ".");
+		if (!Modifier.isPublic(modifiers)
+				&& !Objects.equals(member.getDeclaringClass().getPackage(), type.getPackage()))
+			throw new NXException("Cannot bind " + member + " from outside its package.");
+	}
+
+	/**
+	 * Escapes {@code value} as a Java string literal.
+	 */
+	private static String literal(String value) {
+		StringBuilder ret = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\')
+				ret.append('\\').append(c);
+			else if (c < 0x20 || c > 0x7E)
+				ret.append(String.format("\\u%04x", (int) c));
+			else
+				ret.append(c);
+		}
+		return ret.append('"').toString();
+	}
+
+	/**
+	 * A bound member and the name of the child it is bound from.
+	 */
+	private static final class Property {
+		private final String name;
+		private final Class<?> type;
+		private final String member;
+		private final boolean setter;
+
+		private Property(String name, Class<?> type, String member, boolean setter) {
+			this.name = name;
+			this.type = type;
+			this.member = member;
+			this.setter = setter;
+		}
+
+		/**
+		 * Builds the statement assigning {@code value} to this member of {@code target}.
+		 */
+		private String assign(String target, String value) {
+			return setter ? target + "." + member + "(" + value + ");" : target + "." + member + " = " + value + ";";
+		}
+
+		/**
+		 * Builds the expression converting the node at {@code index} in {@code file} to the type of this member.
+		 */
+		private String convert(String file, String index) {
+			String at = file + ", " + index;
+			String asLong = "asLong(" + at + ")", asDouble = "asDouble(" + at + ")";
+			if (type == long.class)
+				return asLong;
+			else if (type == int.class)
+				return "(int) " + asLong;
+			else if (type == short.class)
+				return "(short) " + asLong;
+			else if (type == byte.class)
+				return "(byte) " + asLong;
+			else if (type == boolean.class)
+				return asLong + " != 0L";
+			else if (type == double.class)
+				return asDouble;
+			else if (type == float.class)
+				return "(float) " + asDouble;
+			else if (type == Long.class)
+				return "Long.valueOf(" + asLong + ")";
+			else if (type == Integer.class)
+				return "Integer.valueOf((int) " + asLong + ")";
+			else if (type == Short.class)
+				return "Short.valueOf((short) " + asLong + ")";
+			else if (type == Byte.class)
+				return "Byte.valueOf((byte) " + asLong + ")";
+			else if (type == Boolean.class)
+				return "Boolean.valueOf(" + asLong + " != 0L)";
+			else if (type == Double.class)
+				return "Double.valueOf(" + asDouble + ")";
+			else if (type == Float.class)
+				return "Float.valueOf((float) " + asDouble + ")";
+			else if (type == String.class)
+				return "asString(" + at + ")";
+			else if (type == int[].class)
+				return "asVector(" + at + ")";
+			else if (type.getName().equals("java.awt.Point"))
+				return "new java.awt.Point(asX(" + at + "), " + file + ".getY(" + index + ", 0))";
+			else if (type == NXNode.class)
+				return file + ".getNode(" + index + ")";
+			throw new NXException("Cannot bind " + name + " to unsupported type " + type.getName() + ".");
+		}
+	}
+}
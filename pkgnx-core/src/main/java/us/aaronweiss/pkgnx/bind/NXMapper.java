@@ -0,0 +1,214 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.bind;
+
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.nodes.NXDoubleNode;
+import us.aaronweiss.pkgnx.nodes.NXLongNode;
+import us.aaronweiss.pkgnx.nodes.NXPointNode;
+import us.aaronweiss.pkgnx.nodes.NXStringNode;
+import us.aaronweiss.pkgnx.util.NumberParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mapper copying the children of a node into an object of type {@code T}. Mappers are generated once per type by
+ * {@code NXBinder} and read every bound child in a single merge pass over the sorted children of the node, without
+ * reflection.
+ *
+ * @author Aaron Weiss
+ * @version 1.2.0
+ * @since 10/19/26
+ */
+public abstract class NXMapper<T> {
+	/**
+	 * Creates a new object of type {@code T} and binds the children of {@code node} into it.
+	 *
+	 * @param node the node to bind from
+	 * @return the bound object, or null if {@code node} is null
+	 * @throws NXException if a child cannot be converted to the type of its member, or {@code T} has no accessible
+	 *                     no-argument constructor
+	 */
+	public abstract T map(NXNode node);
+
+	/**
+	 * Binds the children of {@code node} into {@code target}. Members without a matching child are left untouched.
+	 *
+	 * @param node   the node to bind from
+	 * @param target the object to bind into
+	 * @throws NXException if a child cannot be converted to the type of its member
+	 */
+	public abstract void bind(NXNode node, T target);
+
+	/**
+	 * Maps every child of {@code parent}, in node table order.
+	 *
+	 * @param parent the parent of the nodes to bind from
+	 * @return the bound objects
+	 */
+	public List<T> mapChildren(NXNode parent) {
+		List<T> ret = new ArrayList<>(parent.getChildCount());
+		for (NXNode child : parent)
+			ret.add(map(child));
+		return ret;
+	}
+
+	/**
+	 * Converts {@code node} to a {@code long}, truncating doubles and parsing strings by the same rules as
+	 * {@code NXNode.getLong}, so that a decimal string is truncated as well.
+	 *
+	 * @param node the node to convert
+	 * @return the value of the node
+	 */
+	protected static long asLong(NXNode node) {
+		if (node instanceof NXLongNode)
+			return ((NXLongNode) node).getLong();
+		else if (node instanceof NXDoubleNode)
+			return (long) ((NXDoubleNode) node).getDouble();
+		else if (node instanceof NXStringNode)
+			try {
+				return NumberParser.parseLong(((NXStringNode) node).getString());
+			} catch (NumberFormatException e) {
+				// fall through to the error below
+			}
+		throw mismatch(node, "long");
+	}
+
+	/**
+	 * Converts {@code node} to a {@code double}, widening longs and parsing strings by the same rules as
+	 * {@code NXNode.getDouble}.
+	 *
+	 * @param node the node to convert
+	 * @return the value of the node
+	 */
+	protected static double asDouble(NXNode node) {
+		if (node instanceof NXDoubleNode)
+			return ((NXDoubleNode) node).getDouble();
+		else if (node instanceof NXLongNode)
+			return ((NXLongNode) node).getLong();
+		else if (node instanceof NXStringNode)
+			try {
+				return NumberParser.parseDouble(((NXStringNode) node).getString());
+			} catch (NumberFormatException e) {
+				// fall through to the error below
+			}
+		throw mismatch(node, "double");
+	}
+
+	/**
+	 * Converts {@code node} to a {@code String}, formatting numbers as {@code NXNode.getString} does.
+	 *
+	 * @param node the node to convert
+	 * @return the value of the node
+	 */
+	protected static String asString(NXNode node) {
+		if (node instanceof NXStringNode)
+			return ((NXStringNode) node).getString();
+		else if (node instanceof NXLongNode)
+			return Long.toString(((NXLongNode) node).getLong());
+		else if (node instanceof NXDoubleNode)
+			return Double.toString(((NXDoubleNode) node).getDouble());
+		throw mismatch(node, "String");
+	}
+
+	/**
+	 * Ensures that {@code node} is a vector.
+	 *
+	 * @param node the node to convert
+	 * @return the node as a vector
+	 */
+	protected static NXPointNode asPoint(NXNode node) {
+		if (node instanceof NXPointNode)
+			return (NXPointNode) node;
+		throw mismatch(node, "point");
+	}
+
+	/**
+	 * Converts the node at {@code index} to a {@code long} straight from its record, as {@code asLong} does. The node
+	 * is only materialized when the record cannot be read as a {@code long}, to report the mismatch.
+	 *
+	 * @param file  the file of the node
+	 * @param index the index of the node
+	 * @return the value of the node
+	 */
+	protected static long asLong(NXFile file, int index) {
+		long ret = file.getLong(index, Long.MIN_VALUE);
+		return ret != Long.MIN_VALUE ? ret : asLong(file.getNode(index));
+	}
+
+	/**
+	 * Converts the node at {@code index} to a {@code double} straight from its record, as {@code asDouble} does.
+	 *
+	 * @param file  the file of the node
+	 * @param index the index of the node
+	 * @return the value of the node
+	 */
+	protected static double asDouble(NXFile file, int index) {
+		double ret = file.getDouble(index, Double.NaN);
+		return !Double.isNaN(ret) ? ret : asDouble(file.getNode(index));
+	}
+
+	/**
+	 * Converts the node at {@code index} to a {@code String} straight from its record, as {@code asString} does.
+	 *
+	 * @param file  the file of the node
+	 * @param index the index of the node
+	 * @return the value of the node
+	 */
+	protected static String asString(NXFile file, int index) {
+		String ret = file.getString(index, null);
+		return ret != null ? ret : asString(file.getNode(index));
+	}
+
+	/**
+	 * Gets the x-coordinate of the vector at {@code index} straight from its record.
+	 *
+	 * @param file  the file of the node
+	 * @param index the index of the node
+	 * @return the x-coordinate of the node
+	 */
+	protected static int asX(NXFile file, int index) {
+		int ret = file.getX(index, Integer.MIN_VALUE);
+		return ret != Integer.MIN_VALUE ? ret : asPoint(file.getNode(index)).getX();
+	}
+
+	/**
+	 * Gets the vector at {@code index} straight from its record, as a new {@code int[]} of its coordinates.
+	 *
+	 * @param file  the file of the node
+	 * @param index the index of the node
+	 * @return the coordinates of the node
+	 */
+	protected static int[] asVector(NXFile file, int index) {
+		return new int[]{asX(file, index), file.getY(index, 0)};
+	}
+
+	private static NXException mismatch(NXNode node, String type) {
+		return new NXException("Cannot bind " + node.getClass().getSimpleName() + " " + node.getName() + " to " + type
+				+ ".");
+	}
+}
@@ -0,0 +1,395 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.index;
+
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+import us.aaronweiss.pkgnx.internal.NXTables;
+import us.aaronweiss.pkgnx.util.PairSort;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An inverted index from the contents of string values to the {@code NXStringNode}s holding them. Every distinct
+ * string value is broken into trigrams, and each trigram maps to the string indices containing it, which in turn map
+ * to the indices of the nodes with that value. Substring and prefix queries intersect the posting lists of the
+ * query's trigrams and verify only the surviving candidates. Matching is case-insensitive.
+ * <p/>
+ * An index can be saved as a sidecar file next to the {@code NXFile} and later memory-mapped instead of rebuilt.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class NXStringIndex {
+	/**
+	 * The file extension appended to the path of an {@code NXFile} to locate its string index.
+	 */
+	public static final String EXTENSION = ".sidx";
+	private static final int MAGIC = 0x5849534E;
+	private static final int GRAM = 3;
+
+	private final NXFile file;
+	private final LongBuffer grams;
+	private final IntBuffer gramStarts, postings;
+	private final IntBuffer valueIds, valueStarts, valueNodes;
+
+	private NXStringIndex(NXFile file, LongBuffer grams, IntBuffer gramStarts, IntBuffer postings,
+						  IntBuffer valueIds, IntBuffer valueStarts, IntBuffer valueNodes) {
+		this.file = file;
+		this.grams = grams;
+		this.gramStarts = gramStarts;
+		this.postings = postings;
+		this.valueIds = valueIds;
+		this.valueStarts = valueStarts;
+		this.valueNodes = valueNodes;
+	}
+
+	/**
+	 * Builds a new {@code NXStringIndex} over all of the string nodes in {@code file}.
+	 *
+	 * @param file the file to index
+	 * @return the built index
+	 */
+	public static NXStringIndex build(NXFile file) {
+		NXNodeTable table = file.getNodeTable();
+		NXTables tables = file.getTables();
+		int stringCount = (int) file.getHeader().getStringCount();
+
+		// group the string nodes by the index of their value
+		int[] counts = new int[stringCount];
+		for (int i = 0; i < table.size(); i++)
+			if (table.getType(i) == NXNodeTable.TYPE_STRING)
+				counts[(int) table.getStringIndex(i)]++;
+		int values = 0;
+		for (int count : counts)
+			if (count > 0)
+				values++;
+		int[] ids = new int[values], starts = new int[values + 1], slots = new int[stringCount];
+		for (int i = 0, v = 0; i < stringCount; i++) {
+			if (counts[i] > 0) {
+				ids[v] = i;
+				slots[i] = starts[v];
+				starts[v + 1] = starts[v] + counts[i];
+				v++;
+			}
+		}
+		int[] nodes = new int[starts[values]];
+		for (int i = 0; i < table.size(); i++)
+			if (table.getType(i) == NXNodeTable.TYPE_STRING)
+				nodes[slots[(int) table.getStringIndex(i)]++] = i;
+
+		// collect every (trigram, value) pair and sort them into posting lists
+		long[] keys = new long[Math.max(16, values * 4)];
+		int[] owners = new int[keys.length];
+		int pairs = 0;
+		for (int id : ids) {
+			String value = fold(tables.getString(id));
+			for (int i = 0; i + GRAM <= value.length(); i++) {
+				if (pairs == keys.length) {
+					keys = Arrays.copyOf(keys, pairs * 2);
+					owners = Arrays.copyOf(owners, pairs * 2);
+				}
+				keys[pairs] = gram(value, i);
+				owners[pairs++] = id;
+			}
+		}
+		PairSort.sort(keys, owners, pairs);
+		long[] gramKeys = new long[pairs];
+		int[] gramStarts = new int[pairs + 1], postings = new int[pairs];
+		int gramCount = 0, postingCount = 0;
+		for (int i = 0; i < pairs; i++) {
+			if (i > 0 && keys[i] == keys[i - 1] && owners[i] == owners[i - 1])
+				continue;
+			if (gramCount == 0 || keys[i] != gramKeys[gramCount - 1]) {
+				gramStarts[gramCount] = postingCount;
+				gramKeys[gramCount++] = keys[i];
+			}
+			postings[postingCount++] = owners[i];
+		}
+		gramStarts[gramCount] = postingCount;
+		return new NXStringIndex(file, LongBuffer.wrap(gramKeys, 0, gramCount).slice(),
+				IntBuffer.wrap(gramStarts, 0, gramCount + 1).slice(), IntBuffer.wrap(postings, 0, postingCount).slice(),
+				IntBuffer.wrap(ids), IntBuffer.wrap(starts), IntBuffer.wrap(nodes));
+	}
+
+	/**
+	 * Memory-maps a previously saved {@code NXStringIndex} for {@code file}.
+	 *
+	 * @param file the file the index was built from
+	 * @param path the path of the saved index
+	 * @return the mapped index
+	 * @throws IOException if something goes wrong in reading the index
+	 * @throws NXException if the index is invalid or out of date
+	 */
+	public static NXStringIndex load(NXFile file, Path path) throws IOException {
+		Sidecar sidecar = Sidecar.map(path, MAGIC, file);
+		return new NXStringIndex(file, sidecar.longs(0), sidecar.ints(1), sidecar.ints(2), sidecar.ints(3),
+				sidecar.ints(4), sidecar.ints(5));
+	}
+
+	/**
+	 * Opens the {@code NXStringIndex} for {@code file}, mapping the sidecar next to it if one is present and up to date
+	 * and otherwise building the index and saving it there.
+	 *
+	 * @param file the file to index
+	 * @return the index
+	 * @throws IOException if something goes wrong in reading or writing the index
+	 */
+	public static NXStringIndex open(NXFile file) throws IOException {
+		Path path = Paths.get(file.getFilePath() + EXTENSION);
+		if (Files.exists(path)) {
+			try {
+				return load(file, path);
+			} catch (NXException e) {
+				// the sidecar is stale or damaged, so fall through and rebuild it
+			}
+		}
+		NXStringIndex index = build(file);
+		index.save(path);
+		return index;
+	}
+
+	/**
+	 * Saves this index as a sidecar at the specified {@code path}.
+	 *
+	 * @param path the path to save to
+	 * @throws IOException if something goes wrong in writing the index
+	 */
+	public void save(Path path) throws IOException {
+		Sidecar.write(path, MAGIC, file, new Sidecar.Section(toArray(grams), grams.limit()),
+				section(gramStarts), section(postings), section(valueIds), section(valueStarts), section(valueNodes));
+	}
+
+	private static Sidecar.Section section(IntBuffer buf) {
+		int[] data = new int[buf.limit()];
+		buf.duplicate().get(data);
+		return new Sidecar.Section(data, data.length);
+	}
+
+	private static long[] toArray(LongBuffer buf) {
+		long[] data = new long[buf.limit()];
+		buf.duplicate().get(data);
+		return data;
+	}
+
+	/**
+	 * Gets the file this index was built from.
+	 *
+	 * @return the indexed file
+	 */
+	public NXFile getFile() {
+		return file;
+	}
+
+	/**
+	 * Finds the indices of all string nodes whose value contains {@code text}.
+	 *
+	 * @param text the text to search for
+	 * @return the sorted indices of the matching nodes
+	 */
+	public int[] findContaining(String text) {
+		String query = fold(text);
+		IntList matches = new IntList();
+		for (int id : candidates(query))
+			if (fold(file.getTables().getString(id)).contains(query))
+				addNodes(id, matches);
+		return matches.sorted();
+	}
+
+	/**
+	 * Finds the indices of all string nodes whose value starts with {@code text}.
+	 *
+	 * @param text the prefix to search for
+	 * @return the sorted indices of the matching nodes
+	 */
+	public int[] findPrefixed(String text) {
+		String query = fold(text);
+		IntList matches = new IntList();
+		for (int id : candidates(query))
+			if (fold(file.getTables().getString(id)).startsWith(query))
+				addNodes(id, matches);
+		return matches.sorted();
+	}
+
+	/**
+	 * Finds the indices of all string nodes whose value equals {@code text}, ignoring case.
+	 *
+	 * @param text the value to search for
+	 * @return the sorted indices of the matching nodes
+	 */
+	public int[] findEqual(String text) {
+		String query = fold(text);
+		IntList matches = new IntList();
+		for (int id : candidates(query))
+			if (fold(file.getTables().getString(id)).equals(query))
+				addNodes(id, matches);
+		return matches.sorted();
+	}
+
+	/**
+	 * Looks up the nodes at the specified {@code indices}.
+	 *
+	 * @param indices the indices of the nodes
+	 * @return the nodes
+	 */
+	public List<NXNode> getNodes(int[] indices) {
+		List<NXNode> ret = new ArrayList<>(indices.length);
+		for (int index : indices)
+			ret.add(file.getNode(index));
+		return ret;
+	}
+
+	/**
+	 * Finds the string indices that could contain {@code query}. Queries shorter than a trigram cannot be narrowed and
+	 * yield every indexed value.
+	 *
+	 * @param query the folded query
+	 * @return the candidate string indices
+	 */
+	private int[] candidates(String query) {
+		if (query.length() < GRAM) {
+			int[] all = new int[valueIds.limit()];
+			valueIds.duplicate().get(all);
+			return all;
+		}
+		int grams = query.length() - GRAM + 1;
+		int[] from = new int[grams], to = new int[grams];
+		int smallest = 0;
+		for (int i = 0; i < grams; i++) {
+			int g = search(gram(query, i));
+			if (g < 0)
+				return new int[0];
+			from[i] = gramStarts.get(g);
+			to[i] = gramStarts.get(g + 1);
+			if (to[i] - from[i] < to[smallest] - from[smallest])
+				smallest = i;
+		}
+		IntList ret = new IntList();
+		outer:
+		for (int p = from[smallest]; p < to[smallest]; p++) {
+			int id = postings.get(p);
+			for (int i = 0; i < grams; i++)
+				if (i != smallest && binarySearch(postings, from[i], to[i], id) < 0)
+					continue outer;
+			ret.add(id);
+		}
+		return ret.toArray();
+	}
+
+	/**
+	 * Adds the indices of the nodes with the string value {@code id} to {@code matches}.
+	 */
+	private void addNodes(int id, IntList matches) {
+		int v = binarySearch(valueIds, 0, valueIds.limit(), id);
+		for (int i = valueStarts.get(v); i < valueStarts.get(v + 1); i++)
+			matches.add(valueNodes.get(i));
+	}
+
+	/**
+	 * Finds the position of {@code key} in the trigram table.
+	 */
+	private int search(long key) {
+		int lo = 0, hi = grams.limit() - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			long k = grams.get(mid);
+			if (k < key)
+				lo = mid + 1;
+			else if (k > key)
+				hi = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	private static int binarySearch(IntBuffer buf, int from, int to, int key) {
+		int lo = from, hi = to - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int k = buf.get(mid);
+			if (k < key)
+				lo = mid + 1;
+			else if (k > key)
+				hi = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * Packs the trigram at {@code offset} in {@code value} into a {@code long}.
+	 */
+	private static long gram(String value, int offset) {
+		return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+	}
+
+	/**
+	 * Folds the case of {@code value} one character at a time so that its length is preserved.
+	 */
+	private static String fold(String value) {
+		if (value == null)
+			return "";
+		char[] chars = value.toCharArray();
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+		return new String(chars);
+	}
+
+	/**
+	 * A minimal growable list of {@code int}s.
+	 */
+	private static class IntList {
+		private int[] data = new int[16];
+		private int size;
+
+		private void add(int value) {
+			if (size == data.length)
+				data = Arrays.copyOf(data, size * 2);
+			data[size++] = value;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(data, size);
+		}
+
+		private int[] sorted() {
+			int[] ret = toArray();
+			Arrays.sort(ret);
+			return ret;
+		}
+	}
+}
@@ -0,0 +1,384 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.index;
+
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+import us.aaronweiss.pkgnx.internal.NXTables;
+import us.aaronweiss.pkgnx.util.PairSort;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A secondary index over the payloads of {@code NXLongNode}s and {@code NXDoubleNode}s, keyed by the name of the node
+ * and its value. For each indexed name, the index keeps a sorted primitive array of (value, node index) pairs, so that
+ * equality and range queries such as "every {@code level} between 100 and 120" are answered by binary search without
+ * constructing a single node. Long and double values are kept apart and queries consult both, coercing the bounds.
+ * <p/>
+ * An index can be saved as a sidecar file next to the {@code NXFile} and later memory-mapped instead of rebuilt.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.1
+ * @since 10/19/26
+ */
+public class NXValueIndex {
+	/**
+	 * The file extension appended to the path of an {@code NXFile} to locate its value index.
+	 */
+	public static final String EXTENSION = ".vidx";
+	private static final int MAGIC = 0x5849564E;
+	private static final int[] NO_SLOTS = new int[0];
+
+	private final NXFile file;
+	private final IntBuffer nameIds;
+	private final IntBuffer longStarts, longNodes, doubleStarts, doubleNodes;
+	private final LongBuffer longKeys, doubleKeys;
+	private volatile Map<String, int[]> slots;
+
+	private NXValueIndex(NXFile file, IntBuffer nameIds, IntBuffer longStarts, LongBuffer longKeys, IntBuffer longNodes,
+						 IntBuffer doubleStarts, LongBuffer doubleKeys, IntBuffer doubleNodes) {
+		this.file = file;
+		this.nameIds = nameIds;
+		this.longStarts = longStarts;
+		this.longKeys = longKeys;
+		this.longNodes = longNodes;
+		this.doubleStarts = doubleStarts;
+		this.doubleKeys = doubleKeys;
+		this.doubleNodes = doubleNodes;
+	}
+
+	/**
+	 * Builds a new {@code NXValueIndex} over the long and double nodes in {@code file} with one of the specified
+	 * {@code names}, or over all of them if no names are given.
+	 *
+	 * @param file  the file to index
+	 * @param names the names of the nodes to index
+	 * @return the built index
+	 */
+	public static NXValueIndex build(NXFile file, String... names) {
+		NXNodeTable table = file.getNodeTable();
+		NXTables tables = file.getTables();
+		Set<String> wanted = new HashSet<>(Arrays.asList(names));
+
+		// decide which names are wanted, decoding each name only once
+		byte[] accepted = new byte[(int) file.getHeader().getStringCount()];
+		int[] counts = new int[accepted.length];
+		int longs = 0, doubles = 0;
+		for (int i = 0; i < table.size(); i++) {
+			int type = table.getType(i);
+			if (type != NXNodeTable.TYPE_LONG && type != NXNodeTable.TYPE_DOUBLE)
+				continue;
+			int name = (int) table.getNameIndex(i);
+			if (accepted[name] == 0)
+				accepted[name] = (byte) (wanted.isEmpty() || wanted.contains(tables.getString(name)) ? 1 : 2);
+			if (accepted[name] == 1) {
+				counts[name]++;
+				if (type == NXNodeTable.TYPE_LONG)
+					longs++;
+				else
+					doubles++;
+			}
+		}
+		int nameCount = 0;
+		for (int count : counts)
+			if (count > 0)
+				nameCount++;
+		int[] ids = new int[nameCount], slotOf = new int[accepted.length];
+		for (int i = 0, s = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				slotOf[i] = s;
+				ids[s++] = i;
+			}
+		}
+
+		// bucket the pairs by name, then sort each bucket by value
+		int[] longStarts = new int[nameCount + 1], doubleStarts = new int[nameCount + 1];
+		for (int i = 0; i < table.size(); i++) {
+			int type = table.getType(i);
+			if (type != NXNodeTable.TYPE_LONG && type != NXNodeTable.TYPE_DOUBLE)
+				continue;
+			int name = (int) table.getNameIndex(i);
+			if (accepted[name] == 1)
+				(type == NXNodeTable.TYPE_LONG ? longStarts : doubleStarts)[slotOf[name] + 1]++;
+		}
+		for (int s = 0; s < nameCount; s++) {
+			longStarts[s + 1] += longStarts[s];
+			doubleStarts[s + 1] += doubleStarts[s];
+		}
+		long[] longKeys = new long[longs], doubleKeys = new long[doubles];
+		int[] longNodes = new int[longs], doubleNodes = new int[doubles];
+		int[] longFill = Arrays.copyOf(longStarts, nameCount), doubleFill = Arrays.copyOf(doubleStarts, nameCount);
+		for (int i = 0; i < table.size(); i++) {
+			int type = table.getType(i);
+			if (type != NXNodeTable.TYPE_LONG && type != NXNodeTable.TYPE_DOUBLE)
+				continue;
+			int name = (int) table.getNameIndex(i);
+			if (accepted[name] != 1)
+				continue;
+			if (type == NXNodeTable.TYPE_LONG) {
+				int at = longFill[slotOf[name]]++;
+				longKeys[at] = table.getLong(i);
+				longNodes[at] = i;
+			} else {
+				int at = doubleFill[slotOf[name]]++;
+				doubleKeys[at] = sortable(table.getDouble(i));
+				doubleNodes[at] = i;
+			}
+		}
+		for (int s = 0; s < nameCount; s++) {
+			PairSort.sort(longKeys, longNodes, longStarts[s], longStarts[s + 1]);
+			PairSort.sort(doubleKeys, doubleNodes, doubleStarts[s], doubleStarts[s + 1]);
+		}
+		return new NXValueIndex(file, IntBuffer.wrap(ids), IntBuffer.wrap(longStarts), LongBuffer.wrap(longKeys),
+				IntBuffer.wrap(longNodes), IntBuffer.wrap(doubleStarts), LongBuffer.wrap(doubleKeys),
+				IntBuffer.wrap(doubleNodes));
+	}
+
+	/**
+	 * Memory-maps a previously saved {@code NXValueIndex} for {@code file}.
+	 *
+	 * @param file the file the index was built from
+	 * @param path the path of the saved index
+	 * @return the mapped index
+	 * @throws IOException if something goes wrong in reading the index
+	 * @throws NXException if the index is invalid or out of date
+	 */
+	public static NXValueIndex load(NXFile file, Path path) throws IOException {
+		Sidecar sidecar = Sidecar.map(path, MAGIC, file);
+		return new NXValueIndex(file, sidecar.ints(0), sidecar.ints(1), sidecar.longs(2), sidecar.ints(3),
+				sidecar.ints(4), sidecar.longs(5), sidecar.ints(6));
+	}
+
+	/**
+	 * Opens the {@code NXValueIndex} of every long and double node in {@code file}, mapping the sidecar next to it if
+	 * one is present and up to date and otherwise building the index and saving it there.
+	 *
+	 * @param file the file to index
+	 * @return the index
+	 * @throws IOException if something goes wrong in reading or writing the index
+	 */
+	public static NXValueIndex open(NXFile file) throws IOException {
+		Path path = Paths.get(file.getFilePath() + EXTENSION);
+		if (Files.exists(path)) {
+			try {
+				return load(file, path);
+			} catch (NXException e) {
+				// the sidecar is stale or damaged, so fall through and rebuild it
+			}
+		}
+		NXValueIndex index = build(file);
+		index.save(path);
+		return index;
+	}
+
+	/**
+	 * Saves this index as a sidecar at the specified {@code path}.
+	 *
+	 * @param path the path to save to
+	 * @throws IOException if something goes wrong in writing the index
+	 */
+	public void save(Path path) throws IOException {
+		Sidecar.write(path, MAGIC, file, section(nameIds), section(longStarts), section(longKeys),
+				section(longNodes), section(doubleStarts), section(doubleKeys), section(doubleNodes));
+	}
+
+	private static Sidecar.Section section(IntBuffer buf) {
+		int[] data = new int[buf.limit()];
+		buf.duplicate().get(data);
+		return new Sidecar.Section(data, data.length);
+	}
+
+	private static Sidecar.Section section(LongBuffer buf) {
+		long[] data = new long[buf.limit()];
+		buf.duplicate().get(data);
+		return new Sidecar.Section(data, data.length);
+	}
+
+	/**
+	 * Gets the file this index was built from.
+	 *
+	 * @return the indexed file
+	 */
+	public NXFile getFile() {
+		return file;
+	}
+
+	/**
+	 * Finds the indices of all indexed nodes named {@code name} with the value {@code value}.
+	 *
+	 * @param name  the name of the nodes
+	 * @param value the value to find
+	 * @return the sorted indices of the matching nodes
+	 */
+	public int[] findEqual(String name, long value) {
+		return findRange(name, value, value);
+	}
+
+	/**
+	 * Finds the indices of all indexed nodes named {@code name} with the value {@code value}.
+	 *
+	 * @param name  the name of the nodes
+	 * @param value the value to find
+	 * @return the sorted indices of the matching nodes
+	 */
+	public int[] findEqual(String name, double value) {
+		return findRange(name, value, value);
+	}
+
+	/**
+	 * Finds the indices of all indexed nodes named {@code name} with a value between {@code min} and {@code max},
+	 * inclusive.
+	 *
+	 * @param name the name of the nodes
+	 * @param min  the lowest value to find
+	 * @param max  the highest value to find
+	 * @return the sorted indices of the matching nodes
+	 */
+	public int[] findRange(String name, long min, long max) {
+		return find(name, min, max, sortable((double) min), sortable((double) max));
+	}
+
+	/**
+	 * Finds the indices of all indexed nodes named {@code name} with a value between {@code min} and {@code max},
+	 * inclusive.
+	 *
+	 * @param name the name of the nodes
+	 * @param min  the lowest value to find
+	 * @param max  the highest value to find
+	 * @return the sorted indices of the matching nodes
+	 */
+	public int[] findRange(String name, double min, double max) {
+		double low = Math.ceil(min), high = Math.floor(max);
+		long longMin = low <= Long.MIN_VALUE ? Long.MIN_VALUE : (long) low;
+		long longMax = high >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) high;
+		if (Double.isNaN(min) || Double.isNaN(max) || low > high) {
+			longMin = 1;
+			longMax = 0;
+		}
+		return find(name, longMin, longMax, sortable(min), sortable(max));
+	}
+
+	/**
+	 * Collects the nodes named {@code name} in the long range and double range given.
+	 */
+	private int[] find(String name, long longMin, long longMax, long doubleMin, long doubleMax) {
+		int total = 0;
+		int[] nameSlots = slotsFor(name);
+		int[][] ranges = new int[nameSlots.length][4];
+		for (int i = 0; i < nameSlots.length; i++) {
+			int s = nameSlots[i];
+			int[] range = ranges[i];
+			if (longMin <= longMax) {
+				range[0] = lowerBound(longKeys, longStarts.get(s), longStarts.get(s + 1), longMin);
+				range[1] = upperBound(longKeys, range[0], longStarts.get(s + 1), longMax);
+			}
+			if (doubleMin <= doubleMax) {
+				range[2] = lowerBound(doubleKeys, doubleStarts.get(s), doubleStarts.get(s + 1), doubleMin);
+				range[3] = upperBound(doubleKeys, range[2], doubleStarts.get(s + 1), doubleMax);
+			}
+			total += range[1] - range[0] + range[3] - range[2];
+		}
+		int[] ret = new int[total];
+		int at = 0;
+		for (int[] range : ranges) {
+			for (int i = range[0]; i < range[1]; i++)
+				ret[at++] = longNodes.get(i);
+			for (int i = range[2]; i < range[3]; i++)
+				ret[at++] = doubleNodes.get(i);
+		}
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	/**
+	 * Gets the slots of the string indices spelling {@code name}, decoding the indexed names on first use.
+	 */
+	private int[] slotsFor(String name) {
+		Map<String, int[]> map = slots;
+		if (map == null) {
+			Map<String, int[]> built = new HashMap<>();
+			for (int s = 0; s < nameIds.limit(); s++) {
+				String n = file.getTables().getString(nameIds.get(s));
+				int[] existing = built.get(n);
+				int[] next = existing == null ? new int[1] : Arrays.copyOf(existing, existing.length + 1);
+				next[next.length - 1] = s;
+				built.put(n, next);
+			}
+			slots = map = Collections.unmodifiableMap(built);
+		}
+		int[] ret = map.get(name);
+		return ret == null ? NO_SLOTS : ret;
+	}
+
+	/**
+	 * Finds the first position in {@code [from, to)} whose key is at least {@code key}.
+	 */
+	private static int lowerBound(LongBuffer keys, int from, int to, long key) {
+		int lo = from, hi = to;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys.get(mid) < key)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Finds the first position in {@code [from, to)} whose key is greater than {@code key}.
+	 */
+	private static int upperBound(LongBuffer keys, int from, int to, long key) {
+		int lo = from, hi = to;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys.get(mid) <= key)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Maps a {@code double} onto a {@code long} with the same ordering, with {@code -0.0} mapped together with
+	 * {@code 0.0} so that either finds both.
+	 */
+	private static long sortable(double value) {
+		long bits = Double.doubleToLongBits(value == 0 ? 0.0 : value);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.index;
+
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory-mappable file of {@code int} and {@code long} arrays stored next to an {@code NXFile}. The header records
+ * the size, modification time and table counts of the source file so that stale sidecars can be detected when they are
+ * mapped. Sidecars are written to a temporary file and moved into place, so that one which is still mapped is never
+ * truncated underneath its reader.
+ *
+ * @author Aaron Weiss
+ * @version 1.1.0
+ * @since 10/19/26
+ */
+class Sidecar {
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 48;
+	private static final int SECTION_SIZE = 16;
+	private final ByteBuffer buf;
+	private final int sectionCount;
+
+	private Sidecar(ByteBuffer buf) {
+		this.buf = buf.order(ByteOrder.LITTLE_ENDIAN);
+		this.sectionCount = buf.getInt(32);
+	}
+
+	/**
+	 * Writes a sidecar to the specified {@code path}.
+	 *
+	 * @param path     the path to write to
+	 * @param magic    the magic number identifying the kind of sidecar
+	 * @param source   the file the sidecar describes
+	 * @param sections the arrays to store
+	 * @throws IOException if something goes wrong in writing the file
+	 */
+	static void write(Path path, int magic, NXFile source, Section... sections) throws IOException {
+		ByteBuffer out = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		Path absolute = path.toAbsolutePath();
+		Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				writeTo(channel, out, magic, source, sections);
+			}
+			Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static void writeTo(FileChannel channel, ByteBuffer out, int magic, NXFile source, Section... sections)
+			throws IOException {
+		out.putInt(magic).putInt(VERSION).putLong(sourceSize(source));
+		out.putLong(source.getHeader().getNodeCount()).putLong(source.getHeader().getStringCount());
+		out.putInt(sections.length).putInt(0).putLong(sourceTime(source));
+		for (Section section : sections)
+			out.putInt(section.width()).putInt(0).putLong(section.length);
+		for (Section section : sections) {
+			if (out.remaining() < 8)
+				flush(channel, out);
+			while ((channel.position() + out.position()) % 8 != 0)
+				out.put((byte) 0);
+			for (int i = 0; i < section.length; i++) {
+				if (out.remaining() < 8)
+					flush(channel, out);
+				if (section.longs != null)
+					out.putLong(section.longs[i]);
+				else
+					out.putInt(section.ints[i]);
+			}
+		}
+		flush(channel, out);
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer out) throws IOException {
+		out.flip();
+		while (out.hasRemaining())
+			channel.write(out);
+		out.clear();
+	}
+
+	/**
+	 * Maps the sidecar at the specified {@code path}.
+	 *
+	 * @param path   the path of the sidecar
+	 * @param magic  the expected magic number
+	 * @param source the file the sidecar should describe
+	 * @return the mapped sidecar
+	 * @throws IOException if something goes wrong in reading the file
+	 * @throws NXException if the sidecar is of the wrong kind or out of date
+	 */
+	static Sidecar map(Path path, int magic, NXFile source) throws IOException {
+		MappedByteBuffer buf;
+		try (FileChannel channel = FileChannel.open(path)) {
+			buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		buf.order(ByteOrder.LITTLE_ENDIAN);
+		if (buf.capacity() < HEADER_SIZE || buf.getInt(0) != magic || buf.getInt(4) != VERSION)
+			throw new NXException("Cannot read index " + path + ". Invalid format or version.");
+		if (buf.getLong(8) != sourceSize(source) || buf.getLong(16) != source.getHeader().getNodeCount()
+				|| buf.getLong(24) != source.getHeader().getStringCount() || buf.getLong(40) != sourceTime(source))
+			throw new NXException("Index " + path + " is out of date with " + source.getFilePath());
+		int sectionCount = buf.getInt(32);
+		if (sectionCount < 0 || HEADER_SIZE + (long) sectionCount * SECTION_SIZE > buf.capacity())
+			throw new NXException("Cannot read index " + path + ". It is truncated.");
+		return new Sidecar(buf);
+	}
+
+	/**
+	 * Gets the size of the source file, used to detect stale sidecars.
+	 */
+	private static long sourceSize(NXFile source) throws IOException {
+		return Files.size(Paths.get(source.getFilePath()));
+	}
+
+	/**
+	 * Gets the modification time of the source file, used to detect sidecars made stale by a change of the same size.
+	 */
+	private static long sourceTime(NXFile source) throws IOException {
+		return Files.getLastModifiedTime(Paths.get(source.getFilePath())).toMillis();
+	}
+
+	/**
+	 * Locates the data of a section.
+	 *
+	 * @param section the index of the section
+	 * @param width   the expected element width
+	 * @return a buffer positioned over the section's data
+	 * @throws NXException if the section is missing or runs past the end of the sidecar
+	 */
+	private ByteBuffer section(int section, int width) {
+		if (section >= sectionCount)
+			throw new NXException("Index is missing section " + section);
+		long offset = HEADER_SIZE + (long) sectionCount * SECTION_SIZE;
+		for (int i = 0; i <= section; i++) {
+			offset = (offset + 7) & ~7L;
+			int w = buf.getInt(HEADER_SIZE + i * SECTION_SIZE);
+			long length = buf.getLong(HEADER_SIZE + i * SECTION_SIZE + 8);
+			if (length < 0 || offset + length * w > buf.capacity())
+				throw new NXException("Index section " + i + " runs past the end of the index.");
+			if (i == section) {
+				if (w != width)
+					throw new NXException("Index section " + section + " has unexpected width " + w);
+				ByteBuffer dup = buf.duplicate();
+				dup.position((int) offset).limit((int) (offset + length * w));
+				return dup.slice().order(ByteOrder.LITTLE_ENDIAN);
+			}
+			offset += length * w;
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Gets a section of {@code long}s.
+	 *
+	 * @param section the index of the section
+	 * @return a view of the section
+	 */
+	LongBuffer longs(int section) {
+		return section(section, 8).asLongBuffer();
+	}
+
+	/**
+	 * Gets a section of {@code int}s.
+	 *
+	 * @param section the index of the section
+	 * @return a view of the section
+	 */
+	IntBuffer ints(int section) {
+		return section(section, 4).asIntBuffer();
+	}
+
+	/**
+	 * A primitive array to be written as a section of a sidecar.
+	 */
+	static class Section {
+		private final long[] longs;
+		private final int[] ints;
+		private final int length;
+
+		Section(long[] longs, int length) {
+			this.longs = longs;
+			this.ints = null;
+			this.length = length;
+		}
+
+		Section(int[] ints, int length) {
+			this.longs = null;
+			this.ints = ints;
+			this.length = length;
+		}
+
+		private int width() {
+			return longs != null ? 8 : 4;
+		}
+	}
+}
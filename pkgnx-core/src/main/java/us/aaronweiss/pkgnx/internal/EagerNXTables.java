@@ -26,13 +26,11 @@ package us.aaronweiss.pkgnx.internal;
 import io.netty.buffer.ByteBuf;
 import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
 
-import java.awt.image.BufferedImage;
-
 /**
  * An eager-loaded set of data tables bound to an {@code NXFile}.
  *
  * @author Aaron Weiss
- * @version 2.0.0
+ * @version 3.2.0
  * @since 6/26/13
  */
 public class EagerNXTables extends NXTables {
@@ -75,9 +73,21 @@ public class EagerNXTables extends NXTables {
 	}
 
 	@Override
-	public BufferedImage getImage(long index, int width, int height) {
+	public byte[] getAudio(long index, long length) {
+		checkIndex(index);
+		return audioBufs[(int) index].read(length);
+	}
+
+	@Override
+	public byte[] getPixels(long index, int width, int height) {
+		checkIndex(index);
+		return bitmaps[(int) index].getPixels(width, height);
+	}
+
+	@Override
+	public byte[] getCompressedBitmap(long index) {
 		checkIndex(index);
-		return bitmaps[(int) index].getImage(width, height);
+		return bitmaps[(int) index].getCompressed();
 	}
 
 	@Override
@@ -85,4 +95,24 @@ public class EagerNXTables extends NXTables {
 		checkIndex(index);
 		return strings[(int) index];
 	}
+
+	@Override
+	public int getLoadedStringCount() {
+		return strings.length;
+	}
+
+	@Override
+	public int getLoadedAudioCount() {
+		int count = 0;
+		for (AudioBuf audioBuf : audioBufs)
+			if (audioBuf.isLoaded())
+				count++;
+		return count;
+	}
+
+	@Override
+	public void clearCaches() {
+		for (AudioBuf audioBuf : audioBufs)
+			audioBuf.release();
+	}
 }
@@ -25,21 +25,24 @@
 package us.aaronweiss.pkgnx.internal;
 
 import io.netty.buffer.ByteBuf;
+import us.aaronweiss.pkgnx.metrics.CacheStats;
+import us.aaronweiss.pkgnx.metrics.NXMetrics;
 import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
 
-import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 /**
  * A lazy-loaded set of data tables bound to an {@code NXFile}.
  *
  * @author Aaron Weiss
- * @version 1.0.0
+ * @version 2.2.0
  * @since 1/21/14
  */
 public class LazyNXTables extends NXTables {
 	private final AudioBuf[] audioBufs;
 	private final Bitmap[] bitmaps;
 	private final String[] strings;
+	private final CacheStats stringStats = new CacheStats();
 	private final NXHeader header;
 	private final SeekableLittleEndianAccessor slea;
 
@@ -67,15 +70,43 @@ public class LazyNXTables extends NXTables {
 	}
 
 	@Override
-	public BufferedImage getImage(long index, int width, int height) {
+	public byte[] getAudio(long index, long length) {
+		checkIndex(index);
+		try {
+			slea.mark();
+			slea.seek(header.getSoundOffset() + index * 8);
+			slea.seek(slea.getLong());
+			return slea.getBytes((int) length);
+		} finally {
+			slea.reset();
+		}
+	}
+
+	@Override
+	public byte[] getPixels(long index, int width, int height) {
 		checkIndex(index);
 		Bitmap ret = bitmaps[(int) index];
 		if (ret != null)
-			return ret.getImage(width, height);
+			return ret.getPixels(width, height);
 		try {
 			slea.mark();
 			slea.seek(header.getBitmapOffset() + index * 8);
-			return (bitmaps[(int) index] = new Bitmap(slea)).getImage(width, height);
+			return (bitmaps[(int) index] = new Bitmap(slea)).getPixels(width, height);
+		} finally {
+			slea.reset();
+		}
+	}
+
+	@Override
+	public byte[] getCompressedBitmap(long index) {
+		checkIndex(index);
+		Bitmap ret = bitmaps[(int) index];
+		if (ret != null)
+			return ret.getCompressed();
+		try {
+			slea.mark();
+			slea.seek(header.getBitmapOffset() + index * 8);
+			return (bitmaps[(int) index] = new Bitmap(slea)).getCompressed();
 		} finally {
 			slea.reset();
 		}
@@ -85,8 +116,12 @@ public class LazyNXTables extends NXTables {
 	public String getString(long index) {
 		checkIndex(index);
 		String ret = strings[(int) index];
-		if (ret != null)
+		if (ret != null) {
+			stringStats.hit();
 			return ret;
+		}
+		stringStats.miss();
+		long start = NXMetrics.start();
 		try {
 			slea.mark();
 			slea.seek(header.getStringOffset() + index * 8);
@@ -94,6 +129,37 @@ public class LazyNXTables extends NXTables {
 			return (strings[(int) index] = slea.getUTFString());
 		} finally {
 			slea.reset();
+			NXMetrics.stop(NXMetrics.STRING_DECODE, start);
 		}
 	}
+
+	@Override
+	public int getLoadedStringCount() {
+		int count = 0;
+		for (String string : strings)
+			if (string != null)
+				count++;
+		return count;
+	}
+
+	@Override
+	public int getLoadedAudioCount() {
+		int count = 0;
+		for (AudioBuf audioBuf : audioBufs)
+			if (audioBuf != null && audioBuf.isLoaded())
+				count++;
+		return count;
+	}
+
+	@Override
+	public CacheStats getStringCacheStats() {
+		return stringStats;
+	}
+
+	@Override
+	public void clearCaches() {
+		Arrays.fill(audioBufs, null);
+		Arrays.fill(bitmaps, null);
+		Arrays.fill(strings, null);
+	}
 }
@@ -27,11 +27,15 @@ import us.aaronweiss.pkgnx.NXException;
 import us.aaronweiss.pkgnx.NXFile;
 import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
 /**
  * The file header for all NX files.
  *
  * @author Aaron Weiss
- * @version 1.0.0
+ * @version 1.1.0
  * @since 5/26/13
  */
 public class NXHeader {
@@ -40,6 +44,11 @@ public class NXHeader {
 	 */
 	public static final String MAGIC = "PKG4";
 
+	/**
+	 * The size of the header in bytes.
+	 */
+	public static final int SIZE = 52;
+
 	private final NXFile file;
 	private final String magic;
 	private final long nodeCount, nodeOffset;
@@ -68,6 +77,31 @@ public class NXHeader {
 		soundOffset = slea.getLong();
 	}
 
+	/**
+	 * Encodes a header with the specified section counts and offsets.
+	 *
+	 * @param nodeCount    total number of nodes
+	 * @param nodeOffset   offset of the node block
+	 * @param stringCount  total number of strings
+	 * @param stringOffset offset of the string offset table
+	 * @param bitmapCount  total number of bitmaps
+	 * @param bitmapOffset offset of the bitmap offset table
+	 * @param soundCount   total number of sounds
+	 * @param soundOffset  offset of the sound offset table
+	 * @return the encoded header, ready to be written
+	 */
+	public static ByteBuffer encode(long nodeCount, long nodeOffset, long stringCount, long stringOffset,
+									long bitmapCount, long bitmapOffset, long soundCount, long soundOffset) {
+		ByteBuffer buf = ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		buf.put(MAGIC.getBytes(StandardCharsets.US_ASCII));
+		buf.putInt((int) nodeCount).putLong(nodeOffset);
+		buf.putInt((int) stringCount).putLong(stringOffset);
+		buf.putInt((int) bitmapCount).putLong(bitmapOffset);
+		buf.putInt((int) soundCount).putLong(soundOffset);
+		buf.flip();
+		return buf;
+	}
+
 	/**
 	 * Gets the {@code EagerNXFile} that the header was read from.
 	 *
@@ -0,0 +1,280 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.internal;
+
+import io.netty.buffer.ByteBuf;
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Direct access to the raw node records of an {@code NXFile}. Every read is absolute, so records can be inspected
+ * by index without constructing an {@code NXNode} or disturbing the position of the accessor.
+ *
+ * @author Aaron Weiss
+ * @version 1.1.0
+ * @since 10/19/26
+ */
+public class NXNodeTable {
+	public static final int TYPE_NULL = 0;
+	public static final int TYPE_LONG = 1;
+	public static final int TYPE_DOUBLE = 2;
+	public static final int TYPE_STRING = 3;
+	public static final int TYPE_POINT = 4;
+	public static final int TYPE_BITMAP = 5;
+	public static final int TYPE_AUDIO = 6;
+
+	private final SeekableLittleEndianAccessor slea;
+	private final long nodeOffset;
+	private final int nodeCount;
+
+	/**
+	 * Creates a new {@code NXNodeTable}.
+	 *
+	 * @param header the header of the {@code NXFile}
+	 * @param slea   the accessor to read from
+	 */
+	public NXNodeTable(NXHeader header, SeekableLittleEndianAccessor slea) {
+		if (header.getNodeCount() > Integer.MAX_VALUE)
+			throw new NXException("pkgnx cannot support node counts over " + Integer.MAX_VALUE);
+		this.slea = slea;
+		this.nodeOffset = header.getNodeOffset();
+		this.nodeCount = (int) header.getNodeCount();
+	}
+
+	/**
+	 * Creates a {@code NXNodeTable} of {@code nodeCount} records which are not read from a mapping, for views that
+	 * override every accessor.
+	 *
+	 * @param nodeCount the number of nodes in the table
+	 */
+	protected NXNodeTable(int nodeCount) {
+		this.slea = null;
+		this.nodeOffset = 0;
+		this.nodeCount = nodeCount;
+	}
+
+	/**
+	 * Encodes a node record into {@code out}, which must be little endian. The 8-byte payload is laid out as by
+	 * {@code payload(int, int)} for strings, points, bitmaps and audio, or is the raw bits of a long or double.
+	 *
+	 * @param out        the buffer to write to
+	 * @param name       the string index of the node's name
+	 * @param firstChild the index of the node's first child
+	 * @param childCount the number of children
+	 * @param type       the type of the node
+	 * @param payload    the node's payload
+	 */
+	public static void encode(ByteBuffer out, long name, long firstChild, int childCount, int type, long payload) {
+		out.putInt((int) name).putInt((int) firstChild).putShort((short) childCount).putShort((short) type);
+		out.putLong(payload);
+	}
+
+	/**
+	 * Packs two 32-bit halves into an 8-byte payload, such as a point or the index and length of audio.
+	 *
+	 * @param low  the first four bytes of the payload
+	 * @param high the last four bytes of the payload
+	 * @return the packed payload
+	 */
+	public static long payload(int low, int high) {
+		return (low & 0xFFFFFFFFL) | ((long) high << 32);
+	}
+
+	/**
+	 * Packs the payload of a bitmap node.
+	 *
+	 * @param bitmap the bitmap index
+	 * @param width  the width of the bitmap
+	 * @param height the height of the bitmap
+	 * @return the packed payload
+	 */
+	public static long bitmapPayload(long bitmap, int width, int height) {
+		return (bitmap & 0xFFFFFFFFL) | ((long) (width & 0xFFFF) << 32) | ((long) (height & 0xFFFF) << 48);
+	}
+
+	/**
+	 * Gets the number of nodes in the table.
+	 *
+	 * @return total number of nodes
+	 */
+	public int size() {
+		return nodeCount;
+	}
+
+	/**
+	 * Gets the buffer offset of the record for the node at {@code index}.
+	 *
+	 * @param index the index of the node
+	 * @return the offset of the node's record
+	 */
+	private int offset(int index) {
+		long offset = nodeOffset + (long) index * NXNode.NODE_SIZE;
+		if (offset > Integer.MAX_VALUE)
+			throw new NXException("Cannot read node (" + index + ") due to limitations with ByteBuf.");
+		return (int) offset;
+	}
+
+	/**
+	 * Gets the string table index of the name of a node.
+	 *
+	 * @param index the index of the node
+	 * @return the name's string index
+	 */
+	public long getNameIndex(int index) {
+		return slea.getBuf().getUnsignedInt(offset(index));
+	}
+
+	/**
+	 * Gets the index of the first child of a node.
+	 *
+	 * @param index the index of the node
+	 * @return first child node index
+	 */
+	public long getFirstChildIndex(int index) {
+		return slea.getBuf().getUnsignedInt(offset(index) + 4);
+	}
+
+	/**
+	 * Gets the number of children of a node.
+	 *
+	 * @param index the index of the node
+	 * @return number of child nodes
+	 */
+	public int getChildCount(int index) {
+		return slea.getBuf().getUnsignedShort(offset(index) + 8);
+	}
+
+	/**
+	 * Gets the type of a node, being one of the {@code TYPE_} constants.
+	 *
+	 * @param index the index of the node
+	 * @return the node's type
+	 */
+	public int getType(int index) {
+		return slea.getBuf().getUnsignedShort(offset(index) + 10);
+	}
+
+	/**
+	 * Gets the payload of a {@code TYPE_LONG} node.
+	 *
+	 * @param index the index of the node
+	 * @return the node's value
+	 */
+	public long getLong(int index) {
+		return slea.getBuf().getLong(offset(index) + 12);
+	}
+
+	/**
+	 * Gets the payload of a {@code TYPE_DOUBLE} node.
+	 *
+	 * @param index the index of the node
+	 * @return the node's value
+	 */
+	public double getDouble(int index) {
+		return slea.getBuf().getDouble(offset(index) + 12);
+	}
+
+	/**
+	 * Gets the string table index of the payload of a {@code TYPE_STRING} node.
+	 *
+	 * @param index the index of the node
+	 * @return the value's string index
+	 */
+	public long getStringIndex(int index) {
+		return slea.getBuf().getUnsignedInt(offset(index) + 12);
+	}
+
+	/**
+	 * Gets the x-coordinate of the payload of a {@code TYPE_POINT} node.
+	 *
+	 * @param index the index of the node
+	 * @return the node's x-coordinate
+	 */
+	public int getX(int index) {
+		return slea.getBuf().getInt(offset(index) + 12);
+	}
+
+	/**
+	 * Gets the y-coordinate of the payload of a {@code TYPE_POINT} node.
+	 *
+	 * @param index the index of the node
+	 * @return the node's y-coordinate
+	 */
+	public int getY(int index) {
+		return slea.getBuf().getInt(offset(index) + 16);
+	}
+
+	/**
+	 * Gets the bitmap table index of the payload of a {@code TYPE_BITMAP} node.
+	 *
+	 * @param index the index of the node
+	 * @return the node's bitmap index
+	 */
+	public long getBitmapIndex(int index) {
+		return slea.getBuf().getUnsignedInt(offset(index) + 12);
+	}
+
+	/**
+	 * Gets the width of the payload of a {@code TYPE_BITMAP} node.
+	 *
+	 * @param index the index of the node
+	 * @return the bitmap's width
+	 */
+	public int getWidth(int index) {
+		return slea.getBuf().getUnsignedShort(offset(index) + 16);
+	}
+
+	/**
+	 * Gets the height of the payload of a {@code TYPE_BITMAP} node.
+	 *
+	 * @param index the index of the node
+	 * @return the bitmap's height
+	 */
+	public int getHeight(int index) {
+		return slea.getBuf().getUnsignedShort(offset(index) + 18);
+	}
+
+	/**
+	 * Gets the audio table index of the payload of a {@code TYPE_AUDIO} node.
+	 *
+	 * @param index the index of the node
+	 * @return the node's audio index
+	 */
+	public long getAudioIndex(int index) {
+		return slea.getBuf().getUnsignedInt(offset(index) + 12);
+	}
+
+	/**
+	 * Gets the length of the payload of a {@code TYPE_AUDIO} node.
+	 *
+	 * @param index the index of the node
+	 * @return the audio's length
+	 */
+	public long getAudioLength(int index) {
+		return slea.getBuf().getUnsignedInt(offset(index) + 16);
+	}
+}
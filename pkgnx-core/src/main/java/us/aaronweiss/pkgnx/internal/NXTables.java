@@ -27,16 +27,16 @@ package us.aaronweiss.pkgnx.internal;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.metrics.CacheStats;
+import us.aaronweiss.pkgnx.metrics.NXMetrics;
 import us.aaronweiss.pkgnx.util.Decompressor;
 import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
 
-import java.awt.image.BufferedImage;
-
 /**
  * A set of data tables bound to an {@code NXFile}.
  *
  * @author Aaron Weiss
- * @version 1.0.0
+ * @version 2.2.0
  * @since 1/21/14
  */
 public abstract class NXTables {
@@ -50,14 +50,32 @@ public abstract class NXTables {
 	public abstract ByteBuf getAudioBuf(long index, long length);
 
 	/**
-	 * Looks up a bitmap image from the bitmap table.
+	 * Copies a sequence of audio data out of the audio table without holding on to it, for callers which read every
+	 * sound once and would otherwise fill the audio cache.
+	 *
+	 * @param index  the starting index of the audio data
+	 * @param length the length of the audio data
+	 * @return the audio data
+	 */
+	public abstract byte[] getAudio(long index, long length);
+
+	/**
+	 * Looks up and decompresses a bitmap from the bitmap table.
 	 *
 	 * @param index  the index of the bitmap
 	 * @param width  the width of the image
 	 * @param height the height of the image
-	 * @return the bitmap as a {@code BufferedImage}
+	 * @return the pixels of the bitmap, four bytes per pixel in blue, green, red, alpha order
 	 */
-	public abstract BufferedImage getImage(long index, int width, int height);
+	public abstract byte[] getPixels(long index, int width, int height);
+
+	/**
+	 * Looks up a bitmap from the bitmap table without decompressing it.
+	 *
+	 * @param index the index of the bitmap
+	 * @return the LZ4 compressed pixels of the bitmap
+	 */
+	public abstract byte[] getCompressedBitmap(long index);
 
 	/**
 	 * Looks up a string from the string table.
@@ -67,6 +85,34 @@ public abstract class NXTables {
 	 */
 	public abstract String getString(long index);
 
+	/**
+	 * Gets the number of strings which have been decoded and are held by these tables.
+	 *
+	 * @return number of loaded strings
+	 */
+	public abstract int getLoadedStringCount();
+
+	/**
+	 * Gets the number of audio buffers which have been copied out of the file and are held by these tables.
+	 *
+	 * @return number of loaded audio buffers
+	 */
+	public abstract int getLoadedAudioCount();
+
+	/**
+	 * Gets the hit and miss counts of the string cache of these tables.
+	 *
+	 * @return the string cache statistics, or null if strings are not cached lazily
+	 */
+	public CacheStats getStringCacheStats() {
+		return null;
+	}
+
+	/**
+	 * Drops everything these tables have cached that can be loaded again from the file.
+	 */
+	public abstract void clearCaches();
+
 	/**
 	 * Checks if the offset index is legal.
 	 *
@@ -82,7 +128,7 @@ public abstract class NXTables {
 	 * A lazy-loaded equivalent of {@code ByteBuf}.
 	 *
 	 * @author Aaron Weiss
-	 * @version 1.0
+	 * @version 1.1
 	 * @since 5/27/13
 	 */
 	protected static class AudioBuf {
@@ -108,18 +154,49 @@ public abstract class NXTables {
 		 */
 		public ByteBuf getAudioBuf(long length) {
 			if (audioBuf == null) {
+				long start = NXMetrics.start();
 				slea.seek(audioOffset);
 				audioBuf = Unpooled.wrappedBuffer(slea.getBytes((int) length));
+				NXMetrics.stop(NXMetrics.AUDIO_LOAD, start);
+				if (NXMetrics.ENABLED)
+					NXMetrics.AUDIO_BYTES.add(length);
 			}
 			return audioBuf;
 		}
+
+		/**
+		 * Copies the audio data of the desired {@code length} out of the file, without loading it.
+		 *
+		 * @param length the length of the audio data
+		 * @return the audio data
+		 */
+		public byte[] read(long length) {
+			slea.seek(audioOffset);
+			return slea.getBytes((int) length);
+		}
+
+		/**
+		 * Determines whether or not the audio data has been copied out of the file.
+		 *
+		 * @return whether or not the audio is loaded
+		 */
+		public boolean isLoaded() {
+			return audioBuf != null;
+		}
+
+		/**
+		 * Drops the loaded audio data, if any.
+		 */
+		public void release() {
+			audioBuf = null;
+		}
 	}
 
 	/**
-	 * A lazy-loaded equivalent of {@code BufferedImage}.
+	 * A lazy-loaded bitmap.
 	 *
 	 * @author Aaron Weiss
-	 * @version 1.0
+	 * @version 1.1
 	 * @since 5/27/13
 	 */
 	protected static class Bitmap {
@@ -127,7 +204,7 @@ public abstract class NXTables {
 		private final long bitmapOffset;
 
 		/**
-		 * Creates a lazy-loaded {@code BufferedImage}.
+		 * Creates a lazy-loaded bitmap.
 		 *
 		 * @param slea
 		 */
@@ -137,26 +214,29 @@ public abstract class NXTables {
 		}
 
 		/**
-		 * Loads a {@code BufferedImage} of the desired {@code width} and {@code height}.
+		 * Decompresses the pixels of a bitmap of the desired {@code width} and {@code height}.
 		 *
 		 * @param width  the width of the image
 		 * @param height the height of the image
-		 * @return the loaded image
+		 * @return the pixels of the bitmap
 		 */
-		public BufferedImage getImage(int width, int height) {
-			slea.seek(bitmapOffset);
-			ByteBuf image = Unpooled.wrappedBuffer(Decompressor.decompress(slea.getBytes((int) slea.getUnsignedInt()), width * height * 4));
-			BufferedImage ret = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-			for (int h = 0; h < height; h++) {
-				for (int w = 0; w < width; w++) {
-					int b = image.readUnsignedByte();
-					int g = image.readUnsignedByte();
-					int r = image.readUnsignedByte();
-					int a = image.readUnsignedByte();
-					ret.setRGB(w, h, (a << 24) | (r << 16) | (g << 8) | b);
-				}
-			}
+		public byte[] getPixels(int width, int height) {
+			long start = NXMetrics.start();
+			byte[] ret = Decompressor.decompress(getCompressed(), width * height * 4);
+			NXMetrics.stop(NXMetrics.BITMAP_DECOMPRESS, start);
+			if (NXMetrics.ENABLED)
+				NXMetrics.BITMAP_BYTES.add(width * height * 4);
 			return ret;
 		}
+
+		/**
+		 * Copies the compressed pixels of the bitmap out of the file.
+		 *
+		 * @return the compressed pixels
+		 */
+		public byte[] getCompressed() {
+			slea.seek(bitmapOffset);
+			return slea.getBytes((int) slea.getUnsignedInt());
+		}
 	}
 }
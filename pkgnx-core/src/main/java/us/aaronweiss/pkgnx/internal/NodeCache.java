@@ -0,0 +1,238 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.internal;
+
+import us.aaronweiss.pkgnx.NXNode;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of materialized nodes with clock eviction. At most {@code capacity} nodes are held strongly, and
+ * each hit gives its node a second chance before the clock hand evicts it. A node keeps a weak reference by index once
+ * it is evicted, so that a node evicted while a caller still holds it is found again instead of being parsed twice,
+ * which keeps node identity stable for as long as anyone references the node.
+ * <p>
+ * Held nodes are found through an open-addressed table from index to slot, so memory grows with the capacity and the
+ * number of evicted nodes that are still referenced, not with the size of the file.
+ * <p>
+ * Hits are lock-free. Admissions, evictions and lookups of evicted nodes are serialized on the cache.
+ *
+ * @author Aaron Weiss
+ * @version 1.1.0
+ * @since 10/19/26
+ */
+public class NodeCache {
+	private final Map<Integer, IndexedReference> evicted = new HashMap<>();
+	private final ReferenceQueue<NXNode> collected = new ReferenceQueue<>();
+	private final int[] table;
+	private final NXNode[] entries;
+	private final int[] keys;
+	private final byte[] referenced;
+	private int hand, size;
+
+	/**
+	 * Creates a cache for a file of {@code nodeCount} nodes, holding at most {@code capacity} of them strongly.
+	 *
+	 * @param nodeCount the number of nodes in the file
+	 * @param capacity  the maximum number of strongly held nodes
+	 */
+	public NodeCache(int nodeCount, int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Node cache capacity must be positive.");
+		capacity = Math.min(capacity, Math.max(nodeCount, 1));
+		table = new int[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 2];
+		entries = new NXNode[capacity];
+		keys = new int[capacity];
+		referenced = new byte[capacity];
+	}
+
+	/**
+	 * Looks up the node at {@code index}, marking it as recently used.
+	 *
+	 * @param index the index of the node
+	 * @return the node, or null if it is not materialized
+	 */
+	public NXNode get(int index) {
+		int slot = find(index);
+		if (slot >= 0) {
+			NXNode node = entries[slot];
+			if (node != null && node.getIndex() == index) {
+				referenced[slot] = 1;
+				return node;
+			}
+		}
+		return revive(index);
+	}
+
+	/**
+	 * Adds a newly materialized node, unless another thread got there first.
+	 *
+	 * @param index the index of the node
+	 * @param node  the node
+	 * @return the cached node, which is the existing one if there was a race
+	 */
+	public synchronized NXNode put(int index, NXNode node) {
+		NXNode existing = revive(index);
+		if (existing != null)
+			return existing;
+		admit(index, node);
+		return node;
+	}
+
+	/**
+	 * Gets the number of nodes held strongly by this cache.
+	 *
+	 * @return the number of cached nodes
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Drops every node from this cache. Nodes still referenced by callers are forgotten too, so they will no longer be
+	 * identical to nodes looked up afterwards.
+	 */
+	public synchronized void clear() {
+		Arrays.fill(table, 0);
+		Arrays.fill(entries, null);
+		Arrays.fill(referenced, (byte) 0);
+		evicted.clear();
+		while (collected.poll() != null)
+			;
+		hand = size = 0;
+	}
+
+	/**
+	 * Finds the node at {@code index} among the held and evicted nodes, holding it strongly again if it was evicted.
+	 */
+	private synchronized NXNode revive(int index) {
+		int slot = find(index);
+		if (slot >= 0)
+			return entries[slot];
+		expunge();
+		IndexedReference ref = evicted.get(index);
+		NXNode node = ref == null ? null : ref.get();
+		if (node != null)
+			admit(index, node);
+		return node;
+	}
+
+	/**
+	 * Holds {@code node} strongly, evicting the first node the clock hand finds without a second chance. The evicted
+	 * node is only held weakly from then on.
+	 */
+	private void admit(int index, NXNode node) {
+		while (entries[hand] != null && referenced[hand] != 0) {
+			referenced[hand] = 0;
+			hand = (hand + 1) % entries.length;
+		}
+		if (entries[hand] != null) {
+			remove(keys[hand]);
+			evicted.put(keys[hand], new IndexedReference(entries[hand], keys[hand], collected));
+		} else {
+			size++;
+		}
+		evicted.remove(index);
+		entries[hand] = node;
+		keys[hand] = index;
+		referenced[hand] = 0;
+		insert(index, hand);
+		hand = (hand + 1) % entries.length;
+	}
+
+	/**
+	 * Gets the table position that probing for {@code index} starts from.
+	 */
+	private int home(int index) {
+		return ((index * 0x9E3779B9) >>> 1) & (table.length - 1);
+	}
+
+	/**
+	 * Finds the slot holding {@code index}. This runs without the lock, so a concurrent admission can make it miss,
+	 * but never return a slot holding another node without {@code get} noticing.
+	 *
+	 * @return the slot, or -1 if the node is not held
+	 */
+	private int find(int index) {
+		int mask = table.length - 1;
+		for (int i = home(index), probes = 0; probes < table.length; i = (i + 1) & mask, probes++) {
+			int slot = table[i] - 1;
+			if (slot < 0)
+				return -1;
+			if (keys[slot] == index)
+				return slot;
+		}
+		return -1;
+	}
+
+	private void insert(int index, int slot) {
+		int mask = table.length - 1, i = home(index);
+		while (table[i] != 0)
+			i = (i + 1) & mask;
+		table[i] = slot + 1;
+	}
+
+	/**
+	 * Removes {@code index} from the table, shifting back the entries after it so that no probe sequence is broken.
+	 */
+	private void remove(int index) {
+		int mask = table.length - 1, i = home(index);
+		while (keys[table[i] - 1] != index)
+			i = (i + 1) & mask;
+		table[i] = 0;
+		for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+			int h = home(keys[table[j] - 1]);
+			if (i <= j ? (h <= i || h > j) : (h <= i && h > j)) {
+				table[i] = table[j];
+				table[j] = 0;
+				i = j;
+			}
+		}
+	}
+
+	/**
+	 * Forgets evicted nodes which have been garbage collected.
+	 */
+	private void expunge() {
+		IndexedReference ref;
+		while ((ref = (IndexedReference) collected.poll()) != null)
+			evicted.remove(ref.index, ref);
+	}
+
+	/**
+	 * A weak reference which remembers the index of its node.
+	 */
+	private static final class IndexedReference extends WeakReference<NXNode> {
+		private final int index;
+
+		private IndexedReference(NXNode node, int index, ReferenceQueue<NXNode> queue) {
+			super(node, queue);
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.internal;
+
+import java.util.BitSet;
+
+/**
+ * The node table of an overlay, read through from the node tables of its base and patch files and from the records of
+ * its merged slots. Records of the patch file have their name, child and value indices moved past those of the base.
+ * <p>
+ * Every node the overlay shows appears exactly once, so that scans of every record and walks of the child ranges both
+ * see each node once. A record which the patch hides, or whose node the overlay serves from a slot, reads as a null
+ * node without children instead.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class OverlayNXNodeTable extends NXNodeTable {
+	private final NXNodeTable base, patch, slots;
+	private final BitSet hidden;
+	private final int baseCount, slotStart;
+	private final long stringCount, bitmapCount, soundCount;
+
+	/**
+	 * Creates the node table of an overlay.
+	 *
+	 * @param baseHeader the header of the base file
+	 * @param base       the node table of the base file
+	 * @param patch      the node table of the patch file
+	 * @param slots      the records of the slots of the overlay, with the merged root first
+	 * @param hidden     the indices of the base and patch records which read as null nodes
+	 */
+	public OverlayNXNodeTable(NXHeader baseHeader, NXNodeTable base, NXNodeTable patch, NXNodeTable slots,
+			BitSet hidden) {
+		super(base.size() + patch.size() + slots.size() - 1);
+		this.base = base;
+		this.patch = patch;
+		this.slots = slots;
+		this.hidden = hidden;
+		baseCount = base.size();
+		slotStart = base.size() + patch.size();
+		stringCount = baseHeader.getStringCount();
+		bitmapCount = baseHeader.getBitmapCount();
+		soundCount = baseHeader.getSoundCount();
+	}
+
+	/**
+	 * Gets the slot that an index refers to, or -1 if it refers to a record of the base or patch file.
+	 */
+	private int slot(int index) {
+		return index == 0 ? 0 : index >= slotStart ? index - slotStart + 1 : -1;
+	}
+
+	@Override
+	public long getNameIndex(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getNameIndex(slot);
+		return index < baseCount ? base.getNameIndex(index) : patch.getNameIndex(index - baseCount) + stringCount;
+	}
+
+	@Override
+	public long getFirstChildIndex(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getFirstChildIndex(slot);
+		else if (hidden.get(index))
+			return 0;
+		else if (index < baseCount)
+			return base.getFirstChildIndex(index);
+		int p = index - baseCount;
+		return patch.getChildCount(p) == 0 ? 0 : patch.getFirstChildIndex(p) + baseCount;
+	}
+
+	@Override
+	public int getChildCount(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getChildCount(slot);
+		else if (hidden.get(index))
+			return 0;
+		return index < baseCount ? base.getChildCount(index) : patch.getChildCount(index - baseCount);
+	}
+
+	@Override
+	public int getType(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getType(slot);
+		else if (hidden.get(index))
+			return TYPE_NULL;
+		return index < baseCount ? base.getType(index) : patch.getType(index - baseCount);
+	}
+
+	@Override
+	public long getLong(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getLong(slot);
+		return index < baseCount ? base.getLong(index) : patch.getLong(index - baseCount);
+	}
+
+	@Override
+	public double getDouble(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getDouble(slot);
+		return index < baseCount ? base.getDouble(index) : patch.getDouble(index - baseCount);
+	}
+
+	@Override
+	public long getStringIndex(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getStringIndex(slot);
+		return index < baseCount ? base.getStringIndex(index) : patch.getStringIndex(index - baseCount) + stringCount;
+	}
+
+	@Override
+	public int getX(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getX(slot);
+		return index < baseCount ? base.getX(index) : patch.getX(index - baseCount);
+	}
+
+	@Override
+	public int getY(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getY(slot);
+		return index < baseCount ? base.getY(index) : patch.getY(index - baseCount);
+	}
+
+	@Override
+	public long getBitmapIndex(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getBitmapIndex(slot);
+		return index < baseCount ? base.getBitmapIndex(index) : patch.getBitmapIndex(index - baseCount) + bitmapCount;
+	}
+
+	@Override
+	public int getWidth(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getWidth(slot);
+		return index < baseCount ? base.getWidth(index) : patch.getWidth(index - baseCount);
+	}
+
+	@Override
+	public int getHeight(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getHeight(slot);
+		return index < baseCount ? base.getHeight(index) : patch.getHeight(index - baseCount);
+	}
+
+	@Override
+	public long getAudioIndex(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getAudioIndex(slot);
+		return index < baseCount ? base.getAudioIndex(index) : patch.getAudioIndex(index - baseCount) + soundCount;
+	}
+
+	@Override
+	public long getAudioLength(int index) {
+		int slot = slot(index);
+		if (slot >= 0)
+			return slots.getAudioLength(slot);
+		return index < baseCount ? base.getAudioLength(index) : patch.getAudioLength(index - baseCount);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.internal;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The data tables of an overlay, stacking the tables of a patch file after those of its base file. Indices below the
+ * size of a base table go to the base, and everything after goes to the patch.
+ *
+ * @author Aaron Weiss
+ * @version 1.3.1
+ * @since 10/19/26
+ */
+public class OverlayNXTables extends NXTables {
+	private final NXTables base, patch;
+	private final long stringCount, bitmapCount, soundCount;
+
+	/**
+	 * Creates the stacked tables of a base and a patch file.
+	 *
+	 * @param baseHeader the header of the base file
+	 * @param base       the tables of the base file
+	 * @param patch      the tables of the patch file
+	 */
+	public OverlayNXTables(NXHeader baseHeader, NXTables base, NXTables patch) {
+		this.base = base;
+		this.patch = patch;
+		stringCount = baseHeader.getStringCount();
+		bitmapCount = baseHeader.getBitmapCount();
+		soundCount = baseHeader.getSoundCount();
+	}
+
+	@Override
+	public ByteBuf getAudioBuf(long index, long length) {
+		return index < soundCount ? base.getAudioBuf(index, length) : patch.getAudioBuf(index - soundCount, length);
+	}
+
+	@Override
+	public byte[] getAudio(long index, long length) {
+		return index < soundCount ? base.getAudio(index, length) : patch.getAudio(index - soundCount, length);
+	}
+
+	@Override
+	public byte[] getPixels(long index, int width, int height) {
+		return index < bitmapCount ? base.getPixels(index, width, height)
+				: patch.getPixels(index - bitmapCount, width, height);
+	}
+
+	@Override
+	public byte[] getCompressedBitmap(long index) {
+		return index < bitmapCount ? base.getCompressedBitmap(index) : patch.getCompressedBitmap(index - bitmapCount);
+	}
+
+	@Override
+	public String getString(long index) {
+		return index < stringCount ? base.getString(index) : patch.getString(index - stringCount);
+	}
+
+	@Override
+	public int getLoadedStringCount() {
+		return base.getLoadedStringCount() + patch.getLoadedStringCount();
+	}
+
+	@Override
+	public int getLoadedAudioCount() {
+		return base.getLoadedAudioCount() + patch.getLoadedAudioCount();
+	}
+
+	@Override
+	public void clearCaches() {
+		base.clearCaches();
+		patch.clearCaches();
+	}
+}
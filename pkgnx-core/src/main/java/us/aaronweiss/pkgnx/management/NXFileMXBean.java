@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.management;
+
+/**
+ * The management interface exposing the state of an open {@code NXFile} over JMX.
+ *
+ * @author Aaron Weiss
+ * @version 1.1.0
+ * @since 10/19/26
+ */
+public interface NXFileMXBean {
+	/**
+	 * Gets the path to the file.
+	 *
+	 * @return the file path
+	 */
+	String getFilePath();
+
+	/**
+	 * Gets the size of the memory mapping of the file.
+	 *
+	 * @return the mapped size in bytes
+	 */
+	long getMappedSize();
+
+	/**
+	 * Gets the total number of nodes in the file.
+	 *
+	 * @return total number of nodes
+	 */
+	long getNodeCount();
+
+	/**
+	 * Gets the total number of strings in the file.
+	 *
+	 * @return total number of strings
+	 */
+	long getStringCount();
+
+	/**
+	 * Gets the total number of bitmaps in the file.
+	 *
+	 * @return total number of bitmaps
+	 */
+	long getBitmapCount();
+
+	/**
+	 * Gets the total number of sounds in the file.
+	 *
+	 * @return total number of sounds
+	 */
+	long getSoundCount();
+
+	/**
+	 * Gets the number of nodes which have been constructed and are held by the file.
+	 *
+	 * @return number of loaded nodes
+	 */
+	int getLoadedNodeCount();
+
+	/**
+	 * Gets the number of strings which have been decoded and are held by the file.
+	 *
+	 * @return number of loaded strings
+	 */
+	int getLoadedStringCount();
+
+	/**
+	 * Gets the number of audio buffers which have been copied out of the file and are held by it.
+	 *
+	 * @return number of loaded audio buffers
+	 */
+	int getLoadedAudioCount();
+
+	/**
+	 * Gets the fraction of node lookups served from the node cache. Only recorded while metrics are enabled.
+	 *
+	 * @return the hit rate, or -1 if unavailable
+	 */
+	double getNodeCacheHitRate();
+
+	/**
+	 * Gets the fraction of string lookups served from the string cache. Only recorded while metrics are enabled.
+	 *
+	 * @return the hit rate, or -1 if unavailable
+	 */
+	double getStringCacheHitRate();
+
+	/**
+	 * Drops everything the file has cached that can be loaded again from the mapping.
+	 */
+	void clearCaches();
+
+	/**
+	 * Gets the progress of the most recent warm-up of the file, for readiness probes.
+	 *
+	 * @return the progress from 0 to 1, or -1 if the file has not been warmed up
+	 */
+	double getWarmUpProgress();
+
+	/**
+	 * Loads the entire mapping of the file into physical memory.
+	 */
+	void preTouch();
+
+	/**
+	 * Starts warming up the node block and string table and data of the file in the background.
+	 */
+	void warmUp();
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.management;
+
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXWarmup;
+import us.aaronweiss.pkgnx.metrics.CacheStats;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code NXFileMXBean} for a single {@code NXFile}. Registering a monitor makes the file visible to tools such as
+ * jconsole under the {@code us.aaronweiss.pkgnx} domain. A registered monitor is unregistered again when its file is
+ * closed.
+ *
+ * @author Aaron Weiss
+ * @version 1.2.0
+ * @since 10/19/26
+ */
+public class NXFileMonitor implements NXFileMXBean {
+	/**
+	 * The JMX domain that monitors are registered under.
+	 */
+	public static final String DOMAIN = "us.aaronweiss.pkgnx";
+	private static final Set<NXFile> registered = Collections.newSetFromMap(new ConcurrentHashMap<NXFile, Boolean>());
+	private final NXFile file;
+
+	/**
+	 * Creates a new {@code NXFileMonitor}.
+	 *
+	 * @param file the file to monitor
+	 */
+	public NXFileMonitor(NXFile file) {
+		this.file = file;
+	}
+
+	/**
+	 * Registers a monitor for {@code file} with the platform {@code MBeanServer}.
+	 *
+	 * @param file the file to monitor
+	 * @return the name the monitor was registered under
+	 * @throws NXException if the monitor could not be registered
+	 */
+	public static ObjectName register(NXFile file) {
+		try {
+			ObjectName name = getObjectName(file);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (!server.isRegistered(name))
+				server.registerMBean(new NXFileMonitor(file), name);
+			registered.add(file);
+			return name;
+		} catch (JMException e) {
+			throw new NXException("Failed to register monitor for " + file.getFilePath() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Unregisters the monitor for {@code file} from the platform {@code MBeanServer}, if one was registered with
+	 * {@code register}.
+	 *
+	 * @param file the monitored file
+	 * @throws NXException if the monitor could not be unregistered
+	 */
+	public static void unregister(NXFile file) {
+		if (!registered.remove(file))
+			return;
+		try {
+			ObjectName name = getObjectName(file);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(name))
+				server.unregisterMBean(name);
+		} catch (JMException e) {
+			throw new NXException("Failed to unregister monitor for " + file.getFilePath() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the name a monitor for {@code file} is registered under.
+	 *
+	 * @param file the monitored file
+	 * @return the monitor's name
+	 * @throws JMException if the name is malformed
+	 */
+	public static ObjectName getObjectName(NXFile file) throws JMException {
+		return new ObjectName(DOMAIN + ":type=NXFile,path=" + ObjectName.quote(file.getFilePath()) + ",id="
+				+ Integer.toHexString(System.identityHashCode(file)));
+	}
+
+	@Override
+	public String getFilePath() {
+		return file.getFilePath();
+	}
+
+	@Override
+	public long getMappedSize() {
+		return file.getMappedSize();
+	}
+
+	@Override
+	public long getNodeCount() {
+		return file.getHeader() == null ? 0 : file.getHeader().getNodeCount();
+	}
+
+	@Override
+	public long getStringCount() {
+		return file.getHeader() == null ? 0 : file.getHeader().getStringCount();
+	}
+
+	@Override
+	public long getBitmapCount() {
+		return file.getHeader() == null ? 0 : file.getHeader().getBitmapCount();
+	}
+
+	@Override
+	public long getSoundCount() {
+		return file.getHeader() == null ? 0 : file.getHeader().getSoundCount();
+	}
+
+	@Override
+	public int getLoadedNodeCount() {
+		return file.getLoadedNodeCount();
+	}
+
+	@Override
+	public int getLoadedStringCount() {
+		return file.getTables() == null ? 0 : file.getTables().getLoadedStringCount();
+	}
+
+	@Override
+	public int getLoadedAudioCount() {
+		return file.getTables() == null ? 0 : file.getTables().getLoadedAudioCount();
+	}
+
+	@Override
+	public double getNodeCacheHitRate() {
+		return hitRate(file.getNodeCacheStats());
+	}
+
+	@Override
+	public double getStringCacheHitRate() {
+		return file.getTables() == null ? -1 : hitRate(file.getTables().getStringCacheStats());
+	}
+
+	private static double hitRate(CacheStats stats) {
+		return stats == null ? -1 : stats.getHitRate();
+	}
+
+	@Override
+	public double getWarmUpProgress() {
+		NXWarmup warmup = file.getWarmUp();
+		return warmup == null ? -1 : warmup.getProgress();
+	}
+
+	@Override
+	public void clearCaches() {
+		file.clearCaches();
+	}
+
+	@Override
+	public void preTouch() {
+		file.preTouch();
+	}
+
+	@Override
+	public void warmUp() {
+		file.warmUp();
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counts for one of the caches of an {@code NXFile}. Lookups are only counted while {@code NXMetrics} is
+ * enabled, so that the caches pay nothing for their statistics otherwise.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class CacheStats {
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+	/**
+	 * Records a lookup that was served from the cache.
+	 */
+	public void hit() {
+		if (NXMetrics.ENABLED)
+			hits.increment();
+	}
+
+	/**
+	 * Records a lookup that had to load its value.
+	 */
+	public void miss() {
+		if (NXMetrics.ENABLED)
+			misses.increment();
+	}
+
+	/**
+	 * Gets the number of lookups served from the cache.
+	 *
+	 * @return number of hits
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of lookups that had to load their value.
+	 *
+	 * @return number of misses
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the fraction of lookups served from the cache.
+	 *
+	 * @return the hit rate, or -1 if no lookups have been recorded
+	 */
+	public double getHitRate() {
+		long h = hits.sum(), total = h + misses.sum();
+		return total == 0 ? -1 : (double) h / total;
+	}
+
+	/**
+	 * Resets the counts.
+	 */
+	public void reset() {
+		hits.reset();
+		misses.reset();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A striped counter that can be incremented from many threads without contention.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class Counter {
+	private final String name;
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * Creates a new {@code Counter}.
+	 *
+	 * @param name the name of the counter
+	 */
+	public Counter(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gets the name of this counter.
+	 *
+	 * @return the counter's name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Increments this counter by one.
+	 */
+	public void increment() {
+		count.increment();
+	}
+
+	/**
+	 * Increments this counter by {@code amount}.
+	 *
+	 * @param amount the amount to add
+	 */
+	public void add(long amount) {
+		count.add(amount);
+	}
+
+	/**
+	 * Gets the current value of this counter.
+	 *
+	 * @return the count
+	 */
+	public long get() {
+		return count.sum();
+	}
+
+	/**
+	 * Resets this counter to zero.
+	 */
+	public void reset() {
+		count.reset();
+	}
+}
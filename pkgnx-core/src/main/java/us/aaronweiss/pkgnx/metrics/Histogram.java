@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram with fixed, power-of-two buckets of nanoseconds. Bucket {@code i} counts samples below
+ * {@code 2^(i + 6)} ns, so the buckets range from under 64 ns to an overflow bucket for samples of about 17 seconds or
+ * more. Recording is a handful of striped additions and never allocates.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class Histogram {
+	/**
+	 * The number of buckets in every histogram.
+	 */
+	public static final int BUCKETS = 30;
+	private static final int SHIFT = 6;
+	private final String name;
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder(), total = new LongAdder();
+
+	/**
+	 * Creates a new {@code Histogram}.
+	 *
+	 * @param name the name of the histogram
+	 */
+	public Histogram(String name) {
+		this.name = name;
+		for (int i = 0; i < BUCKETS; i++)
+			buckets[i] = new LongAdder();
+	}
+
+	/**
+	 * Gets the name of this histogram.
+	 *
+	 * @return the histogram's name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Records a single sample.
+	 *
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+		int bucket = Math.min(BUCKETS - 1, Math.max(0, 64 - Long.numberOfLeadingZeros(nanos) - SHIFT));
+		buckets[bucket].increment();
+		count.increment();
+		total.add(nanos);
+	}
+
+	/**
+	 * Gets the upper bound of a bucket.
+	 *
+	 * @param bucket the index of the bucket
+	 * @return the exclusive upper bound in nanoseconds, or {@code Long.MAX_VALUE} for the overflow bucket
+	 */
+	public static long getUpperBound(int bucket) {
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucket + SHIFT);
+	}
+
+	/**
+	 * Takes a snapshot of the current state of this histogram.
+	 *
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			counts[i] = buckets[i].sum();
+		return new Snapshot(counts, count.sum(), total.sum());
+	}
+
+	/**
+	 * Resets this histogram.
+	 */
+	public void reset() {
+		for (LongAdder bucket : buckets)
+			bucket.reset();
+		count.reset();
+		total.reset();
+	}
+
+	/**
+	 * A point-in-time view of a {@code Histogram}. As recording is not stopped while taking the snapshot, the bucket
+	 * counts may be slightly out of step with the total count.
+	 *
+	 * @author Aaron Weiss
+	 * @version 1.0.0
+	 * @since 10/19/26
+	 */
+	public static class Snapshot {
+		private final long[] counts;
+		private final long count, total;
+
+		private Snapshot(long[] counts, long count, long total) {
+			this.counts = counts;
+			this.count = count;
+			this.total = total;
+		}
+
+		/**
+		 * Gets the number of samples in a bucket.
+		 *
+		 * @param bucket the index of the bucket
+		 * @return the bucket's count
+		 */
+		public long getBucketCount(int bucket) {
+			return counts[bucket];
+		}
+
+		/**
+		 * Gets the total number of samples.
+		 *
+		 * @return number of samples
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Gets the sum of all samples.
+		 *
+		 * @return total nanoseconds recorded
+		 */
+		public long getTotal() {
+			return total;
+		}
+
+		/**
+		 * Gets the mean of all samples.
+		 *
+		 * @return mean nanoseconds, or 0 if there are no samples
+		 */
+		public long getMean() {
+			return count == 0 ? 0 : total / count;
+		}
+
+		/**
+		 * Estimates a percentile as the upper bound of the bucket containing it.
+		 *
+		 * @param percentile the percentile, from 0 to 100
+		 * @return the estimated latency in nanoseconds
+		 */
+		public long getPercentile(double percentile) {
+			long samples = 0;
+			for (long c : counts)
+				samples += c;
+			long rank = (long) Math.ceil(samples * percentile / 100.0), seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += counts[i];
+				if (seen >= rank && seen > 0)
+					return getUpperBound(i);
+			}
+			return 0;
+		}
+	}
+}
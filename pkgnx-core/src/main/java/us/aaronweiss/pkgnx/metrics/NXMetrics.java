@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.metrics;
+
+/**
+ * The registry of runtime metrics for pkgnx. Metrics are opt-in and are enabled by starting the JVM with
+ * {@code -Dpkgnx.metrics=true}. Since {@code ENABLED} is a compile-time constant to the JIT, every instrumentation
+ * point is guarded by it and is eliminated entirely when metrics are disabled.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public final class NXMetrics {
+	/**
+	 * Whether or not metrics are being recorded.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("pkgnx.metrics");
+
+	public static final Histogram FILE_OPEN = new Histogram("file.open");
+	public static final Histogram RESOLVE = new Histogram("file.resolve");
+	public static final Histogram GET_CHILD = new Histogram("node.getChild");
+	public static final Counter NODE_MATERIALIZATIONS = new Counter("node.materializations");
+	public static final Histogram STRING_DECODE = new Histogram("string.decode");
+	public static final Histogram BITMAP_DECOMPRESS = new Histogram("bitmap.decompress");
+	public static final Counter BITMAP_BYTES = new Counter("bitmap.bytes");
+	public static final Histogram AUDIO_LOAD = new Histogram("audio.load");
+	public static final Counter AUDIO_BYTES = new Counter("audio.bytes");
+
+	private static final Counter[] COUNTERS = {NODE_MATERIALIZATIONS, BITMAP_BYTES, AUDIO_BYTES};
+	private static final Histogram[] HISTOGRAMS = {FILE_OPEN, RESOLVE, GET_CHILD, STRING_DECODE, BITMAP_DECOMPRESS,
+			AUDIO_LOAD};
+
+	private NXMetrics() {
+		return;
+	}
+
+	/**
+	 * Gets the current time for timing an operation, or 0 if metrics are disabled.
+	 *
+	 * @return the current value of {@code System.nanoTime()}
+	 */
+	public static long start() {
+		return ENABLED ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * Records the time elapsed since {@code start} to the {@code histogram}.
+	 *
+	 * @param histogram the histogram to record to
+	 * @param start     the result of {@code start()} when the operation began
+	 */
+	public static void stop(Histogram histogram, long start) {
+		if (ENABLED)
+			histogram.record(System.nanoTime() - start);
+	}
+
+	/**
+	 * Reports every metric to the specified {@code reporter}.
+	 *
+	 * @param reporter the reporter to report to
+	 */
+	public static void report(MetricsReporter reporter) {
+		for (Counter counter : COUNTERS)
+			reporter.reportCounter(counter.getName(), counter.get());
+		for (Histogram histogram : HISTOGRAMS)
+			reporter.reportHistogram(histogram.getName(), histogram.snapshot());
+	}
+
+	/**
+	 * Resets every metric.
+	 */
+	public static void reset() {
+		for (Counter counter : COUNTERS)
+			counter.reset();
+		for (Histogram histogram : HISTOGRAMS)
+			histogram.reset();
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@code MetricsReporter} that writes every metric to an slf4j {@code Logger}.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class Slf4jReporter implements MetricsReporter {
+	private final Logger logger;
+
+	/**
+	 * Creates a new {@code Slf4jReporter} logging to the {@code NXMetrics} logger.
+	 */
+	public Slf4jReporter() {
+		this(LoggerFactory.getLogger(NXMetrics.class));
+	}
+
+	/**
+	 * Creates a new {@code Slf4jReporter} logging to the specified {@code logger}.
+	 *
+	 * @param logger the logger to write to
+	 */
+	public Slf4jReporter(Logger logger) {
+		this.logger = logger;
+	}
+
+	@Override
+	public void reportCounter(String name, long value) {
+		logger.info("[pkgnx] " + name + ": " + value);
+	}
+
+	@Override
+	public void reportHistogram(String name, Histogram.Snapshot snapshot) {
+		logger.info("[pkgnx] " + name + ": count " + snapshot.getCount() + ", mean " + snapshot.getMean() + "ns, p50 "
+				+ snapshot.getPercentile(50) + "ns, p99 " + snapshot.getPercentile(99) + "ns");
+	}
+}
@@ -32,7 +32,7 @@ import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
  * An {@code NXNode} representing an Audio {@code ByteBuf}.
  *
  * @author Aaron Weiss
- * @version 3.0.0
+ * @version 4.1.0
  * @since 5/27/13
  */
 public class NXAudioNode extends NXNode {
@@ -43,12 +43,14 @@ public class NXAudioNode extends NXNode {
 	 *
 	 * @param name       the name of the node
 	 * @param file       the file the node is from
+	 * @param index      the index of the node in its file
 	 * @param childIndex the index of the first child of the node
 	 * @param childCount the number of children
 	 * @param slea       the {@code SeekableLittleEndianAccessor} to read from
 	 */
-	public NXAudioNode(String name, NXFile file, long childIndex, int childCount, SeekableLittleEndianAccessor slea) {
-		super(name, file, childIndex, childCount);
+	public NXAudioNode(String name, NXFile file, int index, long childIndex, int childCount,
+			SeekableLittleEndianAccessor slea) {
+		super(name, file, index, childIndex, childCount);
 		mp3Index = slea.getUnsignedInt();
 		length = slea.getUnsignedInt();
 	}
@@ -69,18 +71,21 @@ public class NXAudioNode extends NXNode {
 		return file.getTables().getAudioBuf(mp3Index, length);
 	}
 
+	/**
+	 * Gets the index of the audio data of this node in the audio table.
+	 *
+	 * @return the audio index
+	 */
+	public long getAudioIndex() {
+		return mp3Index;
+	}
 
-	@Override
-	public boolean equals(Object obj) {
-		if (obj == null)
-			return false;
-		else if (!(obj instanceof NXAudioNode))
-			return false;
-		else
-			return obj == this || (((NXNode) obj).getName().equals(getName()) &&
-					((NXNode) obj).getChildCount() == getChildCount() &&
-					((NXNode) obj).getFirstChildIndex() == getFirstChildIndex() &&
-					((NXAudioNode) obj).mp3Index == mp3Index &&
-					((NXAudioNode) obj).length == length);
+	/**
+	 * Gets the length of the audio data of this node.
+	 *
+	 * @return the audio length in bytes
+	 */
+	public long getLength() {
+		return length;
 	}
 }
@@ -27,13 +27,11 @@ import us.aaronweiss.pkgnx.NXFile;
 import us.aaronweiss.pkgnx.NXNode;
 import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
 
-import java.awt.image.BufferedImage;
-
 /**
- * An {@code NXNode} representing a {@code Bitmap} as a {@code BufferedImage}.
+ * An {@code NXNode} representing a bitmap as its raw pixels. {@code pkgnx-awt} adapts them to a {@code BufferedImage}.
  *
  * @author Aaron Weiss
- * @version 3.0.0
+ * @version 5.0.0
  * @since 5/27/13
  */
 public class NXBitmapNode extends NXNode {
@@ -45,46 +43,60 @@ public class NXBitmapNode extends NXNode {
 	 *
 	 * @param name       the name of the node
 	 * @param file       the file the node is from
+	 * @param index      the index of the node in its file
 	 * @param childIndex the index of the first child of the node
 	 * @param childCount the number of children
 	 * @param slea       the {@code SeekableLittleEndianAccessor} to read from
 	 */
-	public NXBitmapNode(String name, NXFile file, long childIndex, int childCount, SeekableLittleEndianAccessor slea) {
-		super(name, file, childIndex, childCount);
+	public NXBitmapNode(String name, NXFile file, int index, long childIndex, int childCount,
+			SeekableLittleEndianAccessor slea) {
+		super(name, file, index, childIndex, childCount);
 		bitmapIndex = slea.getUnsignedInt();
 		width = slea.getUnsignedShort();
 		height = slea.getUnsignedShort();
 	}
 
 	@Override
-	public BufferedImage get() {
-		return getImage();
+	public byte[] get() {
+		return getPixels();
 	}
 
 	/**
-	 * Gets the value of this node as a {@code BufferedImage}.
+	 * Gets the decompressed pixels of this bitmap, four bytes per pixel in blue, green, red, alpha order, row by row.
 	 *
-	 * @return the node value
+	 * @return the pixels, or null if the file has no bitmaps
 	 */
-	public BufferedImage getImage() {
+	public byte[] getPixels() {
 		if (file.getHeader().getBitmapCount() == 0)
 			return null;
-		return file.getTables().getImage(bitmapIndex, width, height);
+		return file.getTables().getPixels(bitmapIndex, width, height);
 	}
 
-	@Override
-	public boolean equals(Object obj) {
-		if (obj == null)
-			return false;
-		else if (!(obj instanceof NXBitmapNode))
-			return false;
-		else
-			return obj == this || (((NXNode) obj).getName().equals(getName()) &&
-					((NXNode) obj).getChildCount() == getChildCount() &&
-					((NXNode) obj).getFirstChildIndex() == getFirstChildIndex() &&
-					((NXBitmapNode) obj).bitmapIndex == bitmapIndex &&
-					((NXBitmapNode) obj).height == height &&
-					((NXBitmapNode) obj).width == width);
+	/**
+	 * Gets the index of this bitmap in the bitmap table.
+	 *
+	 * @return the bitmap index
+	 */
+	public long getBitmapIndex() {
+		return bitmapIndex;
+	}
+
+	/**
+	 * Gets the width of this bitmap.
+	 *
+	 * @return the width in pixels
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the height of this bitmap.
+	 *
+	 * @return the height in pixels
+	 */
+	public int getHeight() {
+		return height;
 	}
 
 }
@@ -31,7 +31,7 @@ import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
  * An {@code NXNode} representing a {@code Long}.
  *
  * @author Aaron Weiss
- * @version 2.0.0
+ * @version 3.0.0
  * @since 5/27/13
  */
 public class NXLongNode extends NXNode {
@@ -42,12 +42,14 @@ public class NXLongNode extends NXNode {
 	 *
 	 * @param name       the name of the node
 	 * @param file       the file the node is from
+	 * @param index      the index of the node in its file
 	 * @param childIndex the index of the first child of the node
 	 * @param childCount the number of children
 	 * @param slea       the {@code SeekableLittleEndianAccessor} to read from
 	 */
-	public NXLongNode(String name, NXFile file, long childIndex, int childCount, SeekableLittleEndianAccessor slea) {
-		super(name, file, childIndex, childCount);
+	public NXLongNode(String name, NXFile file, int index, long childIndex, int childCount,
+			SeekableLittleEndianAccessor slea) {
+		super(name, file, index, childIndex, childCount);
 		value = slea.getLong();
 	}
 
@@ -31,7 +31,7 @@ import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
  * An empty {@code NXNode} commonly used to represent folders.
  *
  * @author Aaron Weiss
- * @version 1.0.0
+ * @version 2.0.0
  * @since 5/27/13
  */
 public class NXNullNode extends NXNode {
@@ -40,12 +40,14 @@ public class NXNullNode extends NXNode {
 	 *
 	 * @param name       the name of the node
 	 * @param file       the file the node is from
+	 * @param index      the index of the node in its file
 	 * @param childIndex the index of the first child of the node
 	 * @param childCount the number of children
 	 * @param slea       the {@code SeekableLittleEndianAccessor} to read from
 	 */
-	public NXNullNode(String name, NXFile file, long childIndex, int childCount, SeekableLittleEndianAccessor slea) {
-		super(name, file, childIndex, childCount);
+	public NXNullNode(String name, NXFile file, int index, long childIndex, int childCount,
+			SeekableLittleEndianAccessor slea) {
+		super(name, file, index, childIndex, childCount);
 		slea.skip(8);
 	}
 
@@ -27,43 +27,59 @@ import us.aaronweiss.pkgnx.NXFile;
 import us.aaronweiss.pkgnx.NXNode;
 import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
 
-import java.awt.Point;
-
 /**
- * An {@code NXNode} representing a 2D vector as a {@code Point}.
+ * An {@code NXNode} representing a 2D vector. The coordinates are held as primitives, so that reading a file does not
+ * need AWT; {@code pkgnx-awt} adapts them to a {@code Point}.
  *
  * @author Aaron Weiss
- * @version 2.0.0
+ * @version 4.0.0
  * @since 5/27/13
  */
 public class NXPointNode extends NXNode {
-	private final Point point;
+	private final int x, y;
 
 	/**
 	 * Creates a new {@code NXPointNode}.
 	 *
 	 * @param name       the name of the node
 	 * @param file       the file the node is from
+	 * @param index      the index of the node in its file
 	 * @param childIndex the index of the first child of the node
 	 * @param childCount the number of children
 	 * @param slea       the {@code SeekableLittleEndianAccessor} to read from
 	 */
-	public NXPointNode(String name, NXFile file, long childIndex, int childCount, SeekableLittleEndianAccessor slea) {
-		super(name, file, childIndex, childCount);
-		point = new Point(slea.getInt(), slea.getInt());
+	public NXPointNode(String name, NXFile file, int index, long childIndex, int childCount,
+			SeekableLittleEndianAccessor slea) {
+		super(name, file, index, childIndex, childCount);
+		x = slea.getInt();
+		y = slea.getInt();
 	}
 
+	/**
+	 * Gets the value of this node as a new array of its x and y coordinates.
+	 *
+	 * @return the node value
+	 */
 	@Override
-	public Point get() {
-		return point;
+	public int[] get() {
+		return new int[]{x, y};
 	}
 
 	/**
-	 * Gets the value of this node as a {@code Point}.
+	 * Gets the x coordinate of this node.
 	 *
-	 * @return the node value
+	 * @return the x coordinate
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * Gets the y coordinate of this node.
+	 *
+	 * @return the y coordinate
 	 */
-	public Point getPoint() {
-		return point;
+	public int getY() {
+		return y;
 	}
 }
@@ -33,7 +33,7 @@ import us.aaronweiss.pkgnx.util.SeekableLittleEndianAccessor;
  * An {@code NXNode} representing a {@code String}.
  *
  * @author Aaron Weiss
- * @version 3.0.0
+ * @version 4.0.0
  * @since 5/27/13
  */
 public class NXStringNode extends NXNode {
@@ -45,12 +45,14 @@ public class NXStringNode extends NXNode {
 	 *
 	 * @param name       the name of the node
 	 * @param file       the file the node is from
+	 * @param index      the index of the node in its file
 	 * @param childIndex the index of the first child of the node
 	 * @param childCount the number of children
 	 * @param slea       the {@code SeekableLittleEndianAccessor} to read from
 	 */
-	public NXStringNode(String name, NXFile file, long childIndex, int childCount, SeekableLittleEndianAccessor slea) {
-		super(name, file, childIndex, childCount);
+	public NXStringNode(String name, NXFile file, int index, long childIndex, int childCount,
+			SeekableLittleEndianAccessor slea) {
+		super(name, file, index, childIndex, childCount);
 		stringIndex = slea.getUnsignedInt();
 		slea.skip(4);
 	}
@@ -68,17 +70,4 @@ public class NXStringNode extends NXNode {
 	public String getString() {
 		return file.getTables().getString(stringIndex);
 	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (obj == null)
-			return false;
-		else if (!(obj instanceof NXStringNode))
-			return false;
-		else
-			return obj == this || (((NXNode) obj).getName().equals(getName()) &&
-					((NXNode) obj).getChildCount() == getChildCount() &&
-					((NXNode) obj).getFirstChildIndex() == getFirstChildIndex() &&
-					((NXStringNode) obj).stringIndex == stringIndex);
-	}
 }
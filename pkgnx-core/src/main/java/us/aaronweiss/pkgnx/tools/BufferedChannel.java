@@ -0,0 +1,218 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.tools;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A little endian, append-only writer over a {@code FileChannel}. Temporary channels are used to spill table data
+ * to disk while a file is being produced so that memory use stays bounded, and are deleted when closed.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+class BufferedChannel implements Closeable {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private final FileChannel channel;
+	private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	private long written;
+
+	/**
+	 * Creates a writer that appends to {@code channel} from its current position.
+	 *
+	 * @param channel the channel to write to
+	 * @throws IOException if the position of the channel cannot be read
+	 */
+	public BufferedChannel(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.written = channel.position();
+	}
+
+	/**
+	 * Creates a writer over a new temporary file which is deleted once the writer is closed.
+	 *
+	 * @param prefix the prefix of the temporary file name
+	 * @return the writer
+	 * @throws IOException if the temporary file cannot be created
+	 */
+	public static BufferedChannel temporary(String prefix) throws IOException {
+		Path path = Files.createTempFile(prefix, ".tmp");
+		return new BufferedChannel(FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.DELETE_ON_CLOSE));
+	}
+
+	/**
+	 * Gets the position that the next byte will be written at.
+	 *
+	 * @return the current position
+	 */
+	public long position() {
+		return written + buf.position();
+	}
+
+	/**
+	 * Gets a buffer with at least {@code length} bytes remaining, to be written into directly.
+	 *
+	 * @param length the number of bytes required
+	 * @return the buffer
+	 * @throws IOException if the buffer could not be flushed
+	 */
+	public ByteBuffer reserve(int length) throws IOException {
+		if (buf.remaining() < length)
+			flush();
+		return buf;
+	}
+
+	/**
+	 * Pads the output with zeroes up to a multiple of {@code alignment}.
+	 *
+	 * @param alignment the alignment, in bytes
+	 * @throws IOException if the padding could not be written
+	 */
+	public void align(int alignment) throws IOException {
+		int padding = (int) ((alignment - position() % alignment) % alignment);
+		ByteBuffer out = reserve(padding);
+		for (int i = 0; i < padding; i++)
+			out.put((byte) 0);
+	}
+
+	public void putShort(int value) throws IOException {
+		reserve(2).putShort((short) value);
+	}
+
+	public void putInt(int value) throws IOException {
+		reserve(4).putInt(value);
+	}
+
+	public void putLong(long value) throws IOException {
+		reserve(8).putLong(value);
+	}
+
+	public void put(byte[] data) throws IOException {
+		put(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Writes the remaining bytes of {@code data}, bypassing the buffer for anything larger than it.
+	 *
+	 * @param data the bytes to write
+	 * @throws IOException if the bytes could not be written
+	 */
+	public void put(ByteBuffer data) throws IOException {
+		if (data.remaining() <= buf.remaining()) {
+			buf.put(data);
+			return;
+		}
+		flush();
+		if (data.remaining() <= buf.remaining()) {
+			buf.put(data);
+			return;
+		}
+		while (data.hasRemaining())
+			written += channel.write(data);
+	}
+
+	/**
+	 * Appends the entire contents of another writer to this one.
+	 *
+	 * @param other the writer to copy from
+	 * @throws IOException if the contents could not be copied
+	 */
+	public void append(BufferedChannel other) throws IOException {
+		other.flush();
+		flush();
+		long size = other.position();
+		for (long copied = 0; copied < size; ) {
+			long count = other.channel.transferTo(copied, size - copied, channel);
+			copied += count;
+			written += count;
+		}
+		channel.position(written);
+	}
+
+	/**
+	 * Aligns the output to {@code alignment} and appends the entire contents of another writer.
+	 *
+	 * @param other     the writer to copy from
+	 * @param alignment the alignment, in bytes
+	 * @return the position the contents were written at
+	 * @throws IOException if the contents could not be copied
+	 */
+	public long appendAligned(BufferedChannel other, int alignment) throws IOException {
+		align(alignment);
+		long base = position();
+		append(other);
+		return base;
+	}
+
+	/**
+	 * Writes an offset table: the first {@code count} offsets, each relative to {@code base}.
+	 *
+	 * @param offsets the relative offsets
+	 * @param count   the number of offsets to write
+	 * @param base    the position the offsets are relative to
+	 * @return the position the table was written at
+	 * @throws IOException if the table could not be written
+	 */
+	public long putOffsets(long[] offsets, int count, long base) throws IOException {
+		long table = position();
+		for (int i = 0; i < count; i++)
+			putLong(base + offsets[i]);
+		return table;
+	}
+
+	/**
+	 * Writes all buffered bytes to the channel.
+	 *
+	 * @throws IOException if the bytes could not be written
+	 */
+	public void flush() throws IOException {
+		buf.flip();
+		while (buf.hasRemaining())
+			written += channel.write(buf);
+		buf.clear();
+	}
+
+	/**
+	 * Flushes the writer and closes the channel.
+	 *
+	 * @throws IOException if the channel could not be flushed or closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.aaronweiss.pkgnx.LazyNXFile;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.internal.NXTables;
+import us.aaronweiss.pkgnx.nodes.NXAudioNode;
+import us.aaronweiss.pkgnx.nodes.NXBitmapNode;
+import us.aaronweiss.pkgnx.nodes.NXDoubleNode;
+import us.aaronweiss.pkgnx.nodes.NXLongNode;
+import us.aaronweiss.pkgnx.nodes.NXPointNode;
+import us.aaronweiss.pkgnx.nodes.NXStringNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An extractor of subtrees of an NX file into a new, smaller file, for clients which only need a few parts of a large
+ * data set. Subtrees are selected by include and exclude paths, whose names may be globs such as {@code *} or
+ * {@code *.img}, and the nodes on the way to them are kept so that the selected nodes resolve at the same paths as
+ * before.
+ * <p>
+ * The new file is laid out by {@code NXWriter}, so nodes are renumbered and only the strings they use are written.
+ * Bitmaps and sounds are copied as they are, without being decompressed, and only those referenced by an extracted
+ * node are written, once each no matter how many nodes share them.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.2
+ * @since 10/19/26
+ */
+public class NXExtractor {
+	private static final Logger logger = LoggerFactory.getLogger(NXExtractor.class);
+	private final NXFile file;
+	private final PathFilter filter = new PathFilter();
+
+	/**
+	 * Creates an extractor of {@code file}.
+	 *
+	 * @param file the file to extract from
+	 */
+	public NXExtractor(NXFile file) {
+		this.file = file;
+	}
+
+	/**
+	 * Extracts the subtrees at {@code path}.
+	 *
+	 * @param path the path to include
+	 * @return this extractor
+	 */
+	public NXExtractor include(String path) {
+		filter.include(path);
+		return this;
+	}
+
+	/**
+	 * Leaves the subtrees at {@code path} out of the extracted file.
+	 *
+	 * @param path the path to exclude
+	 * @return this extractor
+	 */
+	public NXExtractor exclude(String path) {
+		filter.exclude(path);
+		return this;
+	}
+
+	/**
+	 * Writes the selected subtrees to a new file at {@code output}, replacing any existing file.
+	 *
+	 * @param output the path to write to
+	 * @return the number of nodes written, including the root
+	 * @throws IOException if the file could not be written
+	 */
+	public int extract(Path output) throws IOException {
+		long start = System.nanoTime();
+		try (Extraction extraction = new Extraction(output)) {
+			int nodes = extraction.write();
+			logger.info("Extracted {} of {} nodes, {} bitmaps and {} sounds into {} bytes in {} ms.", nodes,
+					file.getHeader().getNodeCount(), extraction.bitmapCount, extraction.soundCount, Files.size(output),
+					(System.nanoTime() - start) / 1000000);
+			return nodes;
+		}
+	}
+
+	/**
+	 * Extracts subtrees of a file from the command line: {@code NXExtractor <file> <output> <path>...}, where a path
+	 * starting with {@code !} is excluded rather than included.
+	 *
+	 * @param args the command line arguments
+	 * @throws IOException if a file could not be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: NXExtractor <file> <output> <path>... (prefix a path with ! to exclude it)");
+			System.exit(1);
+		}
+		try (NXFile file = new LazyNXFile(args[0])) {
+			NXExtractor extractor = new NXExtractor(file);
+			for (int i = 2; i < args.length; i++) {
+				if (args[i].startsWith("!"))
+					extractor.exclude(args[i].substring(1));
+				else
+					extractor.include(args[i]);
+			}
+			extractor.extract(Paths.get(args[1]));
+		}
+	}
+
+	/**
+	 * The state of a single extraction.
+	 */
+	private class Extraction implements AutoCloseable {
+		private final NXWriter writer;
+		private final Map<NXTables, Map<Long, Integer>> bitmaps = new IdentityHashMap<>();
+		private final Map<NXTables, Map<Long, Integer>> sounds = new IdentityHashMap<>();
+		private String[] path = new String[16];
+		private int bitmapCount, soundCount;
+
+		public Extraction(Path output) throws IOException {
+			writer = new NXWriter(output, 1, false);
+		}
+
+		public int write() throws IOException {
+			NXNode root = file.getRoot();
+			int state = filter.state(path, 0, 0, false);
+			copyValue(root, writer.getRoot());
+			if (state != PathFilter.EXCLUDED)
+				copyChildren(root, writer.getRoot(), 0, state == PathFilter.INCLUDED);
+			int nodes = writer.getNodeCount();
+			writer.write();
+			return nodes;
+		}
+
+		/**
+		 * Copies the selected children of {@code source}, at a {@code depth} below the root, along with their
+		 * selected descendants.
+		 */
+		private void copyChildren(NXNode source, NXWriter.Node target, int depth, boolean included)
+				throws IOException {
+			if (depth == path.length)
+				path = Arrays.copyOf(path, depth * 2);
+			NXFile owner = source.getFile();
+			int child = (int) source.getFirstChildIndex(), end = child + source.getChildCount();
+			for (; child < end; child++) {
+				path[depth] = owner.getName(child);
+				int state = included && !filter.hasExcludes() ? PathFilter.INCLUDED
+						: filter.state(path, depth + 1, depth + 1, included);
+				if (state == PathFilter.EXCLUDED)
+					continue;
+				NXNode node = owner.getNode(child);
+				if (state == PathFilter.PARTIAL && !selects(node, depth + 1))
+					continue;
+				NXWriter.Node copy = target.add(path[depth]);
+				copyValue(node, copy);
+				copyChildren(node, copy, depth + 1, state == PathFilter.INCLUDED);
+			}
+		}
+
+		/**
+		 * Determines whether or not any descendant of a partially selected node is included, so that nodes which only
+		 * lead to nothing are left out.
+		 */
+		private boolean selects(NXNode node, int depth) {
+			if (depth == path.length)
+				path = Arrays.copyOf(path, depth * 2);
+			NXFile owner = node.getFile();
+			int child = (int) node.getFirstChildIndex(), end = child + node.getChildCount();
+			for (; child < end; child++) {
+				path[depth] = owner.getName(child);
+				int state = filter.state(path, depth + 1, depth + 1, false);
+				if (state == PathFilter.INCLUDED || (state == PathFilter.PARTIAL && selects(owner.getNode(child),
+						depth + 1)))
+					return true;
+			}
+			return false;
+		}
+
+		private void copyValue(NXNode node, NXWriter.Node target) throws IOException {
+			if (node instanceof NXLongNode) {
+				target.setLong(((NXLongNode) node).getLong());
+			} else if (node instanceof NXDoubleNode) {
+				target.setDouble(((NXDoubleNode) node).getDouble());
+			} else if (node instanceof NXStringNode) {
+				target.setString(((NXStringNode) node).getString());
+			} else if (node instanceof NXPointNode) {
+				target.setPoint(((NXPointNode) node).getX(), ((NXPointNode) node).getY());
+			} else if (node instanceof NXBitmapNode) {
+				NXBitmapNode bitmap = (NXBitmapNode) node;
+				NXTables tables = node.getFile().getTables();
+				Map<Long, Integer> copied = bitmaps.computeIfAbsent(tables, t -> new HashMap<>());
+				Integer index = copied.get(bitmap.getBitmapIndex());
+				if (index == null) {
+					copied.put(bitmap.getBitmapIndex(), index = writer.addCompressedBitmap(
+							tables.getCompressedBitmap(bitmap.getBitmapIndex())));
+					bitmapCount++;
+				}
+				target.setBitmap(index, bitmap.getWidth(), bitmap.getHeight());
+			} else if (node instanceof NXAudioNode) {
+				NXAudioNode audio = (NXAudioNode) node;
+				NXTables tables = node.getFile().getTables();
+				Map<Long, Integer> copied = sounds.computeIfAbsent(tables, t -> new HashMap<>());
+				Integer index = copied.get(audio.getAudioIndex());
+				if (index == null) {
+					copied.put(audio.getAudioIndex(), index = writer.addAudio(tables.getAudio(audio.getAudioIndex(),
+							audio.getLength())));
+					soundCount++;
+				}
+				target.setAudio(index, (int) audio.getLength());
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,548 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.tools;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.internal.NXHeader;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A generator of synthetic, valid PKG4 files. The output is fully determined by the seed and the {@code Profile}, so
+ * tests and benchmarks can recreate the same file on any machine instead of depending on real game data.
+ * <p>
+ * Nodes are laid out breadth first with sorted, contiguous children, exactly as a real file would be. Node records
+ * are streamed straight to the output and table data is spilled to temporary files, so memory use grows with the
+ * number of distinct strings and the width of the tree rather than with the size of the file.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.2
+ * @since 10/19/26
+ */
+public class NXGenerator {
+	private static final Logger logger = LoggerFactory.getLogger(NXGenerator.class);
+	private static final int VALUE_POOL_SIZE = 4096;
+	private static final String[] WORDS = {"action", "alert", "back", "canvas", "delay", "effect", "face", "head",
+			"icon", "info", "jump", "level", "life", "link", "map", "mob", "move", "name", "origin", "portal",
+			"prone", "reward", "skill", "sound", "speed", "stand", "string", "walk", "x", "y", "z"};
+	private final long seed;
+	private final Profile profile;
+
+	/**
+	 * Creates a generator for the specified {@code seed} and {@code profile}.
+	 *
+	 * @param seed    the seed of the generated data
+	 * @param profile the shape of the generated data
+	 */
+	public NXGenerator(long seed, Profile profile) {
+		this.seed = seed;
+		this.profile = profile;
+	}
+
+	/**
+	 * Generates a file at {@code path}, replacing any existing file.
+	 *
+	 * @param path the path to write to
+	 * @throws IOException if the file could not be written
+	 */
+	public void generate(Path path) throws IOException {
+		long start = System.nanoTime();
+		try (Generation generation = new Generation()) {
+			generation.write(path);
+			logger.info("Generated {} nodes, {} strings, {} bitmaps and {} sounds in {} ms.", profile.nodeCount,
+					generation.stringCount, generation.bitmapCount, generation.audioCount,
+					(System.nanoTime() - start) / 1000000);
+		}
+	}
+
+	/**
+	 * Generates a file from the command line: {@code NXGenerator <path> [profile] [seed] [scale]}.
+	 *
+	 * @param args the command line arguments
+	 * @throws IOException if the file could not be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: NXGenerator <path> [tiny|small|production] [seed] [scale]");
+			System.exit(1);
+		}
+		Profile profile = Profile.forName(args.length > 1 ? args[1] : "small");
+		if (args.length > 3)
+			profile = profile.scale(Double.parseDouble(args[3]));
+		new NXGenerator(args.length > 2 ? Long.parseLong(args[2]) : 0, profile).generate(Paths.get(args[0]));
+	}
+
+	/**
+	 * The state of a single run of the generator.
+	 */
+	private class Generation implements AutoCloseable {
+		private final Random rng = new Random(seed);
+		private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+		private final Map<String, Integer> stringIds = new HashMap<>();
+		private final int[] valuePool = new int[VALUE_POOL_SIZE];
+		private final BufferedChannel strings, bitmaps, audio;
+		private long[] stringOffsets = new long[1024], bitmapOffsets = new long[64], audioOffsets = new long[64];
+		private int stringCount, bitmapCount, audioCount, poolSize;
+		private int[] queueCounts = new int[1024], queueDepths = new int[1024];
+		private int queueHead, queueSize;
+
+		public Generation() throws IOException {
+			strings = BufferedChannel.temporary("pkgnx-strings");
+			bitmaps = BufferedChannel.temporary("pkgnx-bitmaps");
+			audio = BufferedChannel.temporary("pkgnx-audio");
+		}
+
+		/**
+		 * Writes the whole file: the header, the node block, the string, bitmap and audio data, and finally their
+		 * offset tables.
+		 */
+		public void write(Path path) throws IOException {
+			int nodeCount = profile.nodeCount;
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				channel.position(NXHeader.SIZE);
+				BufferedChannel out = new BufferedChannel(channel);
+				writeNodes(out, nodeCount);
+				long stringBase = out.appendAligned(strings, 8);
+				long bitmapBase = out.appendAligned(bitmaps, 8);
+				long audioBase = out.appendAligned(audio, 8);
+				out.align(8);
+				long stringTable = out.putOffsets(stringOffsets, stringCount, stringBase);
+				long bitmapTable = out.putOffsets(bitmapOffsets, bitmapCount, bitmapBase);
+				long audioTable = out.putOffsets(audioOffsets, audioCount, audioBase);
+				out.flush();
+				ByteBuffer header = NXHeader.encode(nodeCount, NXHeader.SIZE, stringCount, stringTable,
+						bitmapCount, bitmapTable, audioCount, audioTable);
+				while (header.hasRemaining())
+					channel.write(header, header.position());
+			}
+		}
+
+		/**
+		 * Streams the node records in breadth first order. The children of each parent are allocated as one
+		 * contiguous block as soon as the parent is written, and named when the writer reaches that block.
+		 */
+		private void writeNodes(BufferedChannel out, int nodeCount) throws IOException {
+			int rootChildren = Math.min(Math.max(sampleFanOut(), 1), nodeCount - 1);
+			NXNodeTable.encode(out.reserve(NXNode.NODE_SIZE), intern(""), 1, rootChildren, NXNodeTable.TYPE_NULL, 0);
+			int next = 1 + rootChildren;
+			enqueue(rootChildren, 1);
+			while (queueSize > 0) {
+				int count = queueCounts[queueHead], depth = queueDepths[queueHead];
+				queueHead = (queueHead + 1) % queueCounts.length;
+				queueSize--;
+				int[] names = childNames(count);
+				for (int k = 0; k < count; k++) {
+					boolean lastChance = queueSize == 0 && k == count - 1;
+					int children = 0, type;
+					long payload = 0;
+					if (lastChance || depth < 2 || rng.nextDouble() < profile.folderChance) {
+						children = Math.max(sampleFanOut(), lastChance ? 1 : 0);
+						type = NXNodeTable.TYPE_NULL;
+					} else {
+						double roll = rng.nextDouble();
+						if ((roll -= profile.bitmapChance) < 0) {
+							type = NXNodeTable.TYPE_BITMAP;
+							payload = nextBitmap();
+							if (rng.nextBoolean())
+								children = 1 + rng.nextInt(3);
+						} else if ((roll -= profile.audioChance) < 0) {
+							type = NXNodeTable.TYPE_AUDIO;
+							payload = nextAudio();
+						} else {
+							roll = rng.nextDouble();
+							if (roll < 0.45) {
+								type = NXNodeTable.TYPE_LONG;
+								payload = rng.nextInt(10) < 7 ? rng.nextInt(100) : rng.nextInt();
+							} else if (roll < 0.70) {
+								type = NXNodeTable.TYPE_STRING;
+								payload = nextValue();
+							} else if (roll < 0.80) {
+								type = NXNodeTable.TYPE_DOUBLE;
+								payload = Double.doubleToRawLongBits(rng.nextDouble() * 100);
+							} else if (roll < 0.95) {
+								type = NXNodeTable.TYPE_POINT;
+								payload = NXNodeTable.payload(rng.nextInt(512) - 256, rng.nextInt(512) - 256);
+							} else {
+								type = NXNodeTable.TYPE_NULL;
+							}
+						}
+					}
+					children = Math.min(children, nodeCount - next);
+					NXNodeTable.encode(out.reserve(NXNode.NODE_SIZE), names[k], children == 0 ? 0 : next, children,
+							type, payload);
+					if (children > 0) {
+						enqueue(children, depth + 1);
+						next += children;
+					}
+				}
+			}
+			if (next != nodeCount)
+				throw new NXException("Generated " + next + " nodes instead of " + nodeCount);
+		}
+
+		/**
+		 * Samples the number of children of a folder node, occasionally going above the cutoff at which
+		 * {@code NXNode} switches to hashed children.
+		 */
+		private int sampleFanOut() {
+			if (rng.nextDouble() < profile.largeFanOutChance)
+				return NXNode.MIN_COUNT_FOR_HASH + rng.nextInt(profile.maxFanOut - NXNode.MIN_COUNT_FOR_HASH + 1);
+			return Math.min(1 + rng.nextInt(2 * profile.meanFanOut - 1), NXNode.MIN_COUNT_FOR_HASH - 1);
+		}
+
+		/**
+		 * Names {@code count} siblings, sorted as {@code NXNode} expects: small groups take distinct words,
+		 * everything else is numbered.
+		 */
+		private int[] childNames(int count) throws IOException {
+			String[] names = new String[count];
+			if (count <= 8 && rng.nextBoolean()) {
+				String[] words = WORDS.clone();
+				for (int i = 0; i < count; i++) {
+					int pick = i + rng.nextInt(words.length - i);
+					names[i] = words[pick];
+					words[pick] = words[i];
+				}
+			} else {
+				for (int i = 0; i < count; i++)
+					names[i] = Integer.toString(i);
+			}
+			Arrays.sort(names);
+			int[] ids = new int[count];
+			for (int i = 0; i < count; i++)
+				ids[i] = intern(names[i]);
+			return ids;
+		}
+
+		/**
+		 * Picks the value of a string node, reusing a recent value with the profile's probability.
+		 */
+		private long nextValue() throws IOException {
+			if (poolSize > 0 && rng.nextDouble() < profile.stringReuse)
+				return valuePool[rng.nextInt(poolSize)];
+			StringBuilder value = new StringBuilder();
+			for (int words = 1 + rng.nextInt(4); words > 0; words--)
+				value.append(WORDS[rng.nextInt(WORDS.length)]).append(' ');
+			int id = intern(value.append(rng.nextInt(100000)).toString());
+			if (poolSize < VALUE_POOL_SIZE)
+				valuePool[poolSize++] = id;
+			else
+				valuePool[rng.nextInt(VALUE_POOL_SIZE)] = id;
+			return id;
+		}
+
+		/**
+		 * Generates and compresses a new bitmap: a gradient with some noise, so that it compresses about as well
+		 * as real sprites do.
+		 */
+		private long nextBitmap() throws IOException {
+			int span = profile.maxBitmapSize - profile.minBitmapSize + 1;
+			int width = profile.minBitmapSize + rng.nextInt(span), height = profile.minBitmapSize + rng.nextInt(span);
+			byte[] pixels = new byte[width * height * 4];
+			int base = rng.nextInt(), noise = rng.nextInt(8) + 1;
+			for (int y = 0, i = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					int shade = base + x * 3 + y * 5;
+					pixels[i++] = (byte) shade;
+					pixels[i++] = (byte) (shade >> 8);
+					pixels[i++] = (byte) ((shade >> 16) ^ rng.nextInt(noise));
+					pixels[i++] = (byte) ((x + y) % 16 == 0 ? 0 : 0xFF);
+				}
+			}
+			byte[] compressed = compressor.compress(pixels);
+			bitmaps.align(8);
+			bitmapOffsets = record(bitmapOffsets, bitmapCount, bitmaps.position());
+			bitmaps.putInt(compressed.length);
+			bitmaps.put(compressed);
+			return NXNodeTable.bitmapPayload(bitmapCount++, width, height);
+		}
+
+		/**
+		 * Generates a new sound of random bytes.
+		 */
+		private long nextAudio() throws IOException {
+			byte[] data = new byte[1 + rng.nextInt(profile.maxAudioLength)];
+			rng.nextBytes(data);
+			audio.align(8);
+			audioOffsets = record(audioOffsets, audioCount, audio.position());
+			audio.put(data);
+			return NXNodeTable.payload(audioCount++, data.length);
+		}
+
+		/**
+		 * Gets the index of {@code value} in the string table, adding it if necessary.
+		 */
+		private int intern(String value) throws IOException {
+			Integer id = stringIds.get(value);
+			if (id != null)
+				return id;
+			byte[] data = value.getBytes(StandardCharsets.UTF_8);
+			strings.align(2);
+			stringOffsets = record(stringOffsets, stringCount, strings.position());
+			strings.putShort(data.length);
+			strings.put(data);
+			stringIds.put(value, stringCount);
+			return stringCount++;
+		}
+
+		private void enqueue(int count, int depth) {
+			if (queueSize == queueCounts.length) {
+				int[] counts = new int[queueSize * 2], depths = new int[queueSize * 2];
+				for (int i = 0; i < queueSize; i++) {
+					counts[i] = queueCounts[(queueHead + i) % queueSize];
+					depths[i] = queueDepths[(queueHead + i) % queueSize];
+				}
+				queueCounts = counts;
+				queueDepths = depths;
+				queueHead = 0;
+			}
+			int tail = (queueHead + queueSize++) % queueCounts.length;
+			queueCounts[tail] = count;
+			queueDepths[tail] = depth;
+		}
+
+		private long[] record(long[] offsets, int index, long offset) {
+			if (index == offsets.length)
+				offsets = Arrays.copyOf(offsets, index * 2);
+			offsets[index] = offset;
+			return offsets;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				strings.close();
+			} finally {
+				try {
+					bitmaps.close();
+				} finally {
+					audio.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * The shape of a generated file.
+	 *
+	 * @author Aaron Weiss
+	 * @version 1.0.0
+	 * @since 10/19/26
+	 */
+	public static class Profile implements Cloneable {
+		/**
+		 * A thousand nodes, for unit tests and smoke runs.
+		 */
+		public static final Profile TINY = new Profile(1000, 4, 0.01, 120, 0.2, 0.6, 0.02, 4, 32, 0.01, 4096);
+
+		/**
+		 * Fifty thousand nodes, for quick benchmarks.
+		 */
+		public static final Profile SMALL = new Profile(50000, 6, 0.02, 400, 0.2, 0.7, 0.03, 4, 128, 0.01, 16384);
+
+		/**
+		 * About the size and shape of a full game data file. Use {@code scale} to go beyond it.
+		 */
+		public static final Profile PRODUCTION = new Profile(5000000, 6, 0.02, 2000, 0.18, 0.8, 0.05, 8, 256, 0.002,
+				65536);
+
+		private int nodeCount, meanFanOut, maxFanOut, minBitmapSize, maxBitmapSize, maxAudioLength;
+		private double largeFanOutChance, folderChance, stringReuse, bitmapChance, audioChance;
+
+		private Profile(int nodeCount, int meanFanOut, double largeFanOutChance, int maxFanOut, double folderChance,
+						double stringReuse, double bitmapChance, int minBitmapSize, int maxBitmapSize,
+						double audioChance, int maxAudioLength) {
+			this.nodeCount = nodeCount;
+			this.meanFanOut = meanFanOut;
+			this.largeFanOutChance = largeFanOutChance;
+			this.maxFanOut = maxFanOut;
+			this.folderChance = folderChance;
+			this.stringReuse = stringReuse;
+			this.bitmapChance = bitmapChance;
+			this.minBitmapSize = minBitmapSize;
+			this.maxBitmapSize = maxBitmapSize;
+			this.audioChance = audioChance;
+			this.maxAudioLength = maxAudioLength;
+		}
+
+		/**
+		 * Looks up a preset profile by name.
+		 *
+		 * @param name the name of the profile, such as {@code small}
+		 * @return the profile
+		 * @throws NXException if there is no such profile
+		 */
+		public static Profile forName(String name) {
+			switch (name.toLowerCase()) {
+				case "tiny":
+					return TINY;
+				case "small":
+					return SMALL;
+				case "production":
+					return PRODUCTION;
+				default:
+					throw new NXException("Unknown profile: " + name);
+			}
+		}
+
+		/**
+		 * Creates a copy of this profile with the node count multiplied by {@code factor}.
+		 *
+		 * @param factor the factor to scale by
+		 * @return the scaled profile
+		 */
+		public Profile scale(double factor) {
+			return withNodeCount((int) Math.min(Integer.MAX_VALUE, Math.round(nodeCount * factor)));
+		}
+
+		/**
+		 * Creates a copy of this profile with exactly {@code nodeCount} nodes.
+		 *
+		 * @param nodeCount the number of nodes, at least two
+		 * @return the new profile
+		 */
+		public Profile withNodeCount(int nodeCount) {
+			if (nodeCount < 2)
+				throw new NXException("A generated file needs at least two nodes.");
+			Profile copy = copy();
+			copy.nodeCount = nodeCount;
+			return copy;
+		}
+
+		/**
+		 * Creates a copy of this profile with a different fan-out distribution. Folders usually have about
+		 * {@code mean} children, but with probability {@code largeChance} they have between
+		 * {@code NXNode.MIN_COUNT_FOR_HASH} (where {@code NXNode} switches to hashed children) and {@code max}.
+		 *
+		 * @param mean        the typical number of children
+		 * @param largeChance the probability of a large folder
+		 * @param max         the largest number of children, at most 65535
+		 * @return the new profile
+		 */
+		public Profile withFanOut(int mean, double largeChance, int max) {
+			if (mean < 1 || max < NXNode.MIN_COUNT_FOR_HASH || max > 0xFFFF)
+				throw new NXException("Fan-out must have a mean of at least 1 and a maximum in ["
+						+ NXNode.MIN_COUNT_FOR_HASH + ", 65535].");
+			Profile copy = copy();
+			copy.meanFanOut = mean;
+			copy.largeFanOutChance = largeChance;
+			copy.maxFanOut = max;
+			return copy;
+		}
+
+		/**
+		 * Creates a copy of this profile where a node below the second level has children with probability
+		 * {@code chance}.
+		 *
+		 * @param chance the probability of a folder
+		 * @return the new profile
+		 */
+		public Profile withFolderChance(double chance) {
+			Profile copy = copy();
+			copy.folderChance = chance;
+			return copy;
+		}
+
+		/**
+		 * Creates a copy of this profile where a string node reuses an earlier value with probability
+		 * {@code reuse}.
+		 *
+		 * @param reuse the probability of reuse
+		 * @return the new profile
+		 */
+		public Profile withStringReuse(double reuse) {
+			Profile copy = copy();
+			copy.stringReuse = reuse;
+			return copy;
+		}
+
+		/**
+		 * Creates a copy of this profile with a different bitmap distribution.
+		 *
+		 * @param chance  the probability that a leaf is a bitmap
+		 * @param minSize the smallest width or height
+		 * @param maxSize the largest width or height
+		 * @return the new profile
+		 */
+		public Profile withBitmaps(double chance, int minSize, int maxSize) {
+			if (minSize < 1 || maxSize < minSize || maxSize > 0xFFFF)
+				throw new NXException("Bitmap sizes must be in [1, 65535].");
+			Profile copy = copy();
+			copy.bitmapChance = chance;
+			copy.minBitmapSize = minSize;
+			copy.maxBitmapSize = maxSize;
+			return copy;
+		}
+
+		/**
+		 * Creates a copy of this profile with a different audio distribution.
+		 *
+		 * @param chance    the probability that a leaf is audio
+		 * @param maxLength the longest sound in bytes
+		 * @return the new profile
+		 */
+		public Profile withAudio(double chance, int maxLength) {
+			if (maxLength < 1)
+				throw new NXException("Sounds must be at least one byte long.");
+			Profile copy = copy();
+			copy.audioChance = chance;
+			copy.maxAudioLength = maxLength;
+			return copy;
+		}
+
+		/**
+		 * Gets the number of nodes in a generated file.
+		 *
+		 * @return the node count
+		 */
+		public int getNodeCount() {
+			return nodeCount;
+		}
+
+		private Profile copy() {
+			try {
+				return (Profile) clone();
+			} catch (CloneNotSupportedException e) {
+				throw new AssertionError(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,426 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.tools;
+
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+import us.aaronweiss.pkgnx.internal.NXTables;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A streaming exporter of NX trees to JSON. Nodes are read straight from the raw node table and written depth first
+ * as they are reached, so no node is materialized and memory use grows with the depth of the tree rather than its
+ * size.
+ * <p>
+ * A node without children is written as its value: a number, a string, {@code null}, an {@code [x, y]} array for a
+ * vector, or an object for a bitmap or sound. A node with children is written as an object of its children by name,
+ * with its value, if it has one, under {@code "$value"}. Bitmaps and sounds are written by their table index unless
+ * their data is inlined, in which case the pixels (four bytes each in blue, green, red, alpha order) or the audio data
+ * are written in base 64.
+ * <p>
+ * Paths are given as node names separated by {@code /}, relative to the root, where each name may be a glob such as
+ * {@code *} or {@code *.img}. When any path is included, only the included subtrees and the nodes on the way to them
+ * are exported, and the nodes on the way are written without their values. Excluded subtrees are always left out.
+ *
+ * @author Aaron Weiss
+ * @version 1.1.2
+ * @since 10/19/26
+ */
+public class NXJsonExporter {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final AtomicInteger shardCount = new AtomicInteger();
+	private final NXFile file;
+	private final NXNodeTable nodes;
+	private final NXTables tables;
+	private final PathFilter filter = new PathFilter();
+	private boolean inlineData;
+
+	/**
+	 * Creates an exporter of {@code file}.
+	 *
+	 * @param file the file to export
+	 * @throws NXException if the file has no raw node table
+	 */
+	public NXJsonExporter(NXFile file) {
+		this.file = file;
+		nodes = file.getNodeTable();
+		tables = file.getTables();
+	}
+
+	/**
+	 * Exports only the subtrees at {@code path}, along with the nodes on the way to them.
+	 *
+	 * @param path the path to include
+	 * @return this exporter
+	 */
+	public NXJsonExporter include(String path) {
+		filter.include(path);
+		return this;
+	}
+
+	/**
+	 * Leaves the subtrees at {@code path} out of the export.
+	 *
+	 * @param path the path to exclude
+	 * @return this exporter
+	 */
+	public NXJsonExporter exclude(String path) {
+		filter.exclude(path);
+		return this;
+	}
+
+	/**
+	 * Sets whether bitmap pixels and audio data are written inline, rather than referenced by their table index.
+	 *
+	 * @param inlineData whether or not to inline data
+	 * @return this exporter
+	 */
+	public NXJsonExporter setInlineData(boolean inlineData) {
+		this.inlineData = inlineData;
+		return this;
+	}
+
+	/**
+	 * Exports the whole file to {@code out}. The stream is flushed but not closed.
+	 *
+	 * @param out the stream to write to
+	 * @return the number of nodes written
+	 * @throws IOException if the stream could not be written
+	 */
+	public long export(OutputStream out) throws IOException {
+		return export(0, out);
+	}
+
+	/**
+	 * Exports the subtree of the node at {@code index} to {@code out}. The stream is flushed but not closed.
+	 *
+	 * @param index the index of the node to export
+	 * @param out   the stream to write to
+	 * @return the number of nodes written
+	 * @throws IOException if the stream could not be written
+	 */
+	public long export(int index, OutputStream out) throws IOException {
+		Export export = new Export(out, index);
+		export.write();
+		return export.count;
+	}
+
+	/**
+	 * Exports every child of the node at {@code index} to its own shard, {@code <name>.json} in {@code directory},
+	 * with the shards written in parallel. Every shard is checked before any is written, so a child whose name would
+	 * place its shard outside of {@code directory}, or on top of another shard, fails the whole export.
+	 *
+	 * @param index     the index of the node whose children to export
+	 * @param directory the directory to write the shards to
+	 * @param threads   the number of shards to write at once
+	 * @return the number of nodes written across every shard
+	 * @throws IOException if a shard could not be written, or a child has no safe shard name
+	 */
+	public long exportShards(int index, Path directory, int threads) throws IOException {
+		if (threads < 1)
+			throw new IllegalArgumentException("Exporting shards needs at least one thread.");
+		Path root = directory.toAbsolutePath().normalize();
+		String[] path = pathOf(index);
+		Map<Integer, Path> targets = new LinkedHashMap<>();
+		Set<Path> seen = new HashSet<>();
+		int first = (int) nodes.getFirstChildIndex(index), end = first + nodes.getChildCount(index);
+		for (int child = first; child < end; child++) {
+			String name = name(child);
+			String[] childPath = Arrays.copyOf(path, path.length + 1);
+			childPath[path.length] = name;
+			int state = filter.state(childPath, childPath.length, 0, false);
+			if (state == PathFilter.EXCLUDED || (state == PathFilter.PARTIAL && !selects(childPath, child,
+					childPath.length)))
+				continue;
+			Path target;
+			try {
+				target = root.resolve(name + ".json").normalize();
+			} catch (InvalidPathException e) {
+				throw new IOException("Cannot export shard " + name + ", which is not a valid file name.", e);
+			}
+			if (!target.startsWith(root) || !root.equals(target.getParent()))
+				throw new IOException("Cannot export shard " + name + " outside of " + root + ".");
+			if (!seen.add(target))
+				throw new IOException("Cannot export shard " + name + " over another shard at " + target + ".");
+			targets.put(child, target);
+		}
+		Files.createDirectories(root);
+		String prefix = "pkgnx-json-" + shardCount.incrementAndGet() + "-";
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<Long>> shards = new ArrayList<>();
+			for (Map.Entry<Integer, Path> target : targets.entrySet()) {
+				shards.add(pool.submit(() -> {
+					try (OutputStream out = Files.newOutputStream(target.getValue())) {
+						return export(target.getKey(), out);
+					}
+				}));
+			}
+			long count = 0;
+			for (Future<Long> shard : shards)
+				count += shard.get();
+			return count;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while exporting shards.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException("Failed to export a shard.", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private String name(int index) {
+		return tables.getString(nodes.getNameIndex(index));
+	}
+
+	/**
+	 * Determines whether or not any descendant of the partially selected node at {@code index}, whose path is the
+	 * first {@code depth} names of {@code path}, is included, so that nodes which only lead to nothing are left out.
+	 */
+	private boolean selects(String[] path, int index, int depth) {
+		if (depth == path.length)
+			path = Arrays.copyOf(path, depth * 2 + 8);
+		int child = (int) nodes.getFirstChildIndex(index), end = child + nodes.getChildCount(index);
+		for (; child < end; child++) {
+			path[depth] = name(child);
+			int state = filter.state(path, depth + 1, depth + 1, false);
+			if (state == PathFilter.INCLUDED || (state == PathFilter.PARTIAL && selects(path, child, depth + 1)))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the names of the nodes from below the root down to the node at {@code index}.
+	 */
+	private String[] pathOf(int index) {
+		int depth = 0;
+		for (int i = index; (i = file.getParentIndex(i)) >= 0; )
+			depth++;
+		String[] path = new String[depth];
+		for (int i = depth - 1, cursor = index; i >= 0; i--, cursor = file.getParentIndex(cursor))
+			path[i] = name(cursor);
+		return path;
+	}
+
+	/**
+	 * The state of a single export to a stream.
+	 */
+	private class Export {
+		private final Writer writer;
+		private final char[] buf = new char[BUFFER_SIZE];
+		private final int root;
+		private String[] path;
+		private int size;
+		private long count;
+
+		public Export(OutputStream out, int root) {
+			writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			this.root = root;
+			path = pathOf(root);
+		}
+
+		public void write() throws IOException {
+			int state = filter.state(path, path.length, 0, false);
+			if (state == PathFilter.EXCLUDED || (state == PathFilter.PARTIAL && !selects(path, root, path.length)))
+				append("null");
+			else
+				writeNode(root, path.length, state == PathFilter.INCLUDED);
+			append('\n');
+			flush();
+			writer.flush();
+		}
+
+		/**
+		 * Writes the node at {@code index}, at a {@code depth} below the root, along with every exported descendant. A
+		 * node which is not {@code included} is only on the way to an included one, and is written without its value.
+		 */
+		private void writeNode(int index, int depth, boolean included) throws IOException {
+			count++;
+			int childCount = nodes.getChildCount(index);
+			int type = nodes.getType(index);
+			if (childCount == 0) {
+				writeValue(index, type);
+				return;
+			}
+			append('{');
+			boolean first = true;
+			if (included && type != NXNodeTable.TYPE_NULL) {
+				append("\"$value\":");
+				writeValue(index, type);
+				first = false;
+			}
+			if (depth == path.length)
+				path = Arrays.copyOf(path, depth * 2 + 8);
+			int child = (int) nodes.getFirstChildIndex(index), end = child + childCount;
+			for (; child < end; child++) {
+				String name = name(child);
+				path[depth] = name;
+				int state = included && !filter.hasExcludes() ? PathFilter.INCLUDED
+						: filter.state(path, depth + 1, depth + 1, included);
+				if (state == PathFilter.EXCLUDED || (state == PathFilter.PARTIAL && !selects(path, child, depth + 1)))
+					continue;
+				if (!first)
+					append(',');
+				first = false;
+				writeString(name);
+				append(':');
+				writeNode(child, depth + 1, state == PathFilter.INCLUDED);
+			}
+			append('}');
+		}
+
+		private void writeValue(int index, int type) throws IOException {
+			switch (type) {
+				case NXNodeTable.TYPE_NULL:
+					append("null");
+					break;
+				case NXNodeTable.TYPE_LONG:
+					append(Long.toString(nodes.getLong(index)));
+					break;
+				case NXNodeTable.TYPE_DOUBLE:
+					double value = nodes.getDouble(index);
+					append(Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value));
+					break;
+				case NXNodeTable.TYPE_STRING:
+					writeString(tables.getString(nodes.getStringIndex(index)));
+					break;
+				case NXNodeTable.TYPE_POINT:
+					append('[');
+					append(Integer.toString(nodes.getX(index)));
+					append(',');
+					append(Integer.toString(nodes.getY(index)));
+					append(']');
+					break;
+				case NXNodeTable.TYPE_BITMAP:
+					int width = nodes.getWidth(index), height = nodes.getHeight(index);
+					append("{\"width\":" + width + ",\"height\":" + height);
+					if (inlineData)
+						writeData("pixels", tables.getPixels(nodes.getBitmapIndex(index), width, height));
+					else
+						append(",\"bitmap\":" + nodes.getBitmapIndex(index));
+					append('}');
+					break;
+				case NXNodeTable.TYPE_AUDIO:
+					long length = nodes.getAudioLength(index);
+					append("{\"length\":" + length);
+					if (inlineData)
+						writeData("data", tables.getAudio(nodes.getAudioIndex(index), length));
+					else
+						append(",\"audio\":" + nodes.getAudioIndex(index));
+					append('}');
+					break;
+				default:
+					throw new NXException("Cannot export node " + index + " of unknown type (" + type + ").");
+			}
+		}
+
+		private void writeData(String key, byte[] data) throws IOException {
+			append(",\"" + key + "\":\"");
+			append(data == null ? "" : Base64.getEncoder().encodeToString(data));
+			append('"');
+		}
+
+		private void writeString(String value) throws IOException {
+			append('"');
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c == '"' || c == '\\') {
+					append('\\');
+					append(c);
+				} else if (c < 0x20) {
+					switch (c) {
+						case '\n':
+							append("\\n");
+							break;
+						case '\r':
+							append("\\r");
+							break;
+						case '\t':
+							append("\\t");
+							break;
+						default:
+							append(String.format("\\u%04x", (int) c));
+					}
+				} else {
+					append(c);
+				}
+			}
+			append('"');
+		}
+
+		private void append(char c) throws IOException {
+			if (size == buf.length)
+				flush();
+			buf[size++] = c;
+		}
+
+		private void append(String value) throws IOException {
+			for (int offset = 0, remaining = value.length(); remaining > 0; ) {
+				if (size == buf.length)
+					flush();
+				int chunk = Math.min(remaining, buf.length - size);
+				value.getChars(offset, offset + chunk, buf, size);
+				size += chunk;
+				offset += chunk;
+				remaining -= chunk;
+			}
+		}
+
+		private void flush() throws IOException {
+			writer.write(buf, 0, size);
+			size = 0;
+		}
+	}
+}
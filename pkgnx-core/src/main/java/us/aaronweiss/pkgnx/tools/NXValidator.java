@@ -0,0 +1,582 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.tools;
+
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.internal.NXHeader;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A validator of the structure of PKG4 files, which finds the corruption that would otherwise only surface as a
+ * failure deep inside a lookup. The file is mapped on its own, without being opened as an {@code NXFile}, and checked
+ * for the following:
+ * <ul>
+ * <li>the header, and that every section it describes lies within the file;</li>
+ * <li>every node record: its type, that its name and payload index into their tables, that its children lie within
+ * the node table after it, and that they are sorted by name with no duplicates, as {@code NXNode} searches them;</li>
+ * <li>every string, bitmap and sound offset, and that every string is well-formed UTF-8;</li>
+ * <li>optionally, that every bitmap decompresses to exactly the size its nodes give it.</li>
+ * </ul>
+ * The node block and each table are split into ranges which are checked in parallel, so a file can be validated at
+ * about the speed it can be read.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.2
+ * @since 10/19/26
+ */
+public class NXValidator {
+	private static final int CHUNK_SIZE = 1 << 16;
+	private static final long MAX_LZ4_RATIO = 255;
+	private static final AtomicInteger poolCount = new AtomicInteger();
+	private static final ThreadLocal<CharsetDecoder> utfDecoder = new ThreadLocal<CharsetDecoder>() {
+		@Override
+		protected CharsetDecoder initialValue() {
+			return StandardCharsets.UTF_8.newDecoder();
+		}
+	};
+	private final Path path;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int maxProblems = 100;
+	private boolean checkBitmaps;
+
+	/**
+	 * Creates a validator of the file at {@code path}.
+	 *
+	 * @param path the path of the file to validate
+	 */
+	public NXValidator(Path path) {
+		this.path = path;
+	}
+
+	/**
+	 * Sets the number of threads to check ranges of the file with, by default one per processor.
+	 *
+	 * @param threads the number of threads
+	 * @return this validator
+	 */
+	public NXValidator setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("A validator needs at least one thread.");
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Sets the number of problems to describe in the report, by default 100. Every problem is still counted.
+	 *
+	 * @param maxProblems the number of problems to keep
+	 * @return this validator
+	 */
+	public NXValidator setMaxProblems(int maxProblems) {
+		this.maxProblems = maxProblems;
+		return this;
+	}
+
+	/**
+	 * Sets whether or not every bitmap is decompressed to check that it decodes, which costs far more than the rest
+	 * of the checks together.
+	 *
+	 * @param checkBitmaps whether or not to decompress bitmaps
+	 * @return this validator
+	 */
+	public NXValidator setCheckBitmaps(boolean checkBitmaps) {
+		this.checkBitmaps = checkBitmaps;
+		return this;
+	}
+
+	/**
+	 * Validates the file.
+	 *
+	 * @return the report of the validation
+	 * @throws IOException if the file could not be read
+	 */
+	public Report validate() throws IOException {
+		try (FileChannel channel = FileChannel.open(path)) {
+			Validation validation = new Validation(channel.size());
+			if (channel.size() > Integer.MAX_VALUE)
+				validation.problem("File is " + channel.size() + " bytes, more than pkgnx can map.");
+			else
+				validation.run(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			return validation.report();
+		}
+	}
+
+	/**
+	 * Validates a file from the command line: {@code NXValidator <path> [threads] [--bitmaps]}. Exits with status 1 if
+	 * the file has any problems.
+	 *
+	 * @param args the command line arguments
+	 * @throws IOException if the file could not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: NXValidator <path> [threads] [--bitmaps]");
+			System.exit(2);
+		}
+		NXValidator validator = new NXValidator(Paths.get(args[0]));
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--bitmaps"))
+				validator.setCheckBitmaps(true);
+			else
+				validator.setThreads(Integer.parseInt(args[i]));
+		}
+		Report report = validator.validate();
+		System.out.println(report);
+		for (String problem : report.getProblems())
+			System.out.println("  " + problem);
+		System.exit(report.isValid() ? 0 : 1);
+	}
+
+	/**
+	 * The state of a single validation of the file.
+	 */
+	private class Validation {
+		private final long size;
+		private final long start = System.nanoTime();
+		private final List<String> problems = Collections.synchronizedList(new ArrayList<>());
+		private final AtomicLong problemCount = new AtomicLong();
+		private final AtomicLong decodedBitmaps = new AtomicLong();
+		private ByteBuffer buf;
+		private long nodeCount, nodeOffset, stringCount, stringOffset, bitmapCount, bitmapOffset, soundCount,
+				soundOffset;
+		private boolean nodesValid, stringsValid, bitmapsValid, soundsValid;
+		private AtomicLongArray decoded;
+		private LZ4SafeDecompressor decompressor;
+
+		public Validation(long size) {
+			this.size = size;
+		}
+
+		public void problem(String problem) {
+			if (problemCount.getAndIncrement() < maxProblems)
+				problems.add(problem);
+		}
+
+		public void run(ByteBuffer mapping) throws IOException {
+			buf = mapping.order(ByteOrder.LITTLE_ENDIAN);
+			if (!checkHeader())
+				return;
+			if (checkBitmaps && bitmapsValid) {
+				decoded = new AtomicLongArray((int) ((bitmapCount + 63) >>> 6));
+				decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+			}
+			String prefix = "pkgnx-validator-" + poolCount.incrementAndGet() + "-";
+			AtomicInteger threadCount = new AtomicInteger();
+			ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+				Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				List<Future<?>> chunks = new ArrayList<>();
+				if (nodesValid)
+					for (long i = 0; i < nodeCount; i += CHUNK_SIZE) {
+						int from = (int) i, to = (int) Math.min(nodeCount, i + CHUNK_SIZE);
+						chunks.add(pool.submit(() -> checkNodes(from, to)));
+					}
+				if (stringsValid)
+					for (long i = 0; i < stringCount; i += CHUNK_SIZE) {
+						int from = (int) i, to = (int) Math.min(stringCount, i + CHUNK_SIZE);
+						chunks.add(pool.submit(() -> checkStrings(from, to)));
+					}
+				if (bitmapsValid)
+					for (long i = 0; i < bitmapCount; i += CHUNK_SIZE) {
+						int from = (int) i, to = (int) Math.min(bitmapCount, i + CHUNK_SIZE);
+						chunks.add(pool.submit(() -> checkBlobs("Bitmap", bitmapOffset, from, to)));
+					}
+				if (soundsValid)
+					for (long i = 0; i < soundCount; i += CHUNK_SIZE) {
+						int from = (int) i, to = (int) Math.min(soundCount, i + CHUNK_SIZE);
+						chunks.add(pool.submit(() -> checkBlobs("Sound", soundOffset, from, to)));
+					}
+				for (Future<?> chunk : chunks) {
+					try {
+						chunk.get();
+					} catch (ExecutionException e) {
+						problem("Validation failed unexpectedly: " + e.getCause());
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while validating " + path + ".", e);
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+
+		/**
+		 * Checks the header and the bounds of every section it describes, noting which sections can be checked further.
+		 *
+		 * @return whether or not the header could be read at all
+		 */
+		private boolean checkHeader() {
+			if (size < NXHeader.SIZE) {
+				problem("File is " + size + " bytes, too short for a header.");
+				return false;
+			}
+			byte[] magic = new byte[4];
+			for (int i = 0; i < magic.length; i++)
+				magic[i] = buf.get(i);
+			String found = new String(magic, StandardCharsets.ISO_8859_1);
+			if (!found.equals(NXHeader.MAGIC)) {
+				problem("Invalid format " + found + ", expecting " + NXHeader.MAGIC + ".");
+				return false;
+			}
+			nodeCount = Integer.toUnsignedLong(buf.getInt(4));
+			nodeOffset = buf.getLong(8);
+			stringCount = Integer.toUnsignedLong(buf.getInt(16));
+			stringOffset = buf.getLong(20);
+			bitmapCount = Integer.toUnsignedLong(buf.getInt(28));
+			bitmapOffset = buf.getLong(32);
+			soundCount = Integer.toUnsignedLong(buf.getInt(40));
+			soundOffset = buf.getLong(44);
+			if (nodeCount == 0)
+				problem("Node block is empty, so there is no root node.");
+			nodesValid = nodeCount > 0 && checkSection("Node block", nodeCount, nodeOffset, NXNode.NODE_SIZE);
+			stringsValid = checkSection("String table", stringCount, stringOffset, 8);
+			bitmapsValid = checkSection("Bitmap table", bitmapCount, bitmapOffset, 8);
+			soundsValid = checkSection("Sound table", soundCount, soundOffset, 8);
+			return true;
+		}
+
+		private boolean checkSection(String name, long count, long offset, int entrySize) {
+			if (count == 0)
+				return true;
+			if (offset < NXHeader.SIZE || offset > size || count > (size - offset) / entrySize) {
+				problem(name + " of " + count + " entries at " + offset + " does not fit in the file (" + size
+						+ " bytes).");
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Checks the records of the nodes from {@code from} up to {@code to}, and the names of their children.
+		 */
+		private void checkNodes(int from, int to) {
+			for (int i = from; i < to; i++) {
+				try {
+					checkNode(i);
+				} catch (RuntimeException e) {
+					problem("Node " + i + " could not be checked: " + e);
+				}
+			}
+		}
+
+		/**
+		 * Checks the record of node {@code i}, and the names of its children.
+		 */
+		private void checkNode(int i) {
+			int record = (int) (nodeOffset + (long) i * NXNode.NODE_SIZE);
+			long name = Integer.toUnsignedLong(buf.getInt(record));
+			long first = Integer.toUnsignedLong(buf.getInt(record + 4));
+			int count = Short.toUnsignedInt(buf.getShort(record + 8));
+			int type = Short.toUnsignedInt(buf.getShort(record + 10));
+			long payload = Integer.toUnsignedLong(buf.getInt(record + 12));
+			if (name >= stringCount)
+				problem("Node " + i + " has name " + name + " past the end of the string table (" + stringCount
+						+ " strings).");
+			if (count > 0) {
+				if (first <= i || first + count > nodeCount)
+					problem("Node " + i + " has children " + first + " to " + (first + count - 1)
+							+ " outside of the nodes after it (" + nodeCount + " nodes).");
+				else if (stringsValid)
+					checkChildNames(i, (int) first, count);
+			}
+			switch (type) {
+				case NXNodeTable.TYPE_NULL:
+				case NXNodeTable.TYPE_LONG:
+				case NXNodeTable.TYPE_DOUBLE:
+				case NXNodeTable.TYPE_POINT:
+					break;
+				case NXNodeTable.TYPE_STRING:
+					if (payload >= stringCount)
+						problem("Node " + i + " has string " + payload + " past the end of the string table ("
+								+ stringCount + " strings).");
+					break;
+				case NXNodeTable.TYPE_BITMAP:
+					if (payload >= bitmapCount)
+						problem("Node " + i + " has bitmap " + payload + " past the end of the bitmap table ("
+								+ bitmapCount + " bitmaps).");
+					else if (decoded != null)
+						checkBitmap(i, (int) payload, Short.toUnsignedInt(buf.getShort(record + 16)),
+								Short.toUnsignedInt(buf.getShort(record + 18)));
+					break;
+				case NXNodeTable.TYPE_AUDIO:
+					if (payload >= soundCount)
+						problem("Node " + i + " has sound " + payload + " past the end of the sound table ("
+								+ soundCount + " sounds).");
+					else if (soundsValid)
+						checkSound(i, (int) payload, Integer.toUnsignedLong(buf.getInt(record + 16)));
+					break;
+				default:
+					problem("Node " + i + " has invalid type " + type + ".");
+			}
+		}
+
+		/**
+		 * Checks that the children of a node are strictly sorted by name, as the binary search of {@code NXNode}
+		 * assumes.
+		 */
+		private void checkChildNames(int parent, int first, int count) {
+			String previous = null;
+			for (int child = first; child < first + count; child++) {
+				long name = Integer.toUnsignedLong(buf.getInt((int) (nodeOffset + (long) child * NXNode.NODE_SIZE)));
+				String current = name < stringCount ? readString(name) : null;
+				if (current == null)
+					return;
+				if (previous != null && previous.compareTo(current) >= 0) {
+					problem("Node " + parent + " has " + (previous.equals(current) ? "duplicate" : "unsorted")
+							+ " children named " + previous + " and " + current + " at node " + child + ".");
+					return;
+				}
+				previous = current;
+			}
+		}
+
+		/**
+		 * Reads a string for comparison, or null if its offset or contents are broken, which the string pass reports.
+		 */
+		private String readString(long index) {
+			long offset = buf.getLong((int) (stringOffset + index * 8));
+			if (offset < 0 || offset > size - 2)
+				return null;
+			int length = Short.toUnsignedInt(buf.getShort((int) offset));
+			if (length > size - offset - 2)
+				return null;
+			try {
+				return decode((int) offset + 2, length).toString();
+			} catch (CharacterCodingException e) {
+				return null;
+			}
+		}
+
+		private CharBuffer decode(int offset, int length) throws CharacterCodingException {
+			ByteBuffer data = buf.duplicate();
+			data.limit(offset + length).position(offset);
+			return utfDecoder.get().decode(data);
+		}
+
+		/**
+		 * Checks that the strings from {@code from} up to {@code to} lie within the file and are well-formed UTF-8.
+		 */
+		private void checkStrings(int from, int to) {
+			for (int i = from; i < to; i++) {
+				long offset = buf.getLong((int) (stringOffset + (long) i * 8));
+				if (offset < NXHeader.SIZE || offset > size - 2) {
+					problem("String " + i + " is at " + offset + ", outside of the file.");
+					continue;
+				}
+				int length = Short.toUnsignedInt(buf.getShort((int) offset));
+				if (length > size - offset - 2) {
+					problem("String " + i + " of " + length + " bytes at " + offset
+							+ " runs past the end of the file.");
+					continue;
+				}
+				try {
+					decode((int) offset + 2, length);
+				} catch (CharacterCodingException e) {
+					problem("String " + i + " at " + offset + " is not valid UTF-8.");
+				}
+			}
+		}
+
+		/**
+		 * Checks that the bitmaps or sounds from {@code from} up to {@code to} start within the file, and for bitmaps
+		 * that their compressed data ends within it too.
+		 */
+		private void checkBlobs(String kind, long tableOffset, int from, int to) {
+			boolean bitmaps = tableOffset == bitmapOffset;
+			for (int i = from; i < to; i++) {
+				long offset = buf.getLong((int) (tableOffset + (long) i * 8));
+				if (offset < NXHeader.SIZE || offset > size - (bitmaps ? 4 : 0)) {
+					problem(kind + " " + i + " is at " + offset + ", outside of the file.");
+				} else if (bitmaps) {
+					long length = Integer.toUnsignedLong(buf.getInt((int) offset));
+					if (length > size - offset - 4)
+						problem(kind + " " + i + " of " + length + " bytes at " + offset
+								+ " runs past the end of the file.");
+				}
+			}
+		}
+
+		/**
+		 * Checks that a sound referenced by node {@code node} with the given {@code length} ends within the file.
+		 */
+		private void checkSound(int node, int sound, long length) {
+			long offset = buf.getLong((int) (soundOffset + (long) sound * 8));
+			if (offset >= NXHeader.SIZE && offset <= size && length > size - offset)
+				problem("Node " + node + " has sound " + sound + " of " + length + " bytes at " + offset
+						+ ", which runs past the end of the file.");
+		}
+
+		/**
+		 * Decompresses a bitmap referenced by node {@code node}, unless another node has already done so.
+		 */
+		private void checkBitmap(int node, int bitmap, int width, int height) {
+			long bit = 1L << (bitmap & 63);
+			int word = bitmap >>> 6;
+			long bits;
+			do {
+				bits = decoded.get(word);
+				if ((bits & bit) != 0)
+					return;
+			} while (!decoded.compareAndSet(word, bits, bits | bit));
+			long offset = buf.getLong((int) (bitmapOffset + (long) bitmap * 8));
+			if (offset < NXHeader.SIZE || offset > size - 4)
+				return;
+			long length = Integer.toUnsignedLong(buf.getInt((int) offset));
+			if (length > size - offset - 4)
+				return;
+			long expected = (long) width * height * 4;
+			if (expected > length * MAX_LZ4_RATIO || expected > Integer.MAX_VALUE) {
+				problem("Node " + node + " has bitmap " + bitmap + " of " + length + " compressed bytes, which cannot "
+						+ "decompress to " + width + "x" + height + ".");
+				return;
+			}
+			byte[] compressed = new byte[(int) length];
+			ByteBuffer data = buf.duplicate();
+			data.position((int) offset + 4);
+			data.get(compressed);
+			try {
+				int actual = decompressor.decompress(compressed, 0, compressed.length, new byte[(int) expected], 0,
+						(int) expected);
+				if (actual != expected)
+					problem("Node " + node + " has bitmap " + bitmap + " which decompresses to " + actual
+							+ " bytes instead of " + expected + " for " + width + "x" + height + ".");
+			} catch (LZ4Exception e) {
+				problem("Node " + node + " has bitmap " + bitmap + " which does not decompress to " + width + "x"
+						+ height + ": " + e.getMessage());
+			}
+			decodedBitmaps.incrementAndGet();
+		}
+
+		public Report report() {
+			return new Report(size, nodeCount, stringCount, bitmapCount, soundCount, decodedBitmaps.get(),
+					problemCount.get(), new ArrayList<>(problems), System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * The findings of a validation.
+	 *
+	 * @author Aaron Weiss
+	 * @version 1.0.0
+	 * @since 10/19/26
+	 */
+	public static class Report {
+		private final long size, nodes, strings, bitmaps, sounds, decodedBitmaps, problemCount, nanos;
+		private final List<String> problems;
+
+		private Report(long size, long nodes, long strings, long bitmaps, long sounds, long decodedBitmaps,
+				long problemCount, List<String> problems, long nanos) {
+			this.size = size;
+			this.nodes = nodes;
+			this.strings = strings;
+			this.bitmaps = bitmaps;
+			this.sounds = sounds;
+			this.decodedBitmaps = decodedBitmaps;
+			this.problemCount = problemCount;
+			this.problems = Collections.unmodifiableList(problems);
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Determines whether or not the file has no problems.
+		 *
+		 * @return whether or not the file is valid
+		 */
+		public boolean isValid() {
+			return problemCount == 0;
+		}
+
+		/**
+		 * Gets the number of problems found.
+		 *
+		 * @return the number of problems
+		 */
+		public long getProblemCount() {
+			return problemCount;
+		}
+
+		/**
+		 * Gets descriptions of the first problems found, up to the limit set on the validator, in no particular order.
+		 *
+		 * @return the problems
+		 */
+		public List<String> getProblems() {
+			return problems;
+		}
+
+		/**
+		 * Gets the number of bitmaps which were decompressed.
+		 *
+		 * @return the number of decompressed bitmaps
+		 */
+		public long getDecodedBitmapCount() {
+			return decodedBitmaps;
+		}
+
+		/**
+		 * Gets the time taken by the validation.
+		 *
+		 * @return the elapsed time in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %d nodes, %d strings, %d bitmaps (%d decompressed) and %d sounds in %d bytes "
+							+ "checked in %d ms (%.0f MB/s).", isValid() ? "Valid" : problemCount + " problems", nodes,
+					strings, bitmaps, decodedBitmaps, sounds, size, nanos / 1000000,
+					nanos == 0 ? 0 : size * 1e3 / nanos);
+		}
+	}
+}
@@ -0,0 +1,533 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.tools;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import us.aaronweiss.pkgnx.NXException;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.internal.NXHeader;
+import us.aaronweiss.pkgnx.internal.NXNodeTable;
+import us.aaronweiss.pkgnx.util.PairSort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A writer of PKG4 files. Nodes are added to a tree in any order, by hand or streamed in from another source, and
+ * the file is laid out when {@code write} is called: strings are deduplicated, every node's children are made
+ * contiguous and sorted by name as {@code NXNode} expects, and nodes are numbered breadth first.
+ * <p>
+ * Bitmaps are LZ4-compressed on a pool of worker threads while the tree is being built, optionally with LZ4HC for
+ * smaller output. String, bitmap and audio data are spilled to temporary files as they arrive and copied into the
+ * output with {@code FileChannel} transfers. The heap holds about twenty bytes per node while the tree is built, and
+ * about twice that while it is laid out, plus one copy of every distinct name and string value, so files much larger
+ * than the heap can be written as long as their strings fit. The output is written to a temporary file next to the
+ * target and moved into place once complete, so a failed write never leaves a truncated file behind. The tree is not
+ * thread-safe and must be built from a single thread.
+ *
+ * @author Aaron Weiss
+ * @version 1.2.0
+ * @since 10/19/26
+ */
+public class NXWriter implements Closeable {
+	private static final int MAX_CHILDREN = 0xFFFF;
+	private final Path path;
+	private final LZ4Compressor compressor;
+	private final ExecutorService workers;
+	private final Semaphore inFlight;
+	private final BufferedChannel strings, bitmaps, audio;
+	private final Map<String, Integer> stringIds = new HashMap<>();
+	private final List<String> stringValues = new ArrayList<>();
+	private long[] stringOffsets = new long[1024], bitmapOffsets = new long[64], audioOffsets = new long[64];
+	private int bitmapCount, audioCount;
+	private int[] parents = new int[1024], names = new int[1024];
+	private short[] types = new short[1024];
+	private long[] payloads = new long[1024];
+	private int nodeCount;
+	private volatile Throwable failure;
+	private boolean written, closed;
+
+	/**
+	 * Creates a writer to {@code path} which compresses bitmaps with LZ4 on one thread per processor.
+	 *
+	 * @param path the path to write to
+	 * @throws IOException if the temporary files could not be created
+	 */
+	public NXWriter(Path path) throws IOException {
+		this(path, Runtime.getRuntime().availableProcessors(), false);
+	}
+
+	/**
+	 * Creates a writer to {@code path}.
+	 *
+	 * @param path            the path to write to
+	 * @param threads         the number of threads to compress bitmaps on
+	 * @param highCompression whether to compress bitmaps with LZ4HC, which is slower but smaller
+	 * @throws IOException if the temporary files could not be created
+	 */
+	public NXWriter(Path path, int threads, boolean highCompression) throws IOException {
+		if (threads < 1)
+			throw new NXException("A writer needs at least one compression thread.");
+		this.path = path;
+		LZ4Factory factory = LZ4Factory.fastestInstance();
+		compressor = highCompression ? factory.highCompressor() : factory.fastCompressor();
+		workers = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "pkgnx-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		inFlight = new Semaphore(threads * 2);
+		strings = BufferedChannel.temporary("pkgnx-strings");
+		bitmaps = BufferedChannel.temporary("pkgnx-bitmaps");
+		audio = BufferedChannel.temporary("pkgnx-audio");
+		addNode(-1, "");
+	}
+
+	/**
+	 * Gets the root node of the tree.
+	 *
+	 * @return the root node
+	 */
+	public Node getRoot() {
+		return new Node(0);
+	}
+
+	/**
+	 * Gets the number of nodes added so far, including the root.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Adds a bitmap which is already LZ4-compressed to the bitmap table, so that any number of nodes can share it
+	 * through {@code Node.setBitmap(int, int, int)}.
+	 *
+	 * @param compressed the compressed pixels
+	 * @return the index of the bitmap
+	 * @throws IOException if the bitmap could not be spilled
+	 */
+	public int addCompressedBitmap(byte[] compressed) throws IOException {
+		checkOpen();
+		int bitmap = bitmapCount++;
+		putBitmap(bitmap, compressed);
+		return bitmap;
+	}
+
+	/**
+	 * Adds a sound to the audio table, so that any number of nodes can share it through
+	 * {@code Node.setAudio(int, int)}.
+	 *
+	 * @param data the audio data
+	 * @return the index of the sound
+	 * @throws IOException if the audio could not be spilled
+	 */
+	public int addAudio(byte[] data) throws IOException {
+		checkOpen();
+		int sound = audioCount++;
+		audio.align(8);
+		audioOffsets = record(audioOffsets, sound, audio.position());
+		audio.put(data);
+		return sound;
+	}
+
+	/**
+	 * Waits for outstanding bitmaps to be compressed, then lays out and writes the file and releases the writer.
+	 *
+	 * @throws IOException if the file could not be written
+	 * @throws NXException if the tree is invalid, such as when two siblings share a name
+	 */
+	public void write() throws IOException {
+		checkOpen();
+		written = true;
+		try {
+			workers.shutdown();
+			if (!workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS))
+				throw new InterruptedIOException("Timed out compressing bitmaps.");
+			if (failure != null)
+				throw new IOException("Failed to compress a bitmap.", failure);
+			Path absolute = path.toAbsolutePath();
+			Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+			try {
+				try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+					writeTo(channel);
+				}
+				Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing bitmaps.");
+		} finally {
+			close();
+		}
+	}
+
+	private void writeTo(FileChannel channel) throws IOException {
+		channel.position(NXHeader.SIZE);
+		BufferedChannel out = new BufferedChannel(channel);
+		writeNodes(out);
+		long stringBase = out.appendAligned(strings, 8);
+		long bitmapBase = out.appendAligned(bitmaps, 8);
+		long audioBase = out.appendAligned(audio, 8);
+		out.align(8);
+		long stringTable = out.putOffsets(stringOffsets, stringValues.size(), stringBase);
+		long bitmapTable = out.putOffsets(bitmapOffsets, bitmapCount, bitmapBase);
+		long audioTable = out.putOffsets(audioOffsets, audioCount, audioBase);
+		out.flush();
+		ByteBuffer header = NXHeader.encode(nodeCount, NXHeader.SIZE, stringValues.size(), stringTable, bitmapCount,
+				bitmapTable, audioCount, audioTable);
+		while (header.hasRemaining())
+			channel.write(header, header.position());
+	}
+
+	/**
+	 * Releases the writer and deletes its temporary files. If {@code write} has not been called, nothing is written
+	 * and outstanding bitmaps are abandoned.
+	 *
+	 * @throws IOException if the temporary files could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		workers.shutdownNow();
+		try {
+			strings.close();
+		} finally {
+			try {
+				bitmaps.close();
+			} finally {
+				audio.close();
+			}
+		}
+	}
+
+	/**
+	 * Writes the node records in breadth first order. All children are sorted at once by parent and then by the
+	 * rank of their name, which leaves each sibling group contiguous and in the order that the binary search in
+	 * {@code NXNode} expects.
+	 */
+	private void writeNodes(BufferedChannel out) throws IOException {
+		int[] rank = rankStrings();
+		int pairs = nodeCount - 1;
+		long[] keys = new long[pairs];
+		int[] children = new int[pairs];
+		for (int i = 1; i < nodeCount; i++) {
+			keys[i - 1] = ((long) parents[i] << 32) | rank[names[i]];
+			children[i - 1] = i;
+		}
+		PairSort.sort(keys, children, pairs);
+		int[] starts = new int[nodeCount + 1];
+		for (int k = 0; k < pairs; k++) {
+			if (k > 0 && keys[k] == keys[k - 1])
+				throw new NXException("Duplicate child name \"" + stringValues.get(names[children[k]]) + "\".");
+			starts[parents[children[k]] + 1]++;
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			if (starts[i + 1] > MAX_CHILDREN)
+				throw new NXException("A node cannot have more than " + MAX_CHILDREN + " children.");
+			starts[i + 1] += starts[i];
+		}
+		keys = null;
+		int[] order = new int[nodeCount];
+		for (int i = 0, next = 1; i < nodeCount; i++) {
+			int node = order[i], count = starts[node + 1] - starts[node];
+			NXNodeTable.encode(out.reserve(NXNode.NODE_SIZE), names[node], count == 0 ? 0 : next, count, types[node],
+					payloads[node]);
+			System.arraycopy(children, starts[node], order, next, count);
+			next += count;
+		}
+	}
+
+	/**
+	 * Ranks every string in the string table by {@code String.compareTo}.
+	 */
+	private int[] rankStrings() {
+		Integer[] sorted = new Integer[stringValues.size()];
+		for (int i = 0; i < sorted.length; i++)
+			sorted[i] = i;
+		Arrays.sort(sorted, (a, b) -> stringValues.get(a).compareTo(stringValues.get(b)));
+		int[] rank = new int[sorted.length];
+		for (int i = 0; i < sorted.length; i++)
+			rank[sorted[i]] = i;
+		return rank;
+	}
+
+	private int addNode(int parent, String name) throws IOException {
+		if (nodeCount == Integer.MAX_VALUE)
+			throw new NXException("pkgnx cannot write more than " + Integer.MAX_VALUE + " nodes");
+		if (nodeCount == parents.length) {
+			int capacity = (int) Math.min(Integer.MAX_VALUE, nodeCount * 2L);
+			parents = Arrays.copyOf(parents, capacity);
+			names = Arrays.copyOf(names, capacity);
+			types = Arrays.copyOf(types, capacity);
+			payloads = Arrays.copyOf(payloads, capacity);
+		}
+		parents[nodeCount] = parent;
+		names[nodeCount] = intern(name);
+		return nodeCount++;
+	}
+
+	/**
+	 * Gets the index of {@code value} in the string table, spilling it if it is new.
+	 */
+	private int intern(String value) throws IOException {
+		Integer id = stringIds.get(value);
+		if (id != null)
+			return id;
+		byte[] data = value.getBytes(StandardCharsets.UTF_8);
+		if (data.length > 0xFFFF)
+			throw new NXException("Strings cannot be longer than 65535 bytes.");
+		int index = stringValues.size();
+		strings.align(2);
+		stringOffsets = record(stringOffsets, index, strings.position());
+		strings.putShort(data.length);
+		strings.put(data);
+		stringIds.put(value, index);
+		stringValues.add(value);
+		return index;
+	}
+
+	/**
+	 * Spills a compressed bitmap. This is called from the compression threads, in no particular order.
+	 */
+	private void putBitmap(int index, byte[] compressed) throws IOException {
+		synchronized (bitmaps) {
+			bitmaps.align(8);
+			bitmapOffsets = record(bitmapOffsets, index, bitmaps.position());
+			bitmaps.putInt(compressed.length);
+			bitmaps.put(compressed);
+		}
+	}
+
+	private static long[] record(long[] offsets, int index, long offset) {
+		if (index >= offsets.length)
+			offsets = Arrays.copyOf(offsets, Math.max(index + 1, offsets.length * 2));
+		offsets[index] = offset;
+		return offsets;
+	}
+
+	private void checkOpen() {
+		if (written || closed)
+			throw new NXException("This writer has already been written or closed.");
+	}
+
+	private static void checkSize(int width, int height) {
+		if (width < 0 || width > 0xFFFF || height < 0 || height > 0xFFFF)
+			throw new NXException("Bitmaps must be at most 65535 pixels wide and tall.");
+	}
+
+	/**
+	 * A node in the tree being written. Handles are cheap and need not be kept: a node only has to be reachable
+	 * through its parent, so a streamed source can drop each handle once it is done with it.
+	 *
+	 * @author Aaron Weiss
+	 * @version 1.0.0
+	 * @since 10/19/26
+	 */
+	public class Node {
+		private final int index;
+
+		private Node(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Adds a child, which is a null node until a value is set.
+		 *
+		 * @param name the name of the child, which must be unique among its siblings
+		 * @return the new child
+		 * @throws IOException if the name could not be spilled
+		 */
+		public Node add(String name) throws IOException {
+			checkOpen();
+			return new Node(addNode(index, name));
+		}
+
+		/**
+		 * Makes this node a long.
+		 *
+		 * @param value the value
+		 * @return this node
+		 */
+		public Node setLong(long value) {
+			return set(NXNodeTable.TYPE_LONG, value);
+		}
+
+		/**
+		 * Makes this node a double.
+		 *
+		 * @param value the value
+		 * @return this node
+		 */
+		public Node setDouble(double value) {
+			return set(NXNodeTable.TYPE_DOUBLE, Double.doubleToRawLongBits(value));
+		}
+
+		/**
+		 * Makes this node a string.
+		 *
+		 * @param value the value
+		 * @return this node
+		 * @throws IOException if the string could not be spilled
+		 */
+		public Node setString(String value) throws IOException {
+			checkOpen();
+			return set(NXNodeTable.TYPE_STRING, intern(value));
+		}
+
+		/**
+		 * Makes this node a point.
+		 *
+		 * @param x the x coordinate
+		 * @param y the y coordinate
+		 * @return this node
+		 */
+		public Node setPoint(int x, int y) {
+			return set(NXNodeTable.TYPE_POINT, NXNodeTable.payload(x, y));
+		}
+
+		/**
+		 * Makes this node a bitmap. The pixels are compressed in the background, and this blocks while too many
+		 * bitmaps are already waiting to be compressed.
+		 *
+		 * @param pixels the pixels, four bytes each in blue, green, red, alpha order, row by row
+		 * @param width  the width of the bitmap
+		 * @param height the height of the bitmap
+		 * @return this node
+		 * @throws IOException if a previous bitmap failed to compress or the thread was interrupted
+		 */
+		public Node setBitmap(byte[] pixels, int width, int height) throws IOException {
+			checkOpen();
+			checkSize(width, height);
+			long size = (long) width * height * 4;
+			if (pixels.length != size)
+				throw new NXException("Expected " + size + " bytes of pixels, not " + pixels.length);
+			if (failure != null)
+				throw new IOException("Failed to compress a bitmap.", failure);
+			try {
+				inFlight.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting to compress a bitmap.");
+			}
+			int bitmap = bitmapCount++;
+			workers.execute(() -> {
+				try {
+					putBitmap(bitmap, compressor.compress(pixels));
+				} catch (Throwable t) {
+					failure = t;
+				} finally {
+					inFlight.release();
+				}
+			});
+			return set(NXNodeTable.TYPE_BITMAP, NXNodeTable.bitmapPayload(bitmap, width, height));
+		}
+
+		/**
+		 * Makes this node a bitmap which is already LZ4-compressed, such as one copied from another file.
+		 *
+		 * @param compressed the compressed pixels
+		 * @param width      the width of the bitmap
+		 * @param height     the height of the bitmap
+		 * @return this node
+		 * @throws IOException if the bitmap could not be spilled
+		 */
+		public Node setCompressedBitmap(byte[] compressed, int width, int height) throws IOException {
+			checkSize(width, height);
+			return setBitmap(addCompressedBitmap(compressed), width, height);
+		}
+
+		/**
+		 * Makes this node a bitmap already in the bitmap table.
+		 *
+		 * @param bitmap the index of the bitmap
+		 * @param width  the width of the bitmap
+		 * @param height the height of the bitmap
+		 * @return this node
+		 * @see NXWriter#addCompressedBitmap(byte[])
+		 */
+		public Node setBitmap(int bitmap, int width, int height) {
+			checkSize(width, height);
+			if (bitmap < 0 || bitmap >= bitmapCount)
+				throw new NXException("Bitmap " + bitmap + " has not been added.");
+			return set(NXNodeTable.TYPE_BITMAP, NXNodeTable.bitmapPayload(bitmap, width, height));
+		}
+
+		/**
+		 * Makes this node a sound.
+		 *
+		 * @param data the audio data
+		 * @return this node
+		 * @throws IOException if the audio could not be spilled
+		 */
+		public Node setAudio(byte[] data) throws IOException {
+			return setAudio(addAudio(data), data.length);
+		}
+
+		/**
+		 * Makes this node a sound already in the audio table.
+		 *
+		 * @param sound  the index of the sound
+		 * @param length the length of the audio data
+		 * @return this node
+		 * @see NXWriter#addAudio(byte[])
+		 */
+		public Node setAudio(int sound, int length) {
+			if (sound < 0 || sound >= audioCount)
+				throw new NXException("Sound " + sound + " has not been added.");
+			return set(NXNodeTable.TYPE_AUDIO, NXNodeTable.payload(sound, length));
+		}
+
+		private Node set(int type, long payload) {
+			checkOpen();
+			types[index] = (short) type;
+			payloads[index] = payload;
+			return this;
+		}
+	}
+}
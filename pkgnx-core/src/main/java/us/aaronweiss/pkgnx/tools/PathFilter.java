@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.tools;
+
+import us.aaronweiss.pkgnx.NXQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A set of include and exclude paths which selects subtrees of a file. Paths are node names separated by {@code /},
+ * relative to the root, where each name is a glob as in {@code NXQuery}, so {@code *} matches any one name and
+ * {@code *.img} any name ending in {@code .img}. When any path is included, only the included subtrees and the nodes
+ * on the way to them are selected, and excluded subtrees are never selected.
+ * <p>
+ * Filters are checked incrementally during a depth first walk: the ancestors of a node have already been checked
+ * against every shorter path, so a node only needs checking against the paths as long as its own.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.1
+ * @since 10/19/26
+ */
+class PathFilter {
+	public static final int EXCLUDED = 0, PARTIAL = 1, INCLUDED = 2;
+	private final List<String[]> includes = new ArrayList<>(), excludes = new ArrayList<>();
+
+	/**
+	 * Selects only the subtrees at {@code path}, along with the nodes on the way to them.
+	 *
+	 * @param path the path to include
+	 */
+	public void include(String path) {
+		includes.add(split(path));
+	}
+
+	/**
+	 * Leaves the subtrees at {@code path} out.
+	 *
+	 * @param path the path to exclude
+	 */
+	public void exclude(String path) {
+		excludes.add(split(path));
+	}
+
+	/**
+	 * Determines whether or not any paths are excluded, without which the descendants of an included node need not
+	 * be checked at all.
+	 *
+	 * @return whether or not any paths are excluded
+	 */
+	public boolean hasExcludes() {
+		return !excludes.isEmpty();
+	}
+
+	private static String[] split(String path) {
+		String[] segments = path.split("/");
+		int start = 0, end = segments.length;
+		while (start < end && segments[start].isEmpty())
+			start++;
+		while (end > start && segments[end - 1].isEmpty())
+			end--;
+		return Arrays.copyOfRange(segments, start, end);
+	}
+
+	/**
+	 * Decides whether the node at {@code path} is selected. Only the paths at least {@code from} names long are
+	 * checked, since the ancestors of the node have already been checked against the shorter ones.
+	 *
+	 * @param path     the names leading to the node
+	 * @param length   the number of names in {@code path}
+	 * @param from     the shortest path to check
+	 * @param included whether or not the parent of the node is wholly included
+	 * @return {@code EXCLUDED}, {@code PARTIAL} if only some of its descendants are included, or {@code INCLUDED}
+	 */
+	public int state(String[] path, int length, int from, boolean included) {
+		for (String[] exclude : excludes)
+			if (exclude.length >= from && exclude.length <= length && matches(exclude, path, exclude.length))
+				return EXCLUDED;
+		if (included || includes.isEmpty())
+			return INCLUDED;
+		int state = EXCLUDED;
+		for (String[] include : includes) {
+			if (include.length <= length) {
+				if (include.length >= from && matches(include, path, include.length))
+					return INCLUDED;
+			} else if (matches(include, path, length)) {
+				state = PARTIAL;
+			}
+		}
+		return state;
+	}
+
+	private static boolean matches(String[] pattern, String[] path, int length) {
+		for (int i = 0; i < length; i++)
+			if (!NXQuery.glob(pattern[i], path[i]))
+				return false;
+		return true;
+	}
+}
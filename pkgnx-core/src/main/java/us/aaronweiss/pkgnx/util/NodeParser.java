@@ -32,37 +32,38 @@ import us.aaronweiss.pkgnx.nodes.*;
  * A basic utility to parse data into an {@code NXNode}.
  *
  * @author Aaron Weiss
- * @version 2.0.0
+ * @version 3.0.0
  * @since 5/27/13
  */
 public class NodeParser {
 	/**
 	 * Parses the next {@code NXNode} from the supplied data.
 	 *
-	 * @param file the file to read nodes from
-	 * @param slea the {@code SeekableLittleEndianAccessor} to read the node from
+	 * @param file  the file to read nodes from
+	 * @param index the index of the node in {@code file}
+	 * @param slea  the {@code SeekableLittleEndianAccessor} to read the node from
 	 * @return the newly parsed node
 	 */
-	public static NXNode parseNode(NXFile file, SeekableLittleEndianAccessor slea) {
+	public static NXNode parseNode(NXFile file, int index, SeekableLittleEndianAccessor slea) {
 		String name = file.getTables().getString(slea.getUnsignedInt());
 		long childIndex = slea.getUnsignedInt();
 		int childCount = slea.getUnsignedShort();
 		int type = slea.getUnsignedShort();
 		switch (type) {
 			case 0:
-				return new NXNullNode(name, file, childIndex, childCount, slea);
+				return new NXNullNode(name, file, index, childIndex, childCount, slea);
 			case 1:
-				return new NXLongNode(name, file, childIndex, childCount, slea);
+				return new NXLongNode(name, file, index, childIndex, childCount, slea);
 			case 2:
-				return new NXDoubleNode(name, file, childIndex, childCount, slea);
+				return new NXDoubleNode(name, file, index, childIndex, childCount, slea);
 			case 3:
-				return new NXStringNode(name, file, childIndex, childCount, slea);
+				return new NXStringNode(name, file, index, childIndex, childCount, slea);
 			case 4:
-				return new NXPointNode(name, file, childIndex, childCount, slea);
+				return new NXPointNode(name, file, index, childIndex, childCount, slea);
 			case 5:
-				return new NXBitmapNode(name, file, childIndex, childCount, slea);
+				return new NXBitmapNode(name, file, index, childIndex, childCount, slea);
 			case 6:
-				return new NXAudioNode(name, file, childIndex, childCount, slea);
+				return new NXAudioNode(name, file, index, childIndex, childCount, slea);
 			default:
 				throw new NXException("Failed to parse nodes. Encountered invalid node type (" + type + ") in file.");
 		}
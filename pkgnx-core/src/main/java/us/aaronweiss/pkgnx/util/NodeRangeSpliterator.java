@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.util;
+
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXNode;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A sized {@code Spliterator} over a contiguous range of the node table of an {@code NXFile}. Since the children of a
+ * node are always stored contiguously, this is used to stream the children of a node and splits by halving the range.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class NodeRangeSpliterator implements Spliterator<NXNode> {
+	private static final int CHARACTERISTICS = SIZED | SUBSIZED | ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+	private final NXFile file;
+	private int index;
+	private final int fence;
+
+	/**
+	 * Creates a new {@code NodeRangeSpliterator} over the nodes from {@code origin} (inclusive) to {@code fence}
+	 * (exclusive).
+	 *
+	 * @param file   the file to read nodes from
+	 * @param origin the index of the first node
+	 * @param fence  one past the index of the last node
+	 */
+	public NodeRangeSpliterator(NXFile file, int origin, int fence) {
+		this.file = file;
+		this.index = origin;
+		this.fence = fence;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super NXNode> action) {
+		if (index >= fence)
+			return false;
+		action.accept(file.getNode(index++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super NXNode> action) {
+		int i = index, hi = fence;
+		index = hi;
+		for (; i < hi; i++)
+			action.accept(file.getNode(i));
+	}
+
+	@Override
+	public Spliterator<NXNode> trySplit() {
+		int lo = index, mid = (lo + fence) >>> 1;
+		if (lo >= mid)
+			return null;
+		index = mid;
+		return new NodeRangeSpliterator(file, lo, mid);
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+}
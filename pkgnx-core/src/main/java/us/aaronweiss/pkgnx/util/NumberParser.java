@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.util;
+
+/**
+ * The parsing of numbers stored as strings, shared by the typed accessors of {@code NXFile} and {@code NXNode} and by
+ * the mappers of {@code NXBinder} so that both read the same string as the same value. Plain integers are parsed in
+ * place without allocating, and anything else is tried as a decimal, which is truncated when a {@code long} is wanted.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class NumberParser {
+	private NumberParser() {
+	}
+
+	/**
+	 * Parses a string as a {@code long}.
+	 *
+	 * @param value the string to parse
+	 * @return the parsed value
+	 * @throws NumberFormatException if the string is not a number
+	 */
+	public static long parseLong(String value) {
+		int length = value.length(), i = 0;
+		boolean negative = length > 1 && value.charAt(0) == '-';
+		if (negative || (length > 1 && value.charAt(0) == '+'))
+			i++;
+		if (length == 0 || length - i > 18)
+			return parseDecimal(value);
+		long result = 0;
+		for (; i < length; i++) {
+			int digit = value.charAt(i) - '0';
+			if (digit < 0 || digit > 9)
+				return parseDecimal(value);
+			result = result * 10 + digit;
+		}
+		return negative ? -result : result;
+	}
+
+	/**
+	 * Parses a string as a {@code long}, falling back to {@code def} if it is not a number.
+	 *
+	 * @param value the string to parse
+	 * @param def   the value to fall back to
+	 * @return the parsed value
+	 */
+	public static long parseLong(String value, long def) {
+		try {
+			return parseLong(value);
+		} catch (NumberFormatException e) {
+			return def;
+		}
+	}
+
+	private static long parseDecimal(String value) {
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return (long) Double.parseDouble(value);
+		}
+	}
+
+	/**
+	 * Parses a string as a {@code double}. Surrounding whitespace is ignored.
+	 *
+	 * @param value the string to parse
+	 * @return the parsed value
+	 * @throws NumberFormatException if the string is not a number
+	 */
+	public static double parseDouble(String value) {
+		return Double.parseDouble(value);
+	}
+
+	/**
+	 * Parses a string as a {@code double}, falling back to {@code def} if it is not a number.
+	 *
+	 * @param value the string to parse
+	 * @param def   the value to fall back to
+	 * @return the parsed value
+	 */
+	public static double parseDouble(String value, double def) {
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return def;
+		}
+	}
+}
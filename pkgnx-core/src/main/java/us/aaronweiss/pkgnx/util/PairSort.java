@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A parallel merge sort over parallel arrays of {@code long} keys and {@code int} values, ordering by key and then by
+ * value. This lets the index builders and the writer sort millions of pairs without boxing them.
+ *
+ * @author Aaron Weiss
+ * @version 1.1.2
+ * @since 10/19/26
+ */
+public class PairSort extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+	private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+	private static final int INSERTION_THRESHOLD = 32;
+	private final long[] keys, keyScratch;
+	private final int[] values, valueScratch;
+	private final int base, from, to;
+
+	private PairSort(long[] keys, int[] values, long[] keyScratch, int[] valueScratch, int base, int from, int to) {
+		this.keys = keys;
+		this.values = values;
+		this.keyScratch = keyScratch;
+		this.valueScratch = valueScratch;
+		this.base = base;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Sorts the first {@code length} pairs of {@code keys} and {@code values} in parallel.
+	 *
+	 * @param keys   the keys to sort by
+	 * @param values the values to sort along with their keys
+	 * @param length the number of pairs to sort
+	 */
+	public static void sort(long[] keys, int[] values, int length) {
+		sort(keys, values, 0, length);
+	}
+
+	/**
+	 * Sorts the pairs of {@code keys} and {@code values} from {@code from} (inclusive) to {@code to} (exclusive) in
+	 * parallel.
+	 *
+	 * @param keys   the keys to sort by
+	 * @param values the values to sort along with their keys
+	 * @param from   the index of the first pair to sort
+	 * @param to     one past the index of the last pair to sort
+	 */
+	public static void sort(long[] keys, int[] values, int from, int to) {
+		if (to - from < 2)
+			return;
+		ForkJoinPool.commonPool().invoke(new PairSort(keys, values, new long[to - from], new int[to - from], from, from,
+				to));
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from <= SEQUENTIAL_THRESHOLD) {
+			sequential(from, to);
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		invokeAll(new PairSort(keys, values, keyScratch, valueScratch, base, from, mid),
+				new PairSort(keys, values, keyScratch, valueScratch, base, mid, to));
+		merge(from, mid, to);
+	}
+
+	/**
+	 * Sorts a range on the current thread.
+	 */
+	private void sequential(int lo, int hi) {
+		if (hi - lo <= INSERTION_THRESHOLD) {
+			for (int i = lo + 1; i < hi; i++) {
+				long k = keys[i];
+				int v = values[i], j = i - 1;
+				for (; j >= lo && compare(keys[j], values[j], k, v) > 0; j--) {
+					keys[j + 1] = keys[j];
+					values[j + 1] = values[j];
+				}
+				keys[j + 1] = k;
+				values[j + 1] = v;
+			}
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		sequential(lo, mid);
+		sequential(mid, hi);
+		merge(lo, mid, hi);
+	}
+
+	/**
+	 * Merges two adjacent sorted ranges.
+	 */
+	private void merge(int lo, int mid, int hi) {
+		if (compare(keys[mid - 1], values[mid - 1], keys[mid], values[mid]) <= 0)
+			return;
+		System.arraycopy(keys, lo, keyScratch, lo - base, hi - lo);
+		System.arraycopy(values, lo, valueScratch, lo - base, hi - lo);
+		int i = lo - base, m = mid - base, j = m, h = hi - base, k = lo;
+		while (i < m && j < h) {
+			if (compare(keyScratch[i], valueScratch[i], keyScratch[j], valueScratch[j]) <= 0) {
+				keys[k] = keyScratch[i];
+				values[k++] = valueScratch[i++];
+			} else {
+				keys[k] = keyScratch[j];
+				values[k++] = valueScratch[j++];
+			}
+		}
+		for (; i < m; i++, k++) {
+			keys[k] = keyScratch[i];
+			values[k] = valueScratch[i];
+		}
+		for (; j < h; j++, k++) {
+			keys[k] = keyScratch[j];
+			values[k] = valueScratch[j];
+		}
+	}
+
+	private static int compare(long k1, int v1, long k2, int v2) {
+		int cmp = Long.compare(k1, k2);
+		return cmp != 0 ? cmp : Integer.compare(v1, v2);
+	}
+}
@@ -32,14 +32,14 @@ import us.aaronweiss.pkgnx.NXException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
 
 /**
  * An indexed accessor for reading Little Endian-formatted data.
  *
  * @author Aaron Weiss
- * @version 1.1.0
+ * @version 1.3.0
  * @since 5/26/13
  */
 public class SeekableLittleEndianAccessor {
@@ -47,11 +47,19 @@ public class SeekableLittleEndianAccessor {
 	private static final ThreadLocal<CharsetDecoder> utfDecoder = new ThreadLocal<CharsetDecoder>() {
 		@Override
 		protected CharsetDecoder initialValue() {
-			return Charset.forName("UTF-8").newDecoder();
+			return StandardCharsets.UTF_8.newDecoder();
 		}
 	};
+	private static final ThreadLocal<ByteBuffer> scratch = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(64);
+		}
+	};
+	private static final long HIGH_BITS = 0x8080808080808080L;
 	private final ByteBuf buf;
 	private final ThreadLocal<ByteBuf> localBuf;
+	private volatile boolean closed;
 
 	/**
 	 * Creates an immutable {@code SeekableLittleEndianAccessor} from an array of bytes.
@@ -92,6 +100,35 @@ public class SeekableLittleEndianAccessor {
 	 * @return the internal buffer
 	 */
 	public ByteBuf getBuf() {
+		return buf();
+	}
+
+	/**
+	 * Closes this accessor, so that every later read fails with an {@code NXException} instead of touching a buffer
+	 * which may have been released.
+	 */
+	public void close() {
+		closed = true;
+	}
+
+	/**
+	 * Determines whether or not this accessor has been closed.
+	 *
+	 * @return whether or not this accessor is closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Gets this thread's view of the buffer, failing if the accessor has been closed.
+	 *
+	 * @return the buffer
+	 * @throws NXException if this accessor has been closed
+	 */
+	private ByteBuf buf() {
+		if (closed)
+			throw new NXException("Cannot read from a closed file.");
 		return localBuf.get();
 	}
 
@@ -102,7 +139,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#skipBytes(int)
 	 */
 	public void skip(int length) {
-		localBuf.get().skipBytes(length);
+		buf().skipBytes(length);
 	}
 
 	/**
@@ -124,21 +161,21 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readerIndex(int)
 	 */
 	public void seek(int offset) {
-		localBuf.get().readerIndex(offset);
+		buf().readerIndex(offset);
 	}
 
 	/**
 	 * Marks the current index to be returned to later.
 	 */
 	public void mark() {
-		localBuf.get().markReaderIndex();
+		buf().markReaderIndex();
 	}
 
 	/**
 	 * Seeks back to the last marked index.
 	 */
 	public void reset() {
-		localBuf.get().resetReaderIndex();
+		buf().resetReaderIndex();
 	}
 
 	/**
@@ -149,7 +186,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readByte()
 	 */
 	public byte getByte() {
-		return localBuf.get().readByte();
+		return buf().readByte();
 	}
 
 	/**
@@ -160,7 +197,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readUnsignedByte()
 	 */
 	public short getUnsignedByte() {
-		return localBuf.get().readUnsignedByte();
+		return buf().readUnsignedByte();
 	}
 
 	/**
@@ -171,7 +208,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readShort()
 	 */
 	public short getShort() {
-		return localBuf.get().readShort();
+		return buf().readShort();
 	}
 
 	/**
@@ -182,7 +219,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readUnsignedShort()
 	 */
 	public int getUnsignedShort() {
-		return localBuf.get().readUnsignedShort();
+		return buf().readUnsignedShort();
 	}
 
 	/**
@@ -193,7 +230,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readInt()
 	 */
 	public int getInt() {
-		return localBuf.get().readInt();
+		return buf().readInt();
 	}
 
 	/**
@@ -204,7 +241,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readUnsignedInt()
 	 */
 	public long getUnsignedInt() {
-		return localBuf.get().readUnsignedInt();
+		return buf().readUnsignedInt();
 	}
 
 	/**
@@ -215,7 +252,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readLong()
 	 */
 	public long getLong() {
-		return localBuf.get().readLong();
+		return buf().readLong();
 	}
 
 	/**
@@ -226,7 +263,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readFloat()
 	 */
 	public float getFloat() {
-		return localBuf.get().readFloat();
+		return buf().readFloat();
 	}
 
 	/**
@@ -237,7 +274,7 @@ public class SeekableLittleEndianAccessor {
 	 * @see io.netty.buffer.ByteBuf#readDouble()
 	 */
 	public double getDouble() {
-		return localBuf.get().readDouble();
+		return buf().readDouble();
 	}
 
 	/**
@@ -250,7 +287,7 @@ public class SeekableLittleEndianAccessor {
 	 */
 	public byte[] getBytes(int length) {
 		byte[] ret = new byte[length];
-		localBuf.get().readBytes(ret);
+		buf().readBytes(ret);
 		return ret;
 	}
 
@@ -264,7 +301,7 @@ public class SeekableLittleEndianAccessor {
 	 */
 	public ByteBuf getBuf(int length) {
 		ByteBuf ret = Unpooled.buffer(length);
-		localBuf.get().readBytes(ret);
+		buf().readBytes(ret);
 		return ret;
 	}
 
@@ -278,18 +315,46 @@ public class SeekableLittleEndianAccessor {
 	}
 
 	/**
-	 * Gets the next UTF String of length {@code length} from the buffer.
+	 * Gets the next UTF String of length {@code length} from the buffer. The bytes are copied once into a per-thread
+	 * scratch buffer and checked a long at a time; strings made up entirely of ASCII, which is nearly every name in a
+	 * real file, are then built directly from them, and anything else falls back to a full UTF-8 decode.
 	 *
 	 * @param length the length of the string
 	 * @return the next string
 	 */
 	public String getUTFString(int length) {
+		ByteBuf buf = buf();
+		ByteBuffer data = scratch.get();
+		if (data.capacity() < length)
+			scratch.set(data = ByteBuffer.allocate(Math.max(length, data.capacity() << 1)));
+		buf.readBytes(data.array(), 0, length);
+		if (isAscii(data, length))
+			return new String(data.array(), 0, length, StandardCharsets.ISO_8859_1);
 		try {
-			byte[] data = getBytes(length);
-			return utfDecoder.get().decode(ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN)).toString();
+			data.limit(length);
+			return utfDecoder.get().decode(data).toString();
 		} catch (CharacterCodingException e) {
 			logger.error("Failed to load UTF String in buffer.", e);
+		} finally {
+			data.clear();
 		}
 		return null;
 	}
+
+	/**
+	 * Determines whether or not the first {@code length} bytes of {@code data} are all ASCII, reading a long at a time.
+	 *
+	 * @param data   the bytes to check
+	 * @param length the number of bytes to check
+	 * @return whether or not every byte is ASCII
+	 */
+	private static boolean isAscii(ByteBuffer data, int length) {
+		long bits = 0;
+		int index = 0;
+		for (; index + 8 <= length; index += 8)
+			bits |= data.getLong(index);
+		for (; index < length; index++)
+			bits |= data.get(index);
+		return (bits & HIGH_BITS) == 0;
+	}
 }
@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.util;
+
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXNode;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A {@code Spliterator} that walks all of the descendants of a node depth-first. Pending work is kept as a stack of
+ * child index ranges, each within the node table of the file it belongs to, and splitting hands off half of the
+ * shallowest pending range so that each split takes the largest remaining share of the tree with it. Nodes rejected by
+ * the filter are pruned along with their entire subtree. Tracking the file per range lets a walk cross from one file
+ * into another, as it does through an {@code OverlayNXFile}.
+ * <p>
+ * A walk of only the children of a node without a filter is {@code SIZED}. Deeper walks are not, since the size of a
+ * subtree is not recorded in the file. Their estimate is bounded by the nodes from the first child to the end of the
+ * node table instead, because descendants always come after their parents.
+ *
+ * @author Aaron Weiss
+ * @version 1.2.0
+ * @since 10/19/26
+ */
+public class SubtreeSpliterator implements Spliterator<NXNode> {
+	private static final int CHARACTERISTICS = DISTINCT | NONNULL | IMMUTABLE;
+	private final int maxDepth;
+	private final boolean sized;
+	private final Predicate<? super NXNode> filter;
+	private NXFile[] files;
+	private int[] lo, hi, depth;
+	private int top;
+	private NXNode pending;
+	private long est;
+
+	/**
+	 * Creates a new {@code SubtreeSpliterator} over the descendants of {@code root}.
+	 *
+	 * @param root     the node whose descendants to walk
+	 * @param maxDepth the maximum depth to descend to, where the children of {@code root} are at depth 1
+	 * @param filter   the filter deciding which nodes (and their subtrees) to keep, or null to keep everything
+	 */
+	public SubtreeSpliterator(NXNode root, int maxDepth, Predicate<? super NXNode> filter) {
+		this(maxDepth, filter, estimate(root, maxDepth));
+		if (maxDepth > 0 && root.getChildCount() > 0)
+			push(root.getFile(), (int) root.getFirstChildIndex(),
+					(int) root.getFirstChildIndex() + root.getChildCount(), 1);
+	}
+
+	/**
+	 * Estimates the number of descendants of {@code root} down to {@code maxDepth}, exactly for its children alone
+	 * and otherwise as the nodes from its first child to the end of the node table.
+	 */
+	private static long estimate(NXNode root, int maxDepth) {
+		if (maxDepth <= 0)
+			return 0;
+		int children = root.getChildCount();
+		if (maxDepth == 1 || children == 0)
+			return children;
+		return Math.max(children, root.getFile().getHeader().getNodeCount() - root.getFirstChildIndex());
+	}
+
+	/**
+	 * Creates an empty {@code SubtreeSpliterator} to be filled by a split.
+	 *
+	 * @param maxDepth the maximum depth to descend to
+	 * @param filter   the pruning filter, or null
+	 * @param est      the estimated number of nodes remaining
+	 */
+	private SubtreeSpliterator(int maxDepth, Predicate<? super NXNode> filter, long est) {
+		this.maxDepth = maxDepth;
+		this.filter = filter;
+		this.est = est;
+		this.sized = maxDepth <= 1 && filter == null;
+		files = new NXFile[8];
+		lo = new int[8];
+		hi = new int[8];
+		depth = new int[8];
+	}
+
+	/**
+	 * Pushes a range of sibling nodes onto the pending stack.
+	 *
+	 * @param file  the file the nodes are in
+	 * @param from  the index of the first node
+	 * @param to    one past the index of the last node
+	 * @param level the depth of the nodes in the range
+	 */
+	private void push(NXFile file, int from, int to, int level) {
+		if (top == lo.length) {
+			files = Arrays.copyOf(files, top * 2);
+			lo = Arrays.copyOf(lo, top * 2);
+			hi = Arrays.copyOf(hi, top * 2);
+			depth = Arrays.copyOf(depth, top * 2);
+		}
+		files[top] = file;
+		lo[top] = from;
+		hi[top] = to;
+		depth[top++] = level;
+	}
+
+	/**
+	 * Queues the children of {@code node} if it is not too deep.
+	 *
+	 * @param node  the node to descend into
+	 * @param level the depth of {@code node}
+	 */
+	private void descend(NXNode node, int level) {
+		if (level < maxDepth && node.getChildCount() > 0)
+			push(node.getFile(), (int) node.getFirstChildIndex(),
+					(int) node.getFirstChildIndex() + node.getChildCount(), level + 1);
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super NXNode> action) {
+		if (pending != null) {
+			NXNode node = pending;
+			pending = null;
+			action.accept(node);
+			return true;
+		}
+		while (top > 0) {
+			int t = top - 1, level = depth[t];
+			NXNode node = files[t].getNode(lo[t]++);
+			if (lo[t] >= hi[t])
+				files[--top] = null;
+			if (filter != null && !filter.test(node))
+				continue;
+			descend(node, level);
+			action.accept(node);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Spliterator<NXNode> trySplit() {
+		// a lone node cannot be divided, so expand it and split its children instead
+		while (pending == null && top == 1 && hi[0] - lo[0] == 1) {
+			int level = depth[0];
+			NXNode node = files[0].getNode(lo[0]);
+			files[0] = null;
+			top = 0;
+			if (filter != null && !filter.test(node))
+				return null;
+			pending = node;
+			descend(node, level);
+		}
+		if (top == 0 || (top == 1 && hi[0] - lo[0] == 1))
+			return null;
+		SubtreeSpliterator split = new SubtreeSpliterator(maxDepth, filter, est >>>= 1);
+		if (hi[0] - lo[0] > 1) {
+			int mid = (lo[0] + hi[0]) >>> 1;
+			split.push(files[0], mid, hi[0], depth[0]);
+			hi[0] = mid;
+		} else {
+			split.push(files[0], lo[0], hi[0], depth[0]);
+			top--;
+			System.arraycopy(files, 1, files, 0, top);
+			files[top] = null;
+			System.arraycopy(lo, 1, lo, 0, top);
+			System.arraycopy(hi, 1, hi, 0, top);
+			System.arraycopy(depth, 1, depth, 0, top);
+		}
+		return split;
+	}
+
+	@Override
+	public long estimateSize() {
+		if (!sized)
+			return est;
+		long size = pending != null ? 1 : 0;
+		for (int t = 0; t < top; t++)
+			size += hi[t] - lo[t];
+		return size;
+	}
+
+	@Override
+	public int characteristics() {
+		return sized ? CHARACTERISTICS | SIZED | SUBSIZED : CHARACTERISTICS;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases memory mappings immediately instead of waiting for the garbage collector. On Java 9 and later this uses
+ * {@code Unsafe.invokeCleaner}, and on Java 8 the cleaner of the buffer itself. If neither is accessible, mappings
+ * are left for the garbage collector as before.
+ * <p>
+ * Once a buffer has been unmapped, touching it crashes the JVM, so callers must make sure that nothing reads it again.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class Unmapper {
+	private static final Logger logger = LoggerFactory.getLogger(Unmapper.class);
+	private static final Object unsafe;
+	private static final Method invokeCleaner;
+
+	static {
+		Object theUnsafe = null;
+		Method cleaner = null;
+		try {
+			Class<?> type = Class.forName("sun.misc.Unsafe");
+			cleaner = type.getMethod("invokeCleaner", java.nio.ByteBuffer.class);
+			Field field = type.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			theUnsafe = field.get(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			cleaner = null; // Java 8, which uses the buffer's own cleaner instead
+		}
+		unsafe = theUnsafe;
+		invokeCleaner = cleaner;
+	}
+
+	/**
+	 * Unmaps {@code buffer}.
+	 *
+	 * @param buffer the buffer to unmap
+	 * @return whether or not the buffer was unmapped, rather than left to the garbage collector
+	 */
+	public static boolean unmap(MappedByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect())
+			return false;
+		try {
+			if (invokeCleaner != null) {
+				invokeCleaner.invoke(unsafe, buffer);
+			} else {
+				Method cleaner = buffer.getClass().getMethod("cleaner");
+				cleaner.setAccessible(true);
+				Object clean = cleaner.invoke(buffer);
+				if (clean == null)
+					return false;
+				clean.getClass().getMethod("clean").invoke(clean);
+			}
+			return true;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			logger.warn("Unable to unmap buffer, leaving it to the garbage collector.", e);
+			return false;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (C) 2014 Aaron Weiss
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package us.aaronweiss.pkgnx.test;
+
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.aaronweiss.pkgnx.EagerNXFile;
+import us.aaronweiss.pkgnx.LazyNXFile;
+import us.aaronweiss.pkgnx.NXFile;
+import us.aaronweiss.pkgnx.NXNode;
+import us.aaronweiss.pkgnx.nodes.NXAudioNode;
+import us.aaronweiss.pkgnx.nodes.NXBitmapNode;
+import us.aaronweiss.pkgnx.nodes.NXDoubleNode;
+import us.aaronweiss.pkgnx.nodes.NXLongNode;
+import us.aaronweiss.pkgnx.nodes.NXPointNode;
+import us.aaronweiss.pkgnx.nodes.NXStringNode;
+import us.aaronweiss.pkgnx.tools.NXGenerator;
+import us.aaronweiss.pkgnx.tools.NXValidator;
+import us.aaronweiss.pkgnx.tools.NXWriter;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A test that generates synthetic files, opens them eagerly and lazily, validates them, and writes them back out
+ * through {@code NXWriter}, checking that every node survives each step unchanged.
+ *
+ * @author Aaron Weiss
+ * @version 1.0.0
+ * @since 10/19/26
+ */
+public class GeneratorRoundTripTest {
+	private static final Logger logger = LoggerFactory.getLogger(GeneratorRoundTripTest.class);
+	private static final long[] SEEDS = {0, 1};
+	private static final NXGenerator.Profile[] PROFILES = {NXGenerator.Profile.TINY, NXGenerator.Profile.SMALL};
+
+	/**
+	 * Runs the round trip for every profile and seed.
+	 *
+	 * @param args ignored
+	 */
+	public static void main(String[] args) throws IOException {
+		Path directory = Files.createTempDirectory("pkgnx-roundtrip");
+		try {
+			for (NXGenerator.Profile profile : PROFILES)
+				for (long seed : SEEDS)
+					roundTrip(directory, profile, seed);
+		} finally {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+				for (Path path : files)
+					Files.delete(path);
+			}
+			Files.delete(directory);
+		}
+		logger.info("[pkgnx] round trips complete.");
+	}
+
+	/**
+	 * Generates a file, checks that the eager and lazy views of it agree and that it validates, then copies it with
+	 * {@code NXWriter} and checks the copy in the same way.
+	 *
+	 * @param directory the directory to write files to
+	 * @param profile   the profile to generate
+	 * @param seed      the seed to generate
+	 */
+	public static void roundTrip(Path directory, NXGenerator.Profile profile, long seed) throws IOException {
+		Path generated = directory.resolve("generated-" + seed + ".nx");
+		Path copied = directory.resolve("copied-" + seed + ".nx");
+		new NXGenerator(seed, profile).generate(generated);
+		validate(generated);
+		NXFile eager = new EagerNXFile(generated);
+		NXFile lazy = new LazyNXFile(generated);
+		try {
+			compare(eager.getRoot(), lazy.getRoot());
+			try (NXWriter writer = new NXWriter(copied)) {
+				copyChildren(eager.getRoot(), writer.getRoot());
+				writer.write();
+			}
+			validate(copied);
+			NXFile copy = new LazyNXFile(copied);
+			try {
+				compare(eager.getRoot(), copy.getRoot());
+			} finally {
+				copy.close();
+			}
+		} finally {
+			eager.close();
+			lazy.close();
+		}
+		logger.info("[pkgnx] seed " + seed + " round trip of " + eager.getHeader().getNodeCount() + " nodes passed.");
+	}
+
+	private static void validate(Path path) throws IOException {
+		NXValidator.Report report = new NXValidator(path).validate();
+		if (!report.isValid())
+			throw new RuntimeException(path + " failed validation: " + report.getProblems());
+	}
+
+	private static void compare(NXNode expected, NXNode actual) {
+		if (!expected.getName().equals(actual.getName()) || expected.getClass() != actual.getClass()
+				|| expected.getChildCount() != actual.getChildCount()
+				|| !Objects.deepEquals(expected.get(), actual.get()))
+			throw new RuntimeException("pkgnx differs at " + expected.getPath() + ".");
+		for (NXNode child : expected) {
+			NXNode match = actual.getChild(child.getName());
+			if (match == null)
+				throw new RuntimeException("pkgnx is missing " + child.getPath() + ".");
+			compare(child, match);
+		}
+	}
+
+	private static void copyChildren(NXNode source, NXWriter.Node target) throws IOException {
+		for (NXNode child : source) {
+			NXWriter.Node copy = target.add(child.getName());
+			if (child instanceof NXLongNode) {
+				copy.setLong(((NXLongNode) child).getLong());
+			} else if (child instanceof NXDoubleNode) {
+				copy.setDouble(((NXDoubleNode) child).getDouble());
+			} else if (child instanceof NXStringNode) {
+				copy.setString(((NXStringNode) child).getString());
+			} else if (child instanceof NXPointNode) {
+				copy.setPoint(((NXPointNode) child).getX(), ((NXPointNode) child).getY());
+			} else if (child instanceof NXBitmapNode) {
+				NXBitmapNode bitmap = (NXBitmapNode) child;
+				copy.setBitmap(bitmap.getPixels(), bitmap.getWidth(), bitmap.getHeight());
+			} else if (child instanceof NXAudioNode) {
+				ByteBuf audio = ((NXAudioNode) child).getAudioBuf();
+				byte[] data = new byte[audio.readableBytes()];
+				audio.getBytes(audio.readerIndex(), data);
+				copy.setAudio(data);
+			}
+			copyChildren(child, copy);
+		}
+	}
+}
@@ -35,10 +35,10 @@ import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
 /**
- * A complex optimization test that enables developers to determine the optimal cutoff point for using maps to store
- * node children. Specifically, this helps determine the most efficient balance between load time and search time for
- * pkgnx. Nodes with the cutoff or more children will use a map internally whereas those below the cutoff will use an
- * array and binary searching. The results, as of v1.2.0, say that 41 children is the optimal cutoff. Be careful with
+ * A complex optimization test that enables developers to determine the optimal cutoff point for hashing node
+ * children. Specifically, this helps determine the most efficient balance between load time and search time for
+ * pkgnx. Nodes with the cutoff or more children will use a hash table internally whereas those below the cutoff will
+ * binary search the node table. The results, as of v1.2.0, say that 41 children is the optimal cutoff. Be careful with
  * this benchmark, it can easily take a very long time.
  *
  * @author Aaron Weiss
@@ -60,8 +60,8 @@ public class MapCutoffOptimizer {
 		long lowest = Long.MAX_VALUE;
 		int lowestId = 12;
 		for (int k = 12; k <= 100; k++) {
-			// n.b. this is an optimization test, you must make MIN_COUNT_FOR_MAPS non-final and public first
-			// NXNode.MIN_COUNT_FOR_MAPS = k;
+			// n.b. this is an optimization test, you must make MIN_COUNT_FOR_HASH non-final and public first
+			// NXNode.MIN_COUNT_FOR_HASH = k;
 			ResultSet rs1 = new ResultSet(TRIALS);
 			NXFile file = null;
 			for (int i = 0; i < TRIALS; i++) {